@@ -120,11 +120,12 @@ public class AssetService {
     // 引数をAssetReceiveFromOrderRequestに変更
     public List<AssetMaster> receiveFromOrder(AssetReceiveFromOrderRequest req) {
         // 1. 発注書をorderNoで検索 (purchaseOrderIdではなくorderNoを使用)
-        PurchaseOrder purchaseOrder = purchaseOrderRepository.findByOrderNo(req.getOrderNo())
+        // 同じ発注への同時納品で集計が上書きされないよう、発注の行をロックしてから明細を読む
+        PurchaseOrder purchaseOrder = purchaseOrderRepository.findByOrderNoForUpdate(req.getOrderNo())
                 .orElseThrow(() -> new ResourceNotFoundException("発注書が見つかりません: No. " + req.getOrderNo()));
 
         // 発注区分が設備品向けであることを確認（ケースAの前提に基づくバリデーション）
-        if (!"ASSET".equals(purchaseOrder.getOrderType())) {
+        if (purchaseOrder.getOrderType() != PurchaseOrder.OrderType.ASSET) {
             throw new IllegalArgumentException("この発注書は設備品向けではありません。");
         }
 
@@ -167,18 +168,13 @@ public class AssetService {
             newAsset.setLastUpdated(LocalDateTime.now());
             assetMasterRepository.save(newAsset);
 
-            // 6. 発注明細の納品済み数量を更新
-            itemToDeliver.setQuantity(currentReceivedQuantity.add(quantityInThisDelivery));
+            // 6. 発注明細の納品済み数量を更新（発注ヘッダーの集計も合わせて更新）
+            purchaseOrder.receiveLine(itemToDeliver, quantityInThisDelivery);
             purchaseOrderDetailRepository.save(itemToDeliver);
         }
 
-        // 7. 発注書全体のステータスを更新 (全ての明細が納品完了したかチェック)
-        purchaseOrder.getDetails().forEach(item -> purchaseOrderDetailRepository.save(item)); // 念のため、関連する全てのアイテムを保存
-
-        boolean allItemsDelivered = purchaseOrder.getDetails().stream()
-                .allMatch(item -> item.getQuantity().compareTo(item.getReceivedQuantity()) <= 0);
-
-        if (allItemsDelivered) {
+        // 7. 発注書全体のステータスを更新（未完了明細数で判定し、明細は読み込まない）
+        if (purchaseOrder.isAllLinesCompleted()) {
             purchaseOrder.setStatus("完了");
         } else {
             purchaseOrder.setStatus("一部入庫");
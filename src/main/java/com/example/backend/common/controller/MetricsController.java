@@ -0,0 +1,92 @@
+package com.example.backend.common.controller;
+
+import com.example.backend.common.outbox.OutboxRelay;
+import com.example.backend.common.retry.ConflictMetrics;
+import com.example.backend.common.service.numbering.NumberingMetrics;
+import com.example.backend.inventory.service.InventoryJournal;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/v1/api/metrics")
+@Tag(name = "メトリクスAPI", description = "性能調査用の集計値取得")
+public class MetricsController {
+
+  private final NumberingMetrics numberingMetrics;
+  private final ConflictMetrics conflictMetrics;
+  private final InventoryJournal inventoryJournal;
+  private final OutboxRelay outboxRelay;
+
+  public MetricsController(NumberingMetrics numberingMetrics, ConflictMetrics conflictMetrics,
+      InventoryJournal inventoryJournal, OutboxRelay outboxRelay) {
+    this.numberingMetrics = numberingMetrics;
+    this.conflictMetrics = conflictMetrics;
+    this.inventoryJournal = inventoryJournal;
+    this.outboxRelay = outboxRelay;
+  }
+
+  @Operation(summary = "採番ロックの待ち時間・保持時間（番号種別ごと）")
+  @GetMapping("/numbering")
+  public ResponseEntity<?> getNumberingMetrics() {
+    return ResponseEntity.ok(
+        Map.of(
+            "status", 200,
+            "message", "Numbering metrics retrieved.",
+            "data", numberingMetrics.snapshot()));
+  }
+
+  @Operation(summary = "採番ロックの集計値をリセット")
+  @DeleteMapping("/numbering")
+  public ResponseEntity<?> resetNumberingMetrics() {
+    numberingMetrics.reset();
+    return ResponseEntity.ok(
+        Map.of(
+            "status", 200,
+            "message", "Numbering metrics reset."));
+  }
+
+  @Operation(summary = "楽観的排他の競合回数・競合率（在庫ごと）")
+  @GetMapping("/stock-conflicts")
+  public ResponseEntity<?> getConflictMetrics() {
+    return ResponseEntity.ok(
+        Map.of(
+            "status", 200,
+            "message", "Conflict metrics retrieved.",
+            "data", conflictMetrics.snapshot()));
+  }
+
+  @Operation(summary = "楽観的排他の集計値をリセット")
+  @DeleteMapping("/stock-conflicts")
+  public ResponseEntity<?> resetConflictMetrics() {
+    conflictMetrics.reset();
+    return ResponseEntity.ok(
+        Map.of(
+            "status", 200,
+            "message", "Conflict metrics reset."));
+  }
+
+  @Operation(summary = "入出庫ジャーナルの追記件数・fsync回数・DB反映待ち件数")
+  @GetMapping("/journal")
+  public ResponseEntity<?> getJournalMetrics() {
+    return ResponseEntity.ok(
+        Map.of(
+            "status", 200,
+            "message", "Journal metrics retrieved.",
+            "data", inventoryJournal.snapshot()));
+  }
+
+  @Operation(summary = "アウトボックスの送出件数・バッチ数・失敗回数・送出待ち件数")
+  @GetMapping("/outbox")
+  public ResponseEntity<?> getOutboxMetrics() {
+    return ResponseEntity.ok(
+        Map.of(
+            "status", 200,
+            "message", "Outbox metrics retrieved.",
+            "data", outboxRelay.snapshot()));
+  }
+}
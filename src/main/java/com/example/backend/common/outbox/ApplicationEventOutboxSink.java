@@ -0,0 +1,27 @@
+package com.example.backend.common.outbox;
+
+import com.example.backend.entity.OutboxEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * アプリ内のリスナーへの送出
+ * バッチごとに {@link OutboxEventBatch} を発行する。リスナーは送出スレッドで同期的に呼ばれ、
+ * 例外を投げるとバッチ全体が再送される。
+ */
+@Component
+public class ApplicationEventOutboxSink implements OutboxSink {
+
+    private final ApplicationEventPublisher publisher;
+
+    public ApplicationEventOutboxSink(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        publisher.publishEvent(new OutboxEventBatch(List.copyOf(events)));
+    }
+}
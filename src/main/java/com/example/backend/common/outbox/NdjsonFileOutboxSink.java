@@ -0,0 +1,112 @@
+package com.example.backend.common.outbox;
+
+import com.example.backend.entity.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * ローカルの NDJSON ファイル（1行1イベント）への送出（outbox.file.enabled=true で有効）。
+ *
+ * 書き込み中のファイルは outbox-current.ndjson。max-bytes を超えたら最後のイベントの id を付けた
+ * outbox-{id}.ndjson に名前を変えて次のファイルに切り替え、古いものから max-files を超えた分を削除する。
+ * ファイル名の順・行の順は送出した順であり、イベントの発生順とは限らない（id はコミット前に採番されるため、
+ * 小さい id のイベントが後からコミットされて後続のファイルに入ることがある）。順序が必要な連携先は id で並べ替えること。
+ * バッチごとに fsync してから戻るため、送出済みとしてアウトボックスから消したイベントはファイルに残っている。
+ */
+@Component
+public class NdjsonFileOutboxSink implements OutboxSink {
+
+    static final String CURRENT_FILE = "outbox-current.ndjson";
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path dir;
+    private final long maxBytes;
+    private final int maxFiles;
+
+    private FileChannel channel;
+
+    public NdjsonFileOutboxSink(ObjectMapper objectMapper,
+            @Value("${outbox.file.enabled:false}") boolean enabled,
+            @Value("${outbox.file.dir:data/outbox}") String dir,
+            @Value("${outbox.file.max-bytes:67108864}") long maxBytes,
+            @Value("${outbox.file.max-files:20}") int maxFiles) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        if (!enabled || events.isEmpty()) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream lines = new ByteArrayOutputStream();
+            for (OutboxEvent event : events) {
+                objectMapper.writeValue(lines, event);
+                lines.write('\n');
+            }
+            FileChannel ch = channel();
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) {
+                ch.write(buffer);
+            }
+            ch.force(false);
+            if (ch.size() >= maxBytes) {
+                roll(events.get(events.size() - 1).getId());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            Files.createDirectories(dir);
+            channel = FileChannel.open(dir.resolve(CURRENT_FILE), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private void roll(long lastId) throws IOException {
+        close();
+        Files.move(dir.resolve(CURRENT_FILE), dir.resolve(String.format("outbox-%019d.ndjson", lastId)),
+                StandardCopyOption.ATOMIC_MOVE);
+        List<Path> rolled;
+        try (Stream<Path> files = Files.list(dir)) {
+            rolled = files.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.startsWith("outbox-") && name.endsWith(".ndjson") && !name.equals(CURRENT_FILE);
+            }).sorted().toList();
+        }
+        for (int i = 0; i < rolled.size() - maxFiles; i++) {
+            Files.deleteIfExists(rolled.get(i));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.backend.common.outbox;
+
+import com.example.backend.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * アプリ内に通知するイベントのまとまり（{@code @EventListener} で受け取る）
+ *
+ * @param events 登録順のイベント
+ */
+public record OutboxEventBatch(List<OutboxEvent> events) {
+}
@@ -0,0 +1,165 @@
+package com.example.backend.common.outbox;
+
+import com.example.backend.entity.InventoryTransaction;
+import com.example.backend.entity.OutboxEvent;
+import com.example.backend.entity.PurchaseOrder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 入出庫履歴の登録・発注ステータスの変更を検知してアウトボックスに記録する Hibernate のイベントリスナー
+ *
+ * 履歴・発注を保存するすべての経路（手動入出庫、一括出庫、更新の集約、ジャーナルの DB 反映など）を
+ * 呼び出し側を変えずに対象にするため、エンティティの INSERT / UPDATE を契機にする。
+ * 検知したイベントはセッションごとに溜めておき、コミット直前（最後の flush の後）に
+ * 同じコネクションで1回の JDBC バッチとして INSERT する。INSERT に失敗した場合はコミットも失敗する。
+ */
+final class OutboxEventListener implements PostInsertEventListener, PostUpdateEventListener {
+
+    static final String ORDER_CREATED = "ORDER_CREATED";
+    static final String ORDER_STATUS_CHANGED = "ORDER_STATUS_CHANGED";
+
+    private static final String INSERT_SQL = "INSERT INTO outbox_event"
+            + " (aggregate_type, aggregate_id, event_type, payload, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final ObjectMapper objectMapper;
+    private final Map<SharedSessionContractImplementor, Batch> batches = new ConcurrentHashMap<>();
+
+    OutboxEventListener(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof InventoryTransaction tx) {
+            add(event.getSession(), OutboxEvent.AggregateType.INVENTORY_TRANSACTION, tx.getTransactionId(),
+                    tx.getTransactionType().name(), transactionPayload(tx));
+        } else if (event.getEntity() instanceof PurchaseOrder order) {
+            add(event.getSession(), OutboxEvent.AggregateType.PURCHASE_ORDER, order.getOrderNo(), ORDER_CREATED,
+                    orderPayload(order, null));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof PurchaseOrder order) || event.getOldState() == null) {
+            return;
+        }
+        int index = event.getPersister().getEntityMetamodel().getPropertyIndex("status");
+        Object previous = event.getOldState()[index];
+        if (!Objects.equals(previous, order.getStatus())) {
+            add(event.getSession(), OutboxEvent.AggregateType.PURCHASE_ORDER, order.getOrderNo(),
+                    ORDER_STATUS_CHANGED, orderPayload(order, (String) previous));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void add(EventSource session, OutboxEvent.AggregateType aggregateType,
+            String aggregateId, String eventType, Map<String, Object> payload) {
+        Row row = new Row(aggregateType.name(), aggregateId, eventType, toJson(payload), LocalDateTime.now());
+        batches.computeIfAbsent(session, s -> {
+            Batch batch = new Batch();
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) batch);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) batch);
+            return batch;
+        }).rows.add(row);
+    }
+
+    private static Map<String, Object> transactionPayload(InventoryTransaction tx) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("transactionId", tx.getTransactionId());
+        payload.put("transactionType", tx.getTransactionType());
+        payload.put("itemCode", tx.getStockItem() != null ? tx.getStockItem().getItemCode() : null);
+        payload.put("orderNo", tx.getPurchaseOrder() != null ? tx.getPurchaseOrder().getOrderNo() : null);
+        payload.put("quantity", tx.getQuantity());
+        payload.put("operator", tx.getOperator());
+        payload.put("transactionTime", tx.getTransactionTime());
+        payload.put("supplier", tx.getSupplier());
+        payload.put("purchasePrice", tx.getPurchasePrice());
+        payload.put("remarks", tx.getRemarks());
+        return payload;
+    }
+
+    private static Map<String, Object> orderPayload(PurchaseOrder order, String previousStatus) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderNo", order.getOrderNo());
+        payload.put("orderType", order.getOrderType());
+        payload.put("supplier", order.getSupplier());
+        payload.put("previousStatus", previousStatus);
+        payload.put("status", order.getStatus());
+        payload.put("openLineCount", order.getOpenLineCount());
+        payload.put("orderedQuantityTotal", order.getOrderedQuantityTotal());
+        payload.put("receivedQuantityTotal", order.getReceivedQuantityTotal());
+        return payload;
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private record Row(String aggregateType, String aggregateId, String eventType, String payload,
+            LocalDateTime createdAt) {
+    }
+
+    /**
+     * 1トランザクション分のイベント（コミット直前にまとめて INSERT し、完了時に破棄する）
+     */
+    private final class Batch implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+        private final List<Row> rows = new ArrayList<>();
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            if (rows.isEmpty()) {
+                return;
+            }
+            session.doWork(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+                    for (Row row : rows) {
+                        ps.setString(1, row.aggregateType());
+                        ps.setString(2, row.aggregateId());
+                        ps.setString(3, row.eventType());
+                        ps.setString(4, row.payload());
+                        ps.setObject(5, row.createdAt());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            });
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            // ロールバック時は INSERT されないまま捨てる
+            batches.remove(session);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.backend.common.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * アウトボックス記録用のイベントリスナーを Hibernate に登録する
+ */
+@Component
+public class OutboxListenerRegistrar {
+
+    /**
+     * 登録済みの SessionFactory（のリスナーレジストリ）。同じ SessionFactory に二重登録しない（コンテキストを共有するテストなど）。
+     * Hibernate の既定の重複判定は同じクラスのリスナーを追加すると例外にし、独自の DuplicationStrategy より先に評価されるため、
+     * 追加前にここで判定する。
+     */
+    private static final Set<EventListenerRegistry> REGISTERED =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectMapper objectMapper;
+
+    public OutboxListenerRegistrar(EntityManagerFactory entityManagerFactory, ObjectMapper objectMapper) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        if (!REGISTERED.add(registry)) {
+            return;
+        }
+        OutboxEventListener listener = new OutboxEventListener(objectMapper);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+    }
+}
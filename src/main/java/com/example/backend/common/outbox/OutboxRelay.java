@@ -0,0 +1,97 @@
+package com.example.backend.common.outbox;
+
+import com.example.backend.common.repository.OutboxEventRepository;
+import com.example.backend.entity.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * アウトボックスのイベントを送出先へまとめて送る
+ *
+ * relay-interval-ms ごとに登録順で batch-size 件ずつ読み、すべての送出先に渡してから同じトランザクションで削除する。
+ * 送出先が失敗した場合は削除せずに次回バッチごと再送する（少なくとも1回）。
+ * 送出はこのインスタンスの1スレッドで行うため、複数台構成では1台だけで有効にすること。
+ */
+@Service
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSink> sinks;
+    private final TransactionTemplate relayTransaction;
+    private final boolean enabled;
+    private final int batchSize;
+
+    private final LongAdder relayed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    @Autowired
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, List<OutboxSink> sinks,
+            PlatformTransactionManager transactionManager,
+            @Value("${outbox.relay.enabled:true}") boolean enabled,
+            @Value("${outbox.relay.batch-size:500}") int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.relayTransaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 送出待ちがなくなるまでバッチ単位で送出する（既定: 500ミリ秒ごと）
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:500}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            while (relayOnce() == batchSize) {
+                // 溜まっている間は続けて送出
+            }
+        } catch (RuntimeException ex) {
+            failures.increment();
+            System.out.println("アウトボックスの送出に失敗しました（次回再送します）: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * 送出待ちのイベントを最大 batch-size 件送出する
+     *
+     * @return 送出した件数
+     */
+    int relayOnce() {
+        Integer sent = relayTransaction.execute(status -> {
+            List<OutboxEvent> events = outboxEventRepository.findPending(PageRequest.of(0, batchSize));
+            if (events.isEmpty()) {
+                return 0;
+            }
+            for (OutboxSink sink : sinks) {
+                sink.publish(events);
+            }
+            outboxEventRepository.deleteAllInBatch(events);
+            return events.size();
+        });
+        int count = sent != null ? sent : 0;
+        if (count > 0) {
+            relayed.add(count);
+            batches.increment();
+        }
+        return count;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(enabled, relayed.sum(), batches.sum(), failures.sum(), outboxEventRepository.count());
+    }
+
+    public record Snapshot(boolean enabled, long relayed, long batches, long failures, long pending) {
+    }
+}
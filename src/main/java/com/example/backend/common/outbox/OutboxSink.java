@@ -0,0 +1,19 @@
+package com.example.backend.common.outbox;
+
+import com.example.backend.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * アウトボックスのイベントの送出先
+ *
+ * 送出は少なくとも1回（at-least-once）。例外を投げた場合はバッチ全体を次回に再送するため、
+ * 受け取り側はイベントの id で重複を除くこと。
+ */
+public interface OutboxSink {
+
+    /**
+     * 登録順に並んだイベントをまとめて送出する
+     */
+    void publish(List<OutboxEvent> events);
+}
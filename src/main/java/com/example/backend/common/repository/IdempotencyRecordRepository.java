@@ -0,0 +1,27 @@
+package com.example.backend.common.repository;
+
+import com.example.backend.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+  // 期限切れのキーを削除（同じキーで登録し直された行は残す）
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.createdAt < :cutoff")
+  int deleteExpired(@Param("key") String key, @Param("cutoff") LocalDateTime cutoff);
+
+  // 期限切れの行をまとめて削除
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+  int deleteExpired(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,17 @@
+package com.example.backend.common.repository;
+
+import com.example.backend.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+  // 送出待ちのイベント（登録順）
+  @Query("SELECT e FROM OutboxEvent e ORDER BY e.id")
+  List<OutboxEvent> findPending(Pageable pageable);
+}
@@ -0,0 +1,69 @@
+package com.example.backend.common.retry;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 楽観的排他の競合回数を集計するカウンタ。
+ * 競合したエンティティ（在庫は itemCode）ごとの競合・リトライ上限到達回数と、
+ * 全体の実行回数に対する競合率を保持する。値はアプリ起動からの累計。
+ */
+@Component
+public class ConflictMetrics {
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final Map<String, Counters> perKey = new ConcurrentHashMap<>();
+
+    /**
+     * 1回の実行（リトライ含む）を記録する
+     */
+    public void recordAttempt() {
+        attempts.increment();
+    }
+
+    /**
+     * 競合を記録する
+     *
+     * @param key       競合した対象（例: 在庫の itemCode）
+     * @param exhausted リトライ上限に達し、呼び出し元へ例外を返した場合 true
+     */
+    public void recordConflict(String key, boolean exhausted) {
+        conflicts.increment();
+        Counters c = perKey.computeIfAbsent(key, k -> new Counters());
+        c.conflicts.increment();
+        if (exhausted) {
+            c.exhausted.increment();
+        }
+    }
+
+    public Snapshot snapshot() {
+        Map<String, KeySnapshot> items = new TreeMap<>();
+        perKey.forEach((key, c) -> items.put(key, new KeySnapshot(c.conflicts.sum(), c.exhausted.sum())));
+        long attemptCount = attempts.sum();
+        long conflictCount = conflicts.sum();
+        return new Snapshot(attemptCount, conflictCount,
+                attemptCount == 0 ? 0 : (double) conflictCount / attemptCount, items);
+    }
+
+    public void reset() {
+        attempts.reset();
+        conflicts.reset();
+        perKey.clear();
+    }
+
+    public record Snapshot(long attempts, long conflicts, double conflictRate, Map<String, KeySnapshot> items) {
+    }
+
+    public record KeySnapshot(long conflicts, long exhausted) {
+    }
+
+    private static final class Counters {
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.backend.common.retry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 楽観的排他（@Version）の競合時に、メソッド全体（トランザクションごと）を再実行する。
+ * 回数・待ち時間は optimistic-retry.* プロパティで設定する（OptimisticRetryAspect 参照）。
+ * 呼び出し時点で既にトランザクションが開始している場合は再実行しない。
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OptimisticRetry {
+}
@@ -0,0 +1,95 @@
+package com.example.backend.common.retry;
+
+import com.example.backend.common.service.ItemCodeGenerator;
+import com.example.backend.entity.StockMaster;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link OptimisticRetry} を付けたメソッドを、楽観的排他の競合時に再実行するアスペクト。
+ *
+ * トランザクションの外側で動くよう最優先の順序にしており、再実行のたびに新しいトランザクションで
+ * 在庫を読み直す。待ち時間は backoff-ms から2倍ずつ max-backoff-ms まで伸ばし、ランダムな揺らぎを加える。
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class OptimisticRetryAspect {
+
+    private final ConflictMetrics conflictMetrics;
+    private final ItemCodeGenerator itemCodeGenerator;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+
+    public OptimisticRetryAspect(ConflictMetrics conflictMetrics,
+            ItemCodeGenerator itemCodeGenerator,
+            @Value("${optimistic-retry.max-attempts:3}") int maxAttempts,
+            @Value("${optimistic-retry.backoff-ms:20}") long backoffMillis,
+            @Value("${optimistic-retry.max-backoff-ms:200}") long maxBackoffMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("optimistic-retry.max-attempts は1以上を指定してください: " + maxAttempts);
+        }
+        this.conflictMetrics = conflictMetrics;
+        this.itemCodeGenerator = itemCodeGenerator;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    @Around("@annotation(com.example.backend.common.retry.OptimisticRetry)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        // 外側のトランザクションに参加している場合、ここで再実行しても外側はロールバック確定のため再実行しない
+        boolean retryable = !TransactionSynchronizationManager.isActualTransactionActive();
+        long backoff = backoffMillis;
+
+        for (int attempt = 1;; attempt++) {
+            conflictMetrics.recordAttempt();
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException ex) {
+                boolean exhausted = !retryable || attempt >= maxAttempts;
+                conflictMetrics.recordConflict(conflictKey(ex), exhausted);
+                if (exhausted) {
+                    throw ex;
+                }
+                System.out.println("楽観的排他の競合によりリトライします (" + attempt + "/" + maxAttempts + "): "
+                        + joinPoint.getSignature().toShortString());
+                sleep(backoff);
+                backoff = Math.min(backoff * 2, maxBackoffMillis);
+            }
+        }
+    }
+
+    /**
+     * 競合したエンティティの識別子（在庫は itemCode）
+     */
+    private String conflictKey(OptimisticLockingFailureException ex) {
+        if (ex instanceof ObjectOptimisticLockingFailureException oe && oe.getIdentifier() != null) {
+            if (StockMaster.class.getName().equals(oe.getPersistentClassName())
+                    && oe.getIdentifier() instanceof Long id) {
+                return itemCodeGenerator.generateItemCode(id);
+            }
+            return oe.getPersistentClassName() + "#" + oe.getIdentifier();
+        }
+        return "unknown";
+    }
+
+    private static void sleep(long backoff) throws InterruptedException {
+        if (backoff <= 0) {
+            return;
+        }
+        // 同時に競合したリクエストが同じタイミングで再衝突しないよう揺らぎを加える
+        Thread.sleep(backoff + ThreadLocalRandom.current().nextLong(backoff + 1));
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.backend.common.service;
+
+import com.example.backend.common.repository.IdempotencyRecordRepository;
+import com.example.backend.entity.IdempotencyRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key による入出庫の重複実行防止
+ *
+ * キーと発行したトランザクションIDを idempotency_record テーブルに入出庫と同じトランザクションで登録し、
+ * 直近の結果は件数上限（idempotency.cache-size）付きの LRU に保持する。
+ * 再送されたリクエストは在庫・履歴・採番に触れずに最初の結果を返す。
+ * キーは登録から有効期限（idempotency.ttl-minutes）の間だけ有効で、期限を過ぎた行は参照せず定期的に削除する。
+ * 同じキーの同時リクエストは主キー違反で後着側がロールバックされ、先着側の結果を返す。
+ */
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private final IdempotencyRecordRepository repository;
+    private final Clock clock;
+    private final Duration ttl;
+    private final Map<String, CacheEntry> cache;
+
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository repository,
+            @Value("${idempotency.cache-size:10000}") int cacheSize,
+            @Value("${idempotency.ttl-minutes:1440}") long ttlMinutes) {
+        this(repository, cacheSize, Duration.ofMinutes(ttlMinutes), Clock.systemDefaultZone());
+    }
+
+    public IdempotencyService(IdempotencyRecordRepository repository, int cacheSize, Duration ttl, Clock clock) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.clock = clock;
+        // アクセス順の LinkedHashMap で、上限を超えたら最も古く使われたキーから捨てる
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * キーが処理済みなら最初の結果を返し、未処理なら action を実行する。
+     * action は同じトランザクション内で {@link #record} を呼ぶこと。
+     *
+     * @param key       Idempotency-Key（null・空の場合はそのまま実行）
+     * @param operation 操作種別（同じキーを別の操作に使った場合はエラー）
+     * @param action    入出庫処理（発行したトランザクションIDを返す）
+     * @return トランザクションID
+     */
+    public String execute(String key, IdempotencyRecord.Operation operation, Supplier<String> action) {
+        if (isBlank(key)) {
+            return action.get();
+        }
+        validate(key);
+        Optional<String> done = find(key, operation);
+        if (done.isPresent()) {
+            System.out.println("Idempotency-Key 処理済みのため前回の結果を返します: " + key);
+            return done.get();
+        }
+        try {
+            return action.get();
+        } catch (DataIntegrityViolationException ex) {
+            // 同じキーの並行リクエストが先に確定した（こちらはロールバック済み）
+            return find(key, operation).orElseThrow(() -> ex);
+        }
+    }
+
+    /**
+     * キーと結果を登録する（呼び出し元のトランザクション内で実行する）。
+     * キャッシュへの反映はコミット後に行う。
+     */
+    public void record(String key, IdempotencyRecord.Operation operation, String transactionId) {
+        if (isBlank(key)) {
+            return;
+        }
+        validate(key);
+        // 同じキーの並行リクエストをこの時点で主キー違反にする
+        LocalDateTime createdAt = LocalDateTime.now(clock);
+        repository.saveAndFlush(new IdempotencyRecord(key, operation, transactionId, createdAt));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(key, operation, transactionId, createdAt);
+                }
+            });
+        } else {
+            remember(key, operation, transactionId, createdAt);
+        }
+    }
+
+    /**
+     * 処理済みの結果を取得する（キャッシュ → テーブルの順。登録から有効期限を過ぎたキーは未処理として扱う）
+     */
+    public Optional<String> find(String key, IdempotencyRecord.Operation operation) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        CacheEntry cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+            if (cached != null && cached.expiresAt().isBefore(now)) {
+                cache.remove(key);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            return Optional.of(checkOperation(key, cached.operation(), operation, cached.transactionId()));
+        }
+        Optional<IdempotencyRecord> record = repository.findById(key);
+        if (record.isPresent() && record.get().getCreatedAt().plus(ttl).isBefore(now)) {
+            // 同じキーで登録し直せるよう、期限切れの行は定期削除を待たずに消す
+            repository.deleteExpired(key, now.minus(ttl));
+            return Optional.empty();
+        }
+        return record.map(r -> {
+            remember(key, r.getOperation(), r.getTransactionId(), r.getCreatedAt());
+            return checkOperation(key, r.getOperation(), operation, r.getTransactionId());
+        });
+    }
+
+    /**
+     * 有効期限を過ぎたキーを削除する（既定: 1時間ごと）
+     */
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = repository.deleteExpired(LocalDateTime.now(clock).minus(ttl));
+        if (deleted > 0) {
+            System.out.println("期限切れの Idempotency-Key を削除しました: " + deleted + "件");
+        }
+    }
+
+    private void remember(String key, IdempotencyRecord.Operation operation, String transactionId,
+            LocalDateTime createdAt) {
+        CacheEntry entry = new CacheEntry(operation, transactionId, createdAt.plus(ttl));
+        synchronized (cache) {
+            cache.put(key, entry);
+        }
+    }
+
+    private static String checkOperation(String key, IdempotencyRecord.Operation recorded,
+            IdempotencyRecord.Operation requested, String transactionId) {
+        if (recorded != requested) {
+            throw new IllegalArgumentException("Idempotency-Key が別の操作で使用済みです: " + key);
+        }
+        return transactionId;
+    }
+
+    private static void validate(String key) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key は" + MAX_KEY_LENGTH + "文字以内で指定してください");
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private record CacheEntry(IdempotencyRecord.Operation operation, String transactionId, LocalDateTime expiresAt) {
+    }
+}
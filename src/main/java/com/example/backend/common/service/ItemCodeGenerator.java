@@ -1,16 +1,67 @@
 package com.example.backend.common.service;
 
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-
-import java.time.LocalDate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class ItemCodeGenerator {
 
     private static final String PREFIX = "I"; // 接頭辞（在庫ID）
-    private static final int BASE_TERM = 56; // 期の起点（24/8/1～25/7/30 = 56期）
-    private static final int START_YEAR = 2024; // 56期の開始年
-    private static final int ZERO_PADDING = 6; // idをゼロ埋めする桁数（例：000001）
+    private static final String ID_SEQUENCE = "stock_master_seq"; // 在庫IDシーケンス
+    private static final int ID_ALLOCATION_SIZE = 50; // 1回のシーケンス取得で確保するID数（INCREMENT BY と一致）
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ddlTransaction;
+    private final NumberingFormatter numberingFormatter;
+
+    // 確保済みIDの範囲（nextId から lastId まで払い出し可能）
+    private boolean sequenceReady;
+    private long nextId = 1;
+    private long lastId = 0;
+
+    public ItemCodeGenerator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            NumberingFormatter numberingFormatter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.numberingFormatter = numberingFormatter;
+        // H2 ではDDLが暗黙コミットを伴うため、シーケンス作成は呼び出し元とは別トランザクションで行う
+        this.ddlTransaction = new TransactionTemplate(transactionManager);
+        this.ddlTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 在庫マスタの新規IDを払い出す。
+     * シーケンスから50件単位で確保し、メモリ上で順に払い出すため、INSERT前にIDと itemCode を確定できる。
+     * 未使用のまま再起動した範囲のIDは欠番になる。
+     *
+     * @return stock_master.id に設定するID
+     */
+    public synchronized long nextStockId() {
+        if (nextId > lastId) {
+            if (!sequenceReady) {
+                createSequenceIfMissing();
+            }
+            long first = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + ID_SEQUENCE, Long.class);
+            nextId = first;
+            lastId = first + ID_ALLOCATION_SIZE - 1;
+        }
+        return nextId++;
+    }
+
+    /**
+     * シーケンスが無ければ既存IDの続きから作成する（IDENTITY採番時代のデータとの衝突回避）
+     */
+    private void createSequenceIfMissing() {
+        ddlTransaction.executeWithoutResult(status -> {
+            long startWith = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM stock_master", Long.class)
+                    + 1;
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + ID_SEQUENCE
+                    + " START WITH " + startWith + " INCREMENT BY " + ID_ALLOCATION_SIZE);
+        });
+        sequenceReady = true;
+    }
 
     /**
      * 登録済みIDから itemCode を発行する
@@ -19,9 +70,7 @@ public class ItemCodeGenerator {
      * @return itemCode（例: I-0001）
      */
     public String generateItemCode(Long id) {
-        // int term = resolveCurrentTerm();
-        String idFormatted = String.format("%0" + ZERO_PADDING + "X", id); // ゼロ埋め（6桁）
-        return String.format("%s-%s", PREFIX, idFormatted); // ITEM-0004E7
+        return numberingFormatter.formatItemCode(PREFIX, id); // I-0004E7（6桁ゼロ埋め）
     }
 
     /**
@@ -30,17 +79,6 @@ public class ItemCodeGenerator {
      * @return 現在の期（例: 56, 57, ...）
      */
     public int resolveCurrentTerm() {
-        LocalDate now = LocalDate.now();
-        int year = now.getYear();
-
-        // この年の8月1日が期の切り替え日
-        LocalDate cutoff = LocalDate.of(year, 8, 1);
-
-        // もしまだ8月1日を過ぎていないなら、前年の期とみなす
-        if (now.isBefore(cutoff)) {
-            year--; // ← 期は前年に属する
-        }
-
-        return BASE_TERM + (year - START_YEAR);
+        return numberingFormatter.currentTerm();
     }
 }
@@ -0,0 +1,129 @@
+package com.example.backend.common.service;
+
+import com.example.backend.common.repository.NumberingMasterRepository;
+import com.example.backend.common.service.numbering.NumberingMetrics;
+import com.example.backend.entity.NumberingMaster;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 採番マスタからまとめて番号を予約し、メモリ上で払い出す hi/lo 方式のアロケータ。
+ *
+ * BLOCK モードでは numbering_master の行ロックをブロック単位（既定100件）でしか取らない。
+ * 予約は呼び出し元とは独立した短いトランザクションで確定するため、呼び出し元がロールバックしても
+ * 同じ番号が再発行されることはない。その代わり、未使用のまま再起動したブロックの番号は欠番になる。
+ * STRICT モード（既定）では1件ごとに採番マスタをロックして採番する。再起動による欠番は出ないが、
+ * 採番は独立したトランザクションで確定するため、呼び出し元がロールバックした番号は欠番になる。
+ */
+@Component
+public class NumberingBlockAllocator {
+
+    public enum Mode {
+        STRICT, // 1件ごとにロック（重複なし。呼び出し元のロールバック時は欠番）
+        BLOCK // ブロック予約（再起動時の欠番を許容）
+    }
+
+    private final NumberingMasterRepository numberingMasterRepository;
+    private final TransactionTemplate reserveTransaction;
+    private final NumberingMetrics numberingMetrics;
+    private final Mode mode;
+    private final int blockSize;
+
+    private final Map<Key, Block> blocks = new ConcurrentHashMap<>();
+    private final Map<Key, Object> refillLocks = new ConcurrentHashMap<>();
+
+    public NumberingBlockAllocator(NumberingMasterRepository numberingMasterRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${numbering.allocation-mode:STRICT}") Mode mode,
+            @Value("${numbering.block-size:100}") int blockSize,
+            NumberingMetrics numberingMetrics) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("numbering.block-size は1以上を指定してください: " + blockSize);
+        }
+        this.numberingMasterRepository = numberingMasterRepository;
+        this.reserveTransaction = new TransactionTemplate(transactionManager);
+        this.reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.mode = mode;
+        this.blockSize = blockSize;
+        this.numberingMetrics = numberingMetrics;
+    }
+
+    /**
+     * ブロック予約モードが有効か
+     */
+    public boolean isEnabled() {
+        return mode == Mode.BLOCK;
+    }
+
+    /**
+     * 予約済みブロックから次の番号を払い出す。ブロックを使い切った場合のみDBから次のブロックを予約する。
+     *
+     * @param deptCode      部署コード
+     * @param numberingType 番号種別
+     * @param fiscalYear    期
+     * @return 次の番号
+     */
+    public long next(String deptCode, String numberingType, int fiscalYear) {
+        Key key = new Key(deptCode, numberingType, fiscalYear);
+        while (true) {
+            Block block = blocks.get(key);
+            if (block != null) {
+                long candidate = block.next.getAndIncrement();
+                if (candidate <= block.last) {
+                    return candidate;
+                }
+            }
+            // ブロック切れ: 同じキーの補充は1スレッドだけが行う
+            synchronized (refillLocks.computeIfAbsent(key, k -> new Object())) {
+                if (blocks.get(key) == block) {
+                    blocks.put(key, reserveBlock(key));
+                }
+            }
+        }
+    }
+
+    /**
+     * 採番マスタを悲観的ロックで取得し、ブロック分だけ番号を進めて即コミットする
+     */
+    private Block reserveBlock(Key key) {
+        long begin = System.nanoTime();
+        long[] lockedAt = new long[1];
+        Block block = reserveTransaction.execute(status -> {
+            Optional<NumberingMaster> locked = numberingMasterRepository
+                    .findByDepartmentCodeAndNumberingTypeAndFiscalYearForUpdate(key.deptCode(), key.numberingType(),
+                            key.fiscalYear());
+            lockedAt[0] = System.nanoTime();
+            NumberingMaster master = locked
+                    .orElseGet(() -> numberingMasterRepository
+                            .save(new NumberingMaster(key.deptCode(), key.numberingType(), key.fiscalYear())));
+
+            long first = master.getCurrentDecimalNumber() + 1;
+            long last = master.reserveBlock(blockSize);
+            numberingMasterRepository.save(master);
+            return new Block(first, last);
+        });
+        numberingMetrics.record(key.numberingType(), lockedAt[0] - begin, System.nanoTime() - lockedAt[0]);
+        return block;
+    }
+
+    private record Key(String deptCode, String numberingType, int fiscalYear) {
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long last;
+
+        private Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}
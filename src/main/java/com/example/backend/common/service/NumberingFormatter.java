@@ -0,0 +1,132 @@
+package com.example.backend.common.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * 採番した番号の文字列化と、現在の期の算出を行う共通コンポーネント。
+ *
+ * 番号はスレッドごとに再利用する char バッファへ16進で書き込み、生成する String 以外の
+ * オブジェクトを作らない（String.format は呼び出しごとにフォーマッタや中間文字列を生成する）。
+ * 期は8月1日の切り替え時刻までキャッシュし、切り替え時刻を過ぎた最初の呼び出しでのみ再計算する。
+ */
+@Component
+public class NumberingFormatter {
+
+    private static final int BASE_TERM = 56; // 2024年8月1日からの期を56期とする
+    private static final int START_YEAR = 2024; // 56期の開始年
+    private static final int CUTOFF_MONTH = 8; // 期の切り替え月（8月1日）
+    private static final int ZERO_PADDING = 6; // 番号をゼロ埋めする桁数（例：00004E）
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    // 部署コード・期・番号を書き込む作業用バッファ（スレッドごとに1つ）
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[64]);
+
+    private final Clock clock;
+
+    // 現在の期と、その期が終わる時刻（エポックミリ秒）
+    private volatile CachedTerm cachedTerm;
+
+    @Autowired
+    public NumberingFormatter() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public NumberingFormatter(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * 現在の期を取得する（毎年8月1日切り替え）
+     *
+     * @return 現在の期（例: 56, 57, ...）
+     */
+    public int currentTerm() {
+        CachedTerm cached = cachedTerm;
+        if (cached == null || clock.millis() >= cached.expiresAtMillis()) {
+            cached = resolveTerm();
+            cachedTerm = cached;
+        }
+        return cached.term();
+    }
+
+    /**
+     * 部署コード・期・番号から採番文字列を組み立てる
+     *
+     * @return 例: S56-00004E
+     */
+    public String format(String deptCode, int term, long number) {
+        char[] buf = BUFFER.get();
+        int pos = deptCode.length();
+        deptCode.getChars(0, pos, buf, 0);
+        pos = writeDecimal(buf, pos, term);
+        buf[pos++] = '-';
+        pos = writeHex(buf, pos, number);
+        return new String(buf, 0, pos);
+    }
+
+    /**
+     * 接頭辞とIDから itemCode を組み立てる
+     *
+     * @return 例: I-0004E7
+     */
+    public String formatItemCode(String prefix, long id) {
+        char[] buf = BUFFER.get();
+        int pos = prefix.length();
+        prefix.getChars(0, pos, buf, 0);
+        buf[pos++] = '-';
+        pos = writeHex(buf, pos, id);
+        return new String(buf, 0, pos);
+    }
+
+    private CachedTerm resolveTerm() {
+        LocalDate today = LocalDate.now(clock);
+        int year = today.getYear();
+
+        // この年の8月1日が期の切り替え日。まだ過ぎていないなら前年の期とみなす
+        LocalDate cutoff = LocalDate.of(year, CUTOFF_MONTH, 1);
+        if (today.isBefore(cutoff)) {
+            year--;
+        }
+
+        LocalDate nextCutoff = LocalDate.of(year + 1, CUTOFF_MONTH, 1);
+        long expiresAt = nextCutoff.atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        return new CachedTerm(BASE_TERM + (year - START_YEAR), expiresAt);
+    }
+
+    // String.format("%d") 相当
+    private static int writeDecimal(char[] buf, int pos, int value) {
+        long v = value;
+        if (v < 0) {
+            buf[pos++] = '-';
+            v = -v;
+        }
+        int digits = 1;
+        for (long t = v; t >= 10; t /= 10) {
+            digits++;
+        }
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buf[i] = (char) ('0' + (v % 10));
+            v /= 10;
+        }
+        return pos + digits;
+    }
+
+    // String.format("%06X") 相当（負数は2の補数表現）
+    private static int writeHex(char[] buf, int pos, long value) {
+        int significant = Math.max(1, (Long.SIZE - Long.numberOfLeadingZeros(value) + 3) / 4);
+        int digits = Math.max(ZERO_PADDING, significant);
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buf[i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        return pos + digits;
+    }
+
+    private record CachedTerm(int term, long expiresAtMillis) {
+    }
+}
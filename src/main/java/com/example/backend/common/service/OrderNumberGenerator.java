@@ -1,24 +1,23 @@
 package com.example.backend.common.service;
 
-import com.example.backend.entity.NumberingMaster;
-import com.example.backend.common.repository.NumberingMasterRepository;
+import com.example.backend.common.service.numbering.NumberingStrategy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class OrderNumberGenerator {
 
     private static final String DEPARTMENT_CODE = "S";
-    private static final int BASE_TERM = 56; // 2024年8月1日からの期を56期とする
-    private static final int START_YEAR = 2024;
-    private static final int ZERO_PADDING = 6;
 
     @Autowired
-    private NumberingMasterRepository numberingMasterRepository;
+    private NumberingStrategy numberingStrategy;
+
+    @Autowired
+    private NumberingFormatter numberingFormatter;
 
     /**
      * 新しい注文番号を生成する
@@ -28,57 +27,47 @@ public class OrderNumberGenerator {
         return generateNumber(DEPARTMENT_CODE, "ORDER");
     }
 
+    /**
+     * 新しい注文番号を件数分まとめて生成する。
+     * 明細ループの前に1回だけ呼び、採番マスタの更新を1回にまとめるために使う。
+     *
+     * @param count 件数
+     * @return 採番順の注文番号リスト
+     */
+    @Transactional
+    public List<String> generateOrderNos(int count) {
+        return generateNumbers(DEPARTMENT_CODE, "ORDER", count);
+    }
+
     /**
      * 指定された部門・種別の番号を生成する
      */
     @Transactional
     public String generateNumber(String deptCode, String numberingType) {
         int currentTerm = resolveCurrentTerm();
-        long nextNumber = getNextNumber(deptCode, numberingType, currentTerm);
-        String numberFormatted = String.format("%0" + ZERO_PADDING + "X", nextNumber);
-        return String.format("%s%d-%s", deptCode, currentTerm, numberFormatted);
+        long nextNumber = numberingStrategy.next(deptCode, numberingType, currentTerm);
+        return numberingFormatter.format(deptCode, currentTerm, nextNumber);
     }
 
     /**
-     * 採番マスタから次の番号を取得・更新
+     * 指定された種別の番号を件数分まとめて生成する（採番は1往復）
      */
-    private long getNextNumber(String deptCode, String numberingType, int fiscalYear) {
-        // 悲観的ロックで取得
-        Optional<NumberingMaster> optionalMaster = numberingMasterRepository
-                .findByDepartmentCodeAndNumberingTypeAndFiscalYearForUpdate(deptCode, numberingType, fiscalYear);
-
-        NumberingMaster master;
-        if (optionalMaster.isPresent()) {
-            master = optionalMaster.get();
-        } else {
-            // 新規作成
-            master = new NumberingMaster(deptCode, numberingType, fiscalYear);
-            master = numberingMasterRepository.save(master);
+    @Transactional
+    public List<String> generateNumbers(String deptCode, String numberingType, int count) {
+        int currentTerm = resolveCurrentTerm();
+        long[] numbers = numberingStrategy.next(deptCode, numberingType, currentTerm, count);
+        List<String> formatted = new ArrayList<>(numbers.length);
+        for (long number : numbers) {
+            formatted.add(numberingFormatter.format(deptCode, currentTerm, number));
         }
-
-        // 次の番号を取得（内部でインクリメント）
-        long nextNumber = master.getNextNumber();
-
-        // 更新を保存
-        numberingMasterRepository.save(master);
-
-        return nextNumber;
+        return formatted;
     }
 
     /**
      * 現在の期を計算する
      */
     public int resolveCurrentTerm() {
-        LocalDate now = LocalDate.now();
-        int year = now.getYear();
-
-        LocalDate cutoff = LocalDate.of(year, 8, 1);
-
-        if (now.isBefore(cutoff)) {
-            year--;
-        }
-
-        return BASE_TERM + (year - START_YEAR);
+        return numberingFormatter.currentTerm();
     }
 
     /**
@@ -86,8 +75,6 @@ public class OrderNumberGenerator {
      */
     @Deprecated
     public String generateOrderNoFromId(Long id) {
-        int term = resolveCurrentTerm();
-        String idFormatted = String.format("%0" + ZERO_PADDING + "X", id);
-        return String.format("%s%d-%s", DEPARTMENT_CODE, term, idFormatted);
+        return numberingFormatter.format(DEPARTMENT_CODE, resolveCurrentTerm(), id);
     }
 }
\ No newline at end of file
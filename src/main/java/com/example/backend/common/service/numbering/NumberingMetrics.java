@@ -0,0 +1,79 @@
+package com.example.backend.common.service.numbering;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 採番マスタのロック競合を番号種別ごとに集計するカウンタ。
+ * - 待ち時間: 採番用トランザクション開始から行ロック取得まで
+ * - 保持時間: 行ロック取得からコミット完了（ロック解放）まで
+ * 値はアプリ起動からの累計で、reset() で0に戻せる。
+ */
+@Component
+public class NumberingMetrics {
+
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 1回分のロック取得を記録する
+     *
+     * @param numberingType 番号種別
+     * @param waitNanos     ロック待ち時間（ナノ秒）
+     * @param holdNanos     ロック保持時間（ナノ秒）
+     */
+    public void record(String numberingType, long waitNanos, long holdNanos) {
+        Counters c = counters.computeIfAbsent(numberingType, k -> new Counters());
+        c.count.increment();
+        c.waitTotal.add(waitNanos);
+        c.waitMax.accumulate(waitNanos);
+        c.holdTotal.add(holdNanos);
+        c.holdMax.accumulate(holdNanos);
+    }
+
+    /**
+     * 番号種別ごとの集計値（ミリ秒）を取得する
+     */
+    public Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> result = new TreeMap<>();
+        counters.forEach((type, c) -> result.put(type, c.snapshot()));
+        return result;
+    }
+
+    /**
+     * 集計値をすべて破棄する
+     */
+    public void reset() {
+        counters.clear();
+    }
+
+    public record Snapshot(long lockCount,
+            double waitTotalMillis, double waitAvgMillis, double waitMaxMillis,
+            double holdTotalMillis, double holdAvgMillis, double holdMaxMillis) {
+    }
+
+    private static final class Counters {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder waitTotal = new LongAdder();
+        private final LongAccumulator waitMax = new LongAccumulator(Math::max, 0);
+        private final LongAdder holdTotal = new LongAdder();
+        private final LongAccumulator holdMax = new LongAccumulator(Math::max, 0);
+
+        private Snapshot snapshot() {
+            long n = count.sum();
+            long wait = waitTotal.sum();
+            long hold = holdTotal.sum();
+            return new Snapshot(n,
+                    millis(wait), n == 0 ? 0 : millis(wait) / n, millis(waitMax.get()),
+                    millis(hold), n == 0 ? 0 : millis(hold) / n, millis(holdMax.get()));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
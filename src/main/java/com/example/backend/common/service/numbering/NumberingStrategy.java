@@ -0,0 +1,37 @@
+package com.example.backend.common.service.numbering;
+
+/**
+ * 採番エンジンのSPI。
+ * (部署コード, 番号種別, 期) ごとに単調増加する番号を払い出す。
+ * 使用するエンジンは numbering.strategy（table / sequence）で切り替える。
+ */
+public interface NumberingStrategy {
+
+    /**
+     * 次の番号を取得する
+     *
+     * @param deptCode      部署コード
+     * @param numberingType 番号種別（例: "TX", "ORDER"）
+     * @param fiscalYear    期
+     * @return 次の番号（1始まり）
+     */
+    long next(String deptCode, String numberingType, int fiscalYear);
+
+    /**
+     * 指定件数分の番号をまとめて取得する。
+     * 既定実装は next() を件数分呼ぶだけなので、エンジン側で1往復にまとめられる場合はオーバーライドする。
+     *
+     * @param count 取得件数（0の場合は空配列）
+     * @return 昇順の番号配列（連続しているかはエンジンによる）
+     */
+    default long[] next(String deptCode, String numberingType, int fiscalYear, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("採番件数は0以上を指定してください: " + count);
+        }
+        long[] numbers = new long[count];
+        for (int i = 0; i < count; i++) {
+            numbers[i] = next(deptCode, numberingType, fiscalYear);
+        }
+        return numbers;
+    }
+}
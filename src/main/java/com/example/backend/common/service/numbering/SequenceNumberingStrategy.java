@@ -0,0 +1,117 @@
+package com.example.backend.common.service.numbering;
+
+import com.example.backend.common.repository.NumberingMasterRepository;
+import com.example.backend.entity.NumberingMaster;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * H2 の SEQUENCE オブジェクトを使う採番エンジン。
+ * (部署コード, 番号種別, 期) ごとに NUMBERING_SEQ_S_TX_56 のようなシーケンスを作成し、
+ * NEXT VALUE FOR で採番するため、行ロック・読み込み・更新の往復が発生しない。
+ *
+ * 注意:
+ * - シーケンスはトランザクション外で進むため、呼び出し元がロールバックすると欠番になる。
+ * - 行ロックを取らないため、NumberingMetrics には NEXT VALUE FOR の所要時間を待ち時間として記録する（保持時間は0）。
+ * - シーケンス作成時は numbering_master の現在値の続きから開始する。以降 numbering_master は更新されないため、
+ *   table エンジンへ戻す場合は事前に current_decimal_number をシーケンスの現在値まで進めること。
+ */
+@Component
+@ConditionalOnProperty(name = "numbering.strategy", havingValue = "sequence")
+public class SequenceNumberingStrategy implements NumberingStrategy {
+
+    private static final String SEQUENCE_PREFIX = "NUMBERING_SEQ_";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NumberingMasterRepository numberingMasterRepository;
+    private final TransactionTemplate ddlTransaction;
+    private final NumberingMetrics numberingMetrics;
+
+    // 作成済み（または存在確認済み）のシーケンス名
+    private final Set<String> knownSequences = ConcurrentHashMap.newKeySet();
+
+    public SequenceNumberingStrategy(JdbcTemplate jdbcTemplate,
+            NumberingMasterRepository numberingMasterRepository,
+            PlatformTransactionManager transactionManager,
+            NumberingMetrics numberingMetrics) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.numberingMasterRepository = numberingMasterRepository;
+        this.numberingMetrics = numberingMetrics;
+        // H2 ではDDLが暗黙コミットを伴うため、呼び出し元とは別トランザクションで作成する
+        this.ddlTransaction = new TransactionTemplate(transactionManager);
+        this.ddlTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public long next(String deptCode, String numberingType, int fiscalYear) {
+        String sequenceName = sequenceName(deptCode, numberingType, fiscalYear);
+        if (!knownSequences.contains(sequenceName)) {
+            createSequence(sequenceName, deptCode, numberingType, fiscalYear);
+        }
+        long begin = System.nanoTime();
+        long nextNumber = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + sequenceName, Long.class);
+        numberingMetrics.record(numberingType, System.nanoTime() - begin, 0);
+        return nextNumber;
+    }
+
+    /**
+     * 指定件数分の番号を1回の問い合わせでまとめて取得する。
+     * 他の呼び出しと同時に進むため、番号は一意かつ昇順だが連続するとは限らない。
+     */
+    @Override
+    public long[] next(String deptCode, String numberingType, int fiscalYear, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("採番件数は0以上を指定してください: " + count);
+        }
+        if (count == 0) {
+            return new long[0];
+        }
+        String sequenceName = sequenceName(deptCode, numberingType, fiscalYear);
+        if (!knownSequences.contains(sequenceName)) {
+            createSequence(sequenceName, deptCode, numberingType, fiscalYear);
+        }
+        long begin = System.nanoTime();
+        long[] numbers = jdbcTemplate
+                .queryForList("SELECT NEXT VALUE FOR " + sequenceName + " FROM SYSTEM_RANGE(1, ?)", Long.class, count)
+                .stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+        numberingMetrics.record(numberingType, System.nanoTime() - begin, 0);
+        return numbers;
+    }
+
+    /**
+     * シーケンスが無ければ numbering_master の現在値の続きから作成する
+     */
+    private synchronized void createSequence(String sequenceName, String deptCode, String numberingType,
+            int fiscalYear) {
+        if (knownSequences.contains(sequenceName)) {
+            return;
+        }
+        ddlTransaction.executeWithoutResult(status -> {
+            long startWith = numberingMasterRepository
+                    .findByDepartmentCodeAndNumberingTypeAndFiscalYear(deptCode, numberingType, fiscalYear)
+                    .map(NumberingMaster::getCurrentDecimalNumber)
+                    .orElse(0L) + 1;
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequenceName + " START WITH " + startWith);
+        });
+        knownSequences.add(sequenceName);
+    }
+
+    /**
+     * 識別子として安全なシーケンス名を組み立てる（英数字以外は '_' に置換）
+     */
+    static String sequenceName(String deptCode, String numberingType, int fiscalYear) {
+        String raw = SEQUENCE_PREFIX + deptCode + "_" + numberingType + "_" + fiscalYear;
+        return raw.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9_]", "_");
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.backend.common.service.numbering;
+
+import com.example.backend.common.repository.NumberingMasterRepository;
+import com.example.backend.common.service.NumberingBlockAllocator;
+import com.example.backend.entity.NumberingMaster;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+/**
+ * numbering_master の行をカウンタとして使う採番エンジン（既定）。
+ * 行を悲観的ロックで読み込み、インクリメントして保存する。
+ * numbering.allocation-mode=BLOCK の場合はブロック予約したメモリ上の番号から払い出す。
+ *
+ * 採番は呼び出し元とは独立した短いトランザクション（REQUIRES_NEW）で即コミットするため、
+ * 行ロックは採番の間だけ保持され、呼び出し元の明細登録などが終わるまで待たされることはない。
+ * 欠番について:
+ * - 採番後に呼び出し元がロールバックしても番号は戻らず、その番号は欠番になる（再発行はしない）。
+ * - 番号は採番順に払い出されるが、呼び出し元のコミット順とは一致しない場合がある。
+ * - 採番中は呼び出し元の接続とは別にもう1本接続を使うため、接続プールは同時処理数より大きくしておくこと。
+ */
+@Component
+@ConditionalOnProperty(name = "numbering.strategy", havingValue = "table", matchIfMissing = true)
+public class TableNumberingStrategy implements NumberingStrategy {
+
+    private final NumberingMasterRepository numberingMasterRepository;
+    private final NumberingBlockAllocator numberingBlockAllocator;
+    private final NumberingMetrics numberingMetrics;
+    private final TransactionTemplate numberingTransaction;
+
+    public TableNumberingStrategy(NumberingMasterRepository numberingMasterRepository,
+            NumberingBlockAllocator numberingBlockAllocator,
+            PlatformTransactionManager transactionManager,
+            NumberingMetrics numberingMetrics) {
+        this.numberingMasterRepository = numberingMasterRepository;
+        this.numberingBlockAllocator = numberingBlockAllocator;
+        this.numberingMetrics = numberingMetrics;
+        this.numberingTransaction = new TransactionTemplate(transactionManager);
+        this.numberingTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 採番マスタから次の番号を取得・更新し、即コミットする
+     */
+    @Override
+    public long next(String deptCode, String numberingType, int fiscalYear) {
+        // ブロック予約モードではメモリ上の予約済み番号から払い出す
+        if (numberingBlockAllocator.isEnabled()) {
+            return numberingBlockAllocator.next(deptCode, numberingType, fiscalYear);
+        }
+
+        return reserve(deptCode, numberingType, fiscalYear, 1);
+    }
+
+    /**
+     * 指定件数分の連続した番号を、1回のロック・更新でまとめて確保する。
+     * ブロック予約モードでも予約済みブロックは使わず、採番マスタから直接確保する（番号は連続する）。
+     */
+    @Override
+    public long[] next(String deptCode, String numberingType, int fiscalYear, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("採番件数は0以上を指定してください: " + count);
+        }
+        if (count == 0) {
+            return new long[0];
+        }
+        long first = reserve(deptCode, numberingType, fiscalYear, count);
+        long[] numbers = new long[count];
+        for (int i = 0; i < count; i++) {
+            numbers[i] = first + i;
+        }
+        return numbers;
+    }
+
+    /**
+     * 採番マスタを悲観的ロックで取得して件数分進め、即コミットする
+     *
+     * @return 確保した範囲の先頭番号
+     */
+    private long reserve(String deptCode, String numberingType, int fiscalYear, int count) {
+        long begin = System.nanoTime();
+        long[] lockedAt = new long[1];
+        long first = numberingTransaction.execute(status -> {
+            // 悲観的ロックで取得
+            Optional<NumberingMaster> optionalMaster = numberingMasterRepository
+                    .findByDepartmentCodeAndNumberingTypeAndFiscalYearForUpdate(deptCode, numberingType, fiscalYear);
+            lockedAt[0] = System.nanoTime();
+
+            NumberingMaster master;
+            if (optionalMaster.isPresent()) {
+                master = optionalMaster.get();
+            } else {
+                // 新規作成
+                master = new NumberingMaster(deptCode, numberingType, fiscalYear);
+                master = numberingMasterRepository.save(master);
+            }
+
+            // 件数分進める（内部でインクリメント）
+            long last = master.reserveBlock(count);
+
+            // 更新を保存
+            numberingMasterRepository.save(master);
+
+            return last - count + 1;
+        });
+        // execute() から戻った時点でコミット済み＝ロック解放済み
+        numberingMetrics.record(numberingType, lockedAt[0] - begin, System.nanoTime() - lockedAt[0]);
+
+        return first;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.backend.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate の JDBC バッチ設定
+ *
+ * 一括出庫などで同じ種類の INSERT / UPDATE をまとめて送信できるよう、文を種類ごとに並べ替えてバッチ化する。
+ * IDENTITY 採番のエンティティは INSERT 時に1件ずつIDを取得するため、INSERT はバッチ化されない。
+ */
+@Configuration
+public class HibernateBatchConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchCustomizer(
+            @Value("${hibernate.jdbc.batch-size:50}") int batchSize) {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+        };
+    }
+}
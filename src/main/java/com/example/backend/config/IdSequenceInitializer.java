@@ -0,0 +1,54 @@
+package com.example.backend.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * IDENTITY からシーケンス採番に切り替えたテーブルのシーケンスを既存IDの続きに合わせる
+ *
+ * schema.sql のシーケンスは 1 から始まるため、IDENTITY 時代の行が残るDBではそのままだと既存IDと衝突する。
+ * Hibernate の pooled 最適化はシーケンス値 v に対して (v - 50, v] のIDを使うため、
+ * シーケンスが MAX(id) + 50 より小さい場合は起動時（リクエスト受付・定期ジョブの開始前）にそこまで進める。
+ * 在庫IDの stock_master_seq は ItemCodeGenerator が作成時に既存IDの続きから始めるため対象外。
+ */
+@Component
+public class IdSequenceInitializer implements SmartInitializingSingleton {
+
+    // エンティティの @SequenceGenerator の allocationSize と揃えること
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final List<String[]> SEQUENCES = List.of(
+            new String[] { "inventory_transaction_seq", "inventory_transaction" },
+            new String[] { "purchase_order_detail_seq", "purchase_order_detail" });
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String[] sequence : SEQUENCES) {
+            align(sequence[0], sequence[1]);
+        }
+    }
+
+    private void align(String sequenceName, String tableName) {
+        List<Long> nextValue = jdbcTemplate.queryForList(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE UPPER(SEQUENCE_NAME) = ?", Long.class,
+                sequenceName.toUpperCase());
+        if (nextValue.isEmpty()) {
+            return; // シーケンス未作成（Hibernate のスキーマ生成前など）
+        }
+        long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + tableName, Long.class);
+        long restartWith = maxId + ALLOCATION_SIZE;
+        if (nextValue.get(0) < restartWith) {
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequenceName + " RESTART WITH " + restartWith);
+            System.out.println(sequenceName + " を既存ID(" + maxId + ")の続きから採番するよう進めました");
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.backend.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 発注ヘッダーの集計列（未完了明細数・発注数合計・入庫済み数合計）を明細から補完する
+ *
+ * 集計列の追加前に登録された発注は既定値 0 のままのため、未完了の発注も完了扱いになり
+ * 未完了一覧（open_line_count &gt; 0）から漏れる。明細があるのに発注数合計が 0 の発注だけを
+ * 起動時に明細から再計算する（補完済みの発注は対象外になるため、毎回の起動で実行してよい）。
+ * 未完了の判定は PurchaseOrder#addLine と同じく明細のステータスが「完了」以外のもの。
+ */
+@Component
+public class PurchaseOrderTotalsInitializer implements SmartInitializingSingleton {
+
+    private static final String BACKFILL_SQL = """
+            UPDATE purchase_order o
+            SET open_line_count = (SELECT COUNT(*) FROM purchase_order_detail d
+                                   WHERE d.order_no = o.order_no
+                                     AND (d.status IS NULL OR d.status <> '完了')),
+                ordered_quantity_total = (SELECT COALESCE(SUM(d.quantity), 0) FROM purchase_order_detail d
+                                          WHERE d.order_no = o.order_no),
+                received_quantity_total = (SELECT COALESCE(SUM(d.received_quantity), 0)
+                                           FROM purchase_order_detail d WHERE d.order_no = o.order_no)
+            WHERE o.ordered_quantity_total = 0
+              AND EXISTS (SELECT 1 FROM purchase_order_detail d WHERE d.order_no = o.order_no)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PurchaseOrderTotalsInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        int updated = jdbcTemplate.update(BACKFILL_SQL);
+        if (updated > 0) {
+            System.out.println("発注ヘッダーの集計を明細から補完しました: " + updated + "件");
+        }
+    }
+}
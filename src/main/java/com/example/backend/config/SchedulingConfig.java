@@ -0,0 +1,12 @@
+package com.example.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定期ジョブ（在庫スナップショットなど）の有効化
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
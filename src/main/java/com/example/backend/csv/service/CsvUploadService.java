@@ -17,6 +17,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 @Service
@@ -100,6 +101,9 @@ public class CsvUploadService {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
 
         try {
+            // トランザクションIDを行数分まとめて採番（採番マスタの更新は1回）
+            Iterator<String> txNos = transactionIdGenerator.generateTxNos(validatedRows.size()).iterator();
+
             for (CsvRowData rowData : validatedRows) {
                 System.out.println("DB処理中 - 行 " + rowData.lineNumber + ": " + Arrays.toString(rowData.data));
 
@@ -115,7 +119,7 @@ public class CsvUploadService {
 
                 // トランザクション履歴登録
                 InventoryTransaction tx = InventoryTransaction.createTransactionForCsv(
-                    rowData.data, stockMaster, username, transactionIdGenerator, inventoryTransactionRepository
+                    rowData.data, stockMaster, username, txNos.next(), inventoryTransactionRepository
                 );
                 System.out.println(" - トランザクション登録完了: " + tx.getTransactionId());
             }
@@ -0,0 +1,83 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Persistable;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Idempotency-Key と処理結果（発行したトランザクションID）の対応
+ * 入出庫と同じトランザクションで登録するため、同じキーの二重登録は主キー違反でロールバックされる。
+ * 登録から有効期限（idempotency.ttl-minutes）を過ぎた行は参照せず、定期的に削除する。
+ */
+@Entity
+@Table(name = "idempotency_record", indexes = {
+    @Index(name = "idx_idempotency_record_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+public class IdempotencyRecord implements Persistable<String> {
+
+  @Id
+  @Column(name = "idempotency_key", length = 128)
+  private String idempotencyKey;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "operation", nullable = false, length = 32)
+  private Operation operation;
+
+  @Column(name = "transaction_id", nullable = false, length = 64)
+  private String transactionId;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  // キーはクライアントが決めるため登録は常に INSERT とし、同じキーの同時登録は主キー違反で検出する
+  @Transient
+  @JsonIgnore
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private boolean newEntity = true;
+
+  public IdempotencyRecord(String idempotencyKey, Operation operation, String transactionId,
+      LocalDateTime createdAt) {
+    this.idempotencyKey = idempotencyKey;
+    this.operation = operation;
+    this.transactionId = transactionId;
+    this.createdAt = createdAt;
+  }
+
+  @PostPersist
+  @PostLoad
+  void markNotNew() {
+    this.newEntity = false;
+  }
+
+  @Override
+  @JsonIgnore
+  public String getId() {
+    return idempotencyKey;
+  }
+
+  @Override
+  @JsonIgnore
+  public boolean isNew() {
+    return newEntity;
+  }
+
+  public enum Operation {
+    RECEIVE, // 手動入庫
+    DISPATCH // 手動出庫
+  }
+}
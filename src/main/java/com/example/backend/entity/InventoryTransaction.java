@@ -6,6 +6,7 @@ import lombok.Data;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import com.example.backend.common.service.TransactionIdGenerator;
 import com.example.backend.inventory.repository.InventoryTransactionRepository;
@@ -16,12 +17,19 @@ import com.example.backend.order.dto.InventoryReceiveFromOrderRequest;
 import com.example.backend.order.dto.PurchaseOrderRequest;
 
 @Entity
-@Table(name = "inventory_transaction")
+@Table(name = "inventory_transaction", indexes = {
+    // 品目ごとの期間集計（過去日時点の在庫数・日次スナップショット）用
+    @Index(name = "idx_inventory_transaction_item_time", columnList = "item_code, transaction_time"),
+    // 全取引履歴の検索（処理日時の範囲・新しい順の並び）用
+    @Index(name = "idx_inventory_transaction_time", columnList = "transaction_time")
+})
 @Data
 public class InventoryTransaction {
 
+  // シーケンスを50件単位で先取りする（pooled）。IDENTITY と違い INSERT を JDBC バッチでまとめられる
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_transaction_seq")
+  @SequenceGenerator(name = "inventory_transaction_seq", sequenceName = "inventory_transaction_seq", allocationSize = 50)
   private Long id; // サロゲートキー
 
   @Column(name = "transaction_id")
@@ -106,7 +114,14 @@ public class InventoryTransaction {
       InventoryTransactionRepository inventoryTransactionRepository) {
 
     // トランザクションIDを生成
-    String txNo = transactionIdGenerator.generateTxNo();
+    return createTransactionForManualReceive(stock, order, req, operator, transactionIdGenerator.generateTxNo());
+  }
+
+  /**
+   * 入庫処理（事前に採番したトランザクションIDを使用）
+   */
+  public static InventoryTransaction createTransactionForManualReceive(
+      StockMaster stock, PurchaseOrder order, InventoryReceiveRequest req, String operator, String txNo) {
 
     InventoryTransaction tx = new InventoryTransaction();
     tx.setStockItem(stock);
@@ -136,7 +151,14 @@ public class InventoryTransaction {
       InventoryTransactionRepository inventoryTransactionRepository) {
 
     // トランザクションIDを生成
-    String txNo = transactionIdGenerator.generateTxNo();
+    return createTransactionforDispatch(stockItem, req, username, transactionIdGenerator.generateTxNo());
+  }
+
+  /**
+   * 出庫トランザクションを生成（事前に採番したトランザクションIDを使用）
+   */
+  public static InventoryTransaction createTransactionforDispatch(StockMaster stockItem,
+      InventoryDispatchRequest req, String username, String txNo) {
 
     // 出庫トランザクション登録
     InventoryTransaction tx = new InventoryTransaction();
@@ -159,6 +181,7 @@ public class InventoryTransaction {
    * @param req           リクエスト情報
    * @param purchasePrice 購入価格 サービス層でDB から単価を取得
    * @param operator      オペレーター名
+   * @param txNo          事前に採番したトランザクションID（TransactionIdGenerator#generateTxNos）
    * @return 入庫トランザクション
    */
   public static InventoryTransaction createTransactionForPurchaseReceive(
@@ -168,11 +191,7 @@ public class InventoryTransaction {
       InventoryReceiveFromOrderRequest req,
       BigDecimal purchasePrice,
       String operator,
-      TransactionIdGenerator transactionIdGenerator,
-      InventoryTransactionRepository inventoryTransactionRepository) {
-
-    // トランザクションIDを生成
-    String txNo = transactionIdGenerator.generateTxNo();
+      String txNo) {
 
     InventoryTransaction tx = new InventoryTransaction();
     tx.setTransactionId(txNo);
@@ -196,17 +215,15 @@ public class InventoryTransaction {
    * @param req           リクエスト情報
    * @param purchasePrice 購入価格 サービス層でDB から単価を取得
    * @param detail        発注明細
+   * @param txNo          事前に採番したトランザクションID（TransactionIdGenerator#generateTxNos）
    * @return 入庫トランザクション
    */
   public static InventoryTransaction createTransactionForPurchaseOrder(
       String operator,
       StockMaster stock,
       PurchaseOrder order,
-      PurchaseOrderRequest.Detail detail,TransactionIdGenerator transactionIdGenerator,
-      InventoryTransactionRepository inventoryTransactionRepository) {
-
-    // トランザクションIDを生成
-    String txNo = transactionIdGenerator.generateTxNo();
+      PurchaseOrderRequest.Detail detail,
+      String txNo) {
 
     InventoryTransaction tx = new InventoryTransaction();
     tx.setTransactionId(txNo);
@@ -222,11 +239,9 @@ public class InventoryTransaction {
   }
 
   public static InventoryTransaction createTransactionForCsv(
-      String[] data, StockMaster stock, String username, TransactionIdGenerator transactionIdGenerator,
+      String[] data, StockMaster stock, String username, String txNo,
       InventoryTransactionRepository inventoryTransactionRepository) {
 
-    // トランザクションIDを生成
-    String txNo = transactionIdGenerator.generateTxNo();
     InventoryTransaction tx = new InventoryTransaction();
 
     tx.setTransactionId(txNo);
@@ -242,6 +257,18 @@ public class InventoryTransaction {
     return tx;
   }
 
+  /**
+   * 在庫数を増やす種別（過去日時点の在庫数の集計に使用）
+   */
+  public static final List<TransactionType> INBOUND_TYPES = List.of(
+      TransactionType.MANUAL_RECEIVE, TransactionType.PURCHASE_RECEIVE);
+
+  /**
+   * 在庫数を減らす種別（ITEM_REGIST・ORDER_REGIST は在庫変動なし）
+   */
+  public static final List<TransactionType> OUTBOUND_TYPES = List.of(
+      TransactionType.MANUAL_DISPATCH, TransactionType.RETURN_DISPATCH);
+
   public enum TransactionType {
     MANUAL_RECEIVE, // 手動入庫(inventory/newで新規登録の数量1以上を登録・invenventory/で入庫登録)
     PURCHASE_RECEIVE, // 発注物の納品による入庫
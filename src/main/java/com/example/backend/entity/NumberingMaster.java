@@ -62,6 +62,12 @@ public class NumberingMaster {
     return ++currentDecimalNumber;
   }
 
+  // 指定件数分の番号をまとめて確保し、確保した範囲の末尾を返す
+  public Long reserveBlock(long size) {
+    currentDecimalNumber += size;
+    return currentDecimalNumber;
+  }
+
   // 初期化用コンストラクタ
   public NumberingMaster(String departmentCode, String numberingType, Integer fiscalYear) {
     this.departmentCode = departmentCode;
@@ -0,0 +1,46 @@
+package com.example.backend.entity;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 送出待ちのイベント（トランザクショナルアウトボックス）
+ * 入出庫履歴の登録・発注ステータスの変更と同じトランザクションで登録し、送出後に削除する。
+ */
+@Entity
+@Table(name = "outbox_event")
+@Data
+@NoArgsConstructor
+public class OutboxEvent {
+
+  // 登録は Hibernate を通さず JDBC バッチで行うため IDENTITY で採番する
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "aggregate_type", nullable = false, length = 32)
+  private AggregateType aggregateType;
+
+  @Column(name = "aggregate_id", nullable = false, length = 64)
+  private String aggregateId; // トランザクションID または 発注番号
+
+  @Column(name = "event_type", nullable = false, length = 32)
+  private String eventType;
+
+  @JsonRawValue
+  @Column(name = "payload", nullable = false, length = 4000)
+  private String payload; // JSON
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+
+  public enum AggregateType {
+    INVENTORY_TRANSACTION, // 入出庫履歴
+    PURCHASE_ORDER // 発注
+  }
+}
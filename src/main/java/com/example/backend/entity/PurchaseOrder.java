@@ -2,6 +2,8 @@ package com.example.backend.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
@@ -10,7 +12,9 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "purchase_order")
+@Table(name = "purchase_order", indexes = {
+    @Index(name = "idx_purchase_order_open_line_count", columnList = "open_line_count")
+})
 @Data
 public class PurchaseOrder {
 
@@ -56,14 +60,64 @@ public class PurchaseOrder {
   @Column(name = "remarks", length = 255)
   private String remarks;
 
+  // 明細の入庫状況の集計（明細の追加・入庫と同じトランザクションで更新する）
+  @Column(name = "open_line_count", nullable = false)
+  private int openLineCount = 0; // 未完了の明細数（0 なら全明細が完了）
+
+  @Column(name = "ordered_quantity_total", nullable = false, precision = 14, scale = 2)
+  private BigDecimal orderedQuantityTotal = BigDecimal.ZERO; // 発注数の合計
+
+  @Column(name = "received_quantity_total", nullable = false, precision = 14, scale = 2)
+  private BigDecimal receivedQuantityTotal = BigDecimal.ZERO; // 入庫済み数の合計
+
   @Column(name = "created_at", columnDefinition = "DATE DEFAULT CURRENT_DATE", updatable = false)
   @CreationTimestamp
   private LocalDate createdAt = LocalDate.now();
 
-  @OneToMany(mappedBy = "purchaseOrder", fetch = FetchType.EAGER)
+  // 一覧では読み込まない（発注履歴は PurchaseOrderDetailRepository#findWithOrderByOrderNoIn でまとめて取得する）
+  @OneToMany(mappedBy = "purchaseOrder", fetch = FetchType.LAZY)
   @JsonManagedReference
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
   private List<PurchaseOrderDetail> details;
 
+  // ===== 明細の集計 =====
+
+  /**
+   * 明細を追加した際の集計を反映する（明細の保存と同じトランザクションで呼ぶ）
+   */
+  public void addLine(PurchaseOrderDetail detail) {
+    orderedQuantityTotal = orderedQuantityTotal.add(detail.getQuantity());
+    if (detail.getReceivedQuantity() != null) {
+      receivedQuantityTotal = receivedQuantityTotal.add(detail.getReceivedQuantity());
+    }
+    if (!PurchaseOrderDetail.STATUS_COMPLETED.equals(detail.getStatus())) {
+      openLineCount++;
+    }
+  }
+
+  /**
+   * 明細への入庫を反映する。明細の入庫済み数・ステータスを更新し、完了した明細の分だけ未完了数を減らす。
+   *
+   * @param detail   この発注の明細
+   * @param quantity 今回の入庫数
+   */
+  public void receiveLine(PurchaseOrderDetail detail, BigDecimal quantity) {
+    boolean wasOpen = !PurchaseOrderDetail.STATUS_COMPLETED.equals(detail.getStatus());
+    detail.receive(quantity);
+    receivedQuantityTotal = receivedQuantityTotal.add(quantity);
+    if (wasOpen && PurchaseOrderDetail.STATUS_COMPLETED.equals(detail.getStatus())) {
+      openLineCount--;
+    }
+  }
+
+  /**
+   * 全明細が完了しているか（明細を読み込まずに判定する）
+   */
+  public boolean isAllLinesCompleted() {
+    return openLineCount == 0;
+  }
+
   public enum OrderType {
     INVENTORY, // 在庫系統
     ASSET // 設備・設備に対するサービス系統
@@ -6,13 +6,22 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.Data;
 
+import java.math.BigDecimal;
+
 @Entity
 @Table(name = "purchase_order_detail")
 @Data
 public class PurchaseOrderDetail {
 
+  // 明細ステータス
+  public static final String STATUS_NOT_RECEIVED = "未入庫";
+  public static final String STATUS_PARTIAL = "一部入庫";
+  public static final String STATUS_COMPLETED = "完了";
+
+  // シーケンスを50件単位で先取りする（pooled）。明細の INSERT を JDBC バッチでまとめるため
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchase_order_detail_seq")
+  @SequenceGenerator(name = "purchase_order_detail_seq", sequenceName = "purchase_order_detail_seq", allocationSize = 50)
   @Column(name = "id")
   private Long id;
 
@@ -53,13 +62,13 @@ public class PurchaseOrderDetail {
   private String category;
 
   @Column(name = "quantity", precision = 10, scale = 2, nullable = true)
-  private java.math.BigDecimal quantity = java.math.BigDecimal.ZERO;;
+  private BigDecimal quantity = BigDecimal.ZERO;;
 
   @Column(name = "purchase_price", precision = 14, scale = 2, nullable = false)
-  private java.math.BigDecimal purchasePrice = java.math.BigDecimal.ZERO;;
+  private BigDecimal purchasePrice = BigDecimal.ZERO;;
 
   @Column(name = "received_quantity", length = 20, nullable = true)
-  private java.math.BigDecimal receivedQuantity = java.math.BigDecimal.ZERO;
+  private BigDecimal receivedQuantity = BigDecimal.ZERO;
 
   @Column(name = "status", length = 20, nullable = true)
   private String status = "未入庫";
@@ -67,4 +76,20 @@ public class PurchaseOrderDetail {
   @Column(name = "remarks", length = 20, nullable = true)
   private String remarks;
 
-}
\ No newline at end of file
+  /**
+   * 入庫数を加算し、発注数との比較でステータスを更新する
+   * 発注ヘッダーの集計も更新するため、通常は {@link PurchaseOrder#receiveLine} から呼ぶ。
+   */
+  void receive(BigDecimal quantity) {
+    BigDecimal receivedSoFar = receivedQuantity != null ? receivedQuantity : BigDecimal.ZERO;
+    receivedQuantity = receivedSoFar.add(quantity);
+    // .compareTo() は 0 を返すと「等しい」、正なら「大きい」、負なら「小さい」。
+    if (receivedQuantity.compareTo(this.quantity) >= 0) {
+      status = STATUS_COMPLETED;
+    } else if (receivedQuantity.compareTo(BigDecimal.ZERO) > 0) {
+      status = STATUS_PARTIAL;
+    } else {
+      status = STATUS_NOT_RECEIVED;
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 保管場所ごとの在庫数
+ * 保管場所を指定した入出庫はこの行だけを更新するため、同じ品目でも保管場所が違えば同じ行を奪い合わない。
+ */
+@Entity
+@Table(name = "stock_location_balance",
+    uniqueConstraints = @UniqueConstraint(name = "uk_stock_location_balance_item_location",
+        columnNames = { "item_code", "location" }),
+    indexes = @Index(name = "idx_stock_location_balance_location", columnList = "location"))
+@Data
+@NoArgsConstructor
+public class StockLocationBalance {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_location_balance_seq")
+  @SequenceGenerator(name = "stock_location_balance_seq", sequenceName = "stock_location_balance_seq", allocationSize = 50)
+  private Long id;
+
+  @Column(name = "item_code", nullable = false, length = 32)
+  private String itemCode;
+
+  @Column(name = "location", nullable = false, length = 64)
+  private String location;
+
+  @Column(name = "quantity", nullable = false)
+  private BigDecimal quantity = BigDecimal.ZERO;
+
+  @Column(name = "last_updated")
+  private LocalDateTime lastUpdated;
+
+  public StockLocationBalance(String itemCode, String location, BigDecimal quantity) {
+    this.itemCode = itemCode;
+    this.location = location;
+    this.quantity = quantity;
+    this.lastUpdated = LocalDateTime.now();
+  }
+}
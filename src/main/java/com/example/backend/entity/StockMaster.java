@@ -2,21 +2,32 @@
 package com.example.backend.entity;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import org.springframework.data.domain.Persistable;
+
 import com.example.backend.common.service.ItemCodeGenerator;
 import com.example.backend.inventory.dto.StockMasterRequest;
 import com.example.backend.inventory.repository.StockMasterRepository;
+import com.example.backend.inventory.service.StockSearchIndexListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
 @Table(name = "stock_master")
+@EntityListeners(StockSearchIndexListener.class) // 検索用の n-gram 索引へ反映
 @Data
-public class StockMaster {
+public class StockMaster implements Persistable<Long> {
 
+    // IDは ItemCodeGenerator#nextStockId で事前に払い出して設定する
+    // → itemCode もINSERT前に決められるため、INSERT 1回で登録できる
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id; // サロゲートキー
 
     @Column(name = "item_code", length = 32, unique = true, nullable = true)
@@ -43,20 +54,64 @@ public class StockMaster {
     @Column(name ="location", length = 64)
     private String location = "-";
 
+    @Version // 楽観的排他制御（同時入出庫による在庫数の上書きを防ぐ）
+    private Long version;
+
+    // 仮引当中の数量（ReservationService のメモリ上の値。検索結果の返却時に設定する）
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private BigDecimal reservedStock = BigDecimal.ZERO;
+
+    // IDを事前に設定するため、save() が SELECT + merge にならないよう新規かどうかを自前で判定する
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean newEntity = true;
+
     @PrePersist
     @PreUpdate
     public void updateTimestamp() {
         this.lastUpdated = LocalDateTime.now();
     }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.newEntity = false;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    /**
+     * 引当可能・出庫可能な在庫数（現在庫 - 仮引当中の数量）
+     */
+    public BigDecimal getAvailableStock() {
+        return currentStock.subtract(reservedStock);
+    }
+
+    /**
+     * 事前に払い出したIDと、それに対応する itemCode を設定する
+     */
+    public void assignIdentity(ItemCodeGenerator itemCodeGenerator) {
+        this.id = itemCodeGenerator.nextStockId();
+        this.itemCode = itemCodeGenerator.generateItemCode(this.id);
+    }
     /**
      * 新規在庫ID発行・登録
      */
     public static StockMaster createStock(StockMasterRequest req,
                                     StockMasterRepository repository,
                                     ItemCodeGenerator itemCodeGenerator) {
-        // 1. エンティティインスタンスを生成し、仮保存
+        // 1. エンティティインスタンスを生成
         StockMaster stock = new StockMaster();
-        stock.setItemCode("itemCode-null"); // 仮のitemCode
         stock.setItemName(req.getItemName());
         stock.setCategory(req.getCategory());
         stock.setManufacturer(req.getManufacturer());
@@ -65,21 +120,12 @@ public class StockMaster {
         stock.setCurrentStock(req.getCurrentStock() != null ? req.getCurrentStock() : BigDecimal.ZERO);
         stock.setLocation(req.getLocation() != null ? req.getLocation() : "-");
 
-        // 2. 仮保存してIDを取得
-        stock = repository.save(stock);
-        
-        // 3. IDベースでitemCodeを採番
-        String code = itemCodeGenerator.generateItemCode(stock.getId());
-        System.out.println("Generated itemCode: " + code);                     
-        stock.setItemCode(code);
-        
-        // 4. 正式なitemCodeで再保存
-        stock = repository.save(stock);
-        
-        // 5. DBに反映（FLUSH）
-        repository.flush();
-        
-        return stock;
+        // 2. ID・itemCodeを採番（INSERT前に確定させる）
+        stock.assignIdentity(itemCodeGenerator);
+        System.out.println("Generated itemCode: " + stock.getItemCode());
+
+        // 3. 登録（INSERT 1回のみ。フラッシュはトランザクション終了時にまとめて行う）
+        return repository.save(stock);
     }
 
     public static StockMaster createStockFromCsv(String[] csvData,
@@ -92,8 +138,7 @@ public class StockMaster {
 
         // 1. エンティティインスタンスを生成
         StockMaster stock = new StockMaster();
-        stock.setItemCode("itemCode-null"); // 仮のitemCode
-        
+
         // 2. CSVデータを設定（トリムして設定）
         stock.setItemName(csvData[0].trim());
         stock.setModelNumber(csvData[1].trim().isEmpty() ? "-" : csvData[1].trim());
@@ -119,20 +164,11 @@ public class StockMaster {
         // csvData[8]=remarksはStockMasterには存在しないため、コメントアウト
         // stock.setremarks(csvData[8].trim().isEmpty() ? "-" : csvData[8].trim());
 
-        // 3. 仮保存してIDを取得
-        stock = repository.save(stock);
-                
-        // 4. IDベースでitemCodeを採番
-        String code = itemCodeGenerator.generateItemCode(stock.getId());
-        stock.setItemCode(code);
-        
-        // 5. 正式なitemCodeで再保存
-        stock = repository.save(stock);
-
-        // 6. DBに反映（FLUSH）
-        repository.flush();
+        // 3. ID・itemCodeを採番（INSERT前に確定させる）
+        stock.assignIdentity(itemCodeGenerator);
 
-        return stock;
+        // 4. 登録（INSERT 1回のみ。複数行はフラッシュ時にまとめて送られる）
+        return repository.save(stock);
     }
 
     /**
@@ -0,0 +1,85 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Persistable;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * ピッキング作業中の在庫の仮引当
+ * 引当はメモリ上で管理し（ReservationService）、このテーブルへは後からまとめて反映する。再起動時の復元に使う。
+ */
+@Entity
+@Table(name = "stock_reservation", indexes = {
+    @Index(name = "idx_stock_reservation_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+public class StockReservation implements Persistable<String> {
+
+  @Id
+  @Column(name = "reservation_id", length = 36)
+  private String reservationId;
+
+  @Column(name = "item_code", nullable = false, length = 32)
+  private String itemCode;
+
+  @Column(name = "quantity", nullable = false)
+  private BigDecimal quantity;
+
+  @Column(name = "operator", nullable = false, length = 64)
+  private String operator;
+
+  @Column(name = "expires_at", nullable = false)
+  private LocalDateTime expiresAt;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  // 引当IDは ReservationService が払い出すため、読み込み・登録前のものは新規とする（StockMaster と同じ判定）
+  @Transient
+  @JsonIgnore
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private boolean newEntity = true;
+
+  public StockReservation(String reservationId, String itemCode, BigDecimal quantity, String operator,
+      LocalDateTime expiresAt, LocalDateTime createdAt) {
+    this.reservationId = reservationId;
+    this.itemCode = itemCode;
+    this.quantity = quantity;
+    this.operator = operator;
+    this.expiresAt = expiresAt;
+    this.createdAt = createdAt;
+  }
+
+  @PostPersist
+  @PostLoad
+  void markNotNew() {
+    this.newEntity = false;
+  }
+
+  @Override
+  @JsonIgnore
+  public String getId() {
+    return reservationId;
+  }
+
+  @Override
+  @JsonIgnore
+  public boolean isNew() {
+    return newEntity;
+  }
+}
@@ -0,0 +1,49 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 日次の在庫数スナップショット（snapshot_date 終了時点の在庫数）
+ * 過去日時点の在庫数は直近のスナップショットに、それ以降の入出庫履歴だけを足して求める。
+ */
+@Entity
+@Table(name = "stock_snapshot",
+    uniqueConstraints = @UniqueConstraint(name = "uk_stock_snapshot_item_date",
+        columnNames = { "item_code", "snapshot_date" }))
+@Data
+@NoArgsConstructor
+public class StockSnapshot {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_snapshot_seq")
+  @SequenceGenerator(name = "stock_snapshot_seq", sequenceName = "stock_snapshot_seq", allocationSize = 50)
+  private Long id;
+
+  @Column(name = "item_code", nullable = false, length = 32)
+  private String itemCode;
+
+  @Column(name = "snapshot_date", nullable = false)
+  private LocalDate snapshotDate;
+
+  @Column(name = "quantity", nullable = false)
+  private BigDecimal quantity;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  public StockSnapshot(String itemCode, LocalDate snapshotDate, BigDecimal quantity) {
+    this.itemCode = itemCode;
+    this.snapshotDate = snapshotDate;
+    this.quantity = quantity;
+  }
+
+  @PrePersist
+  void onCreate() {
+    this.createdAt = LocalDateTime.now();
+  }
+}
@@ -0,0 +1,40 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 在庫マスタの在庫数（全保管場所の合計）へ未反映の増減
+ * 保管場所ごとの入出庫と同じトランザクションで INSERT し、StockLocationService が品目ごとにまとめて反映する。
+ */
+@Entity
+@Table(name = "stock_total_delta", indexes = {
+    @Index(name = "idx_stock_total_delta_item_code", columnList = "item_code")
+})
+@Data
+@NoArgsConstructor
+public class StockTotalDelta {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_total_delta_seq")
+  @SequenceGenerator(name = "stock_total_delta_seq", sequenceName = "stock_total_delta_seq", allocationSize = 50)
+  private Long id;
+
+  @Column(name = "item_code", nullable = false, length = 32)
+  private String itemCode;
+
+  @Column(name = "delta", nullable = false)
+  private BigDecimal delta;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+
+  public StockTotalDelta(String itemCode, BigDecimal delta) {
+    this.itemCode = itemCode;
+    this.delta = delta;
+    this.createdAt = LocalDateTime.now();
+  }
+}
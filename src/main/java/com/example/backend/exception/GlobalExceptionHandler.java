@@ -1,6 +1,7 @@
 package com.example.backend.exception;
 
 import org.springframework.dao.DataIntegrityViolationException; // 追加
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException; // 追加
@@ -69,6 +70,17 @@ public class GlobalExceptionHandler {
       return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
   }
 
+  // 楽観的排他の競合 (リトライ上限に達した場合)
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<Map<String, Object>> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+      Map<String, Object> body = new HashMap<>();
+      body.put("status", HttpStatus.CONFLICT.value());
+      body.put("message", "他の操作と更新が競合しました。時間をおいて再度実行してください。");
+      body.put("error", "Optimistic Lock Conflict");
+      body.put("timestamp", LocalDateTime.now().toString());
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+  }
+
   // 認証エラー (AuthenticationException.javaを基に)
   @ExceptionHandler(AuthenticationException.class)
   public ResponseEntity<Map<String, Object>> handleAuthenticationException(AuthenticationException ex) {
@@ -1,11 +1,19 @@
 package com.example.backend.inventory.controller;
 
+import com.example.backend.common.service.IdempotencyService;
+import com.example.backend.entity.IdempotencyRecord;
 import com.example.backend.entity.StockMaster;
 import com.example.backend.entity.InventoryTransaction;
+import com.example.backend.inventory.dto.InventoryDispatchBatchRequest;
+import com.example.backend.inventory.dto.InventoryDispatchBatchResponse;
 import com.example.backend.inventory.dto.InventoryDispatchRequest;
 import com.example.backend.inventory.dto.InventoryReceiveRequest;
 import com.example.backend.inventory.dto.StockMasterRequest;
+import com.example.backend.inventory.dto.TransactionHistoryView;
+import com.example.backend.inventory.dto.TransactionSearchRequest;
 import com.example.backend.inventory.service.InventoryService;
+import com.example.backend.inventory.service.StockReconciliationService;
+import com.example.backend.inventory.service.StockSnapshotService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -28,19 +36,27 @@ import java.util.Map;
 public class InventoryController {
 
   private final InventoryService inventoryService;
+  private final IdempotencyService idempotencyService;
+  private final StockSnapshotService stockSnapshotService;
+  private final StockReconciliationService stockReconciliationService;
 
   @Autowired
-  public InventoryController(InventoryService inventoryService) {
+  public InventoryController(InventoryService inventoryService, IdempotencyService idempotencyService,
+      StockSnapshotService stockSnapshotService, StockReconciliationService stockReconciliationService) {
       this.inventoryService = inventoryService;
+      this.idempotencyService = idempotencyService;
+      this.stockSnapshotService = stockSnapshotService;
+      this.stockReconciliationService = stockReconciliationService;
   }
 
-  @Operation(summary = "在庫検索 全件取得時は ID, 品名, カテゴリー, 型番を空にする")
+  @Operation(summary = "在庫検索 全件取得時は ID, 品名, カテゴリー, 型番, メーカーを空にする")
   @GetMapping("/inventory/search")
   public ResponseEntity<?> searchInventory(
       @Parameter(description = "ID") @RequestParam(required = false) String itemCode,
       @Parameter(description = "品名") @RequestParam(required = false) String itemName,
       @Parameter(description = "カテゴリー") @RequestParam(required = false) String category,
       @Parameter(description = "型番") @RequestParam(required = false) String modelNumber,
+      @Parameter(description = "メーカー") @RequestParam(required = false) String manufacturer,
       @PageableDefault(size = 100, sort = "itemCode", direction = Sort.Direction.ASC) Pageable pageable) {
 
     System.out.println(itemCode);
@@ -48,7 +64,8 @@ public class InventoryController {
     System.out.println(category);
     System.out.println(modelNumber);
 
-    Page<StockMaster> results = inventoryService.searchStock(itemCode, itemName, category, modelNumber, pageable);
+    Page<StockMaster> results = inventoryService.searchStock(itemCode, itemName, category, modelNumber,
+        manufacturer, pageable);
 
     return ResponseEntity.ok(
         Map.of(
@@ -70,8 +87,11 @@ public class InventoryController {
 
   @Operation(summary = "入庫登録")
   @PostMapping("/inventory/receive/{itemCode}")
-  public ResponseEntity<?> receiveInventory(@RequestBody InventoryReceiveRequest request) {
-    String transactionId = inventoryService.receiveInventory(request);
+  public ResponseEntity<?> receiveInventory(@RequestBody InventoryReceiveRequest request,
+      @Parameter(description = "再送時の重複登録防止キー") @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+    // 同じキーの再送は在庫・履歴に触れず最初のトランザクションIDを返す
+    String transactionId = idempotencyService.execute(idempotencyKey, IdempotencyRecord.Operation.RECEIVE,
+        () -> inventoryService.receiveInventory(request, idempotencyKey));
     return ResponseEntity.ok(
         Map.of(
             "status", 200,
@@ -80,10 +100,28 @@ public class InventoryController {
               ));
   }
 
+  @Operation(summary = "一括出庫登録 mode=ALL_OR_NOTHING（既定）は全明細成功時のみ反映、BEST_EFFORT は出庫できる明細のみ反映")
+  @PostMapping("/inventory/dispatch/batch")
+  public ResponseEntity<?> dispatchInventoryBatch(@RequestBody InventoryDispatchBatchRequest request) {
+    InventoryDispatchBatchResponse result = inventoryService.dispatchInventoryBatch(request);
+    return ResponseEntity.ok(
+        Map.of(
+            "status", 200,
+            "message", "Stock dispatched successfully.",
+            "data", result));
+  }
+
   @Operation(summary = "出庫登録")
   @PostMapping("/inventory/dispatch/{itemCode}")
-  public ResponseEntity<?> dispatchInventory(@RequestBody InventoryDispatchRequest request) {
-    String transactionId = inventoryService.dispatchInventory(request);
+  public ResponseEntity<?> dispatchInventory(@RequestBody InventoryDispatchRequest request,
+      @Parameter(description = "再送時の重複登録防止キー") @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+    // コアレッサ有効時は同一品目の同時出庫をまとめて反映する
+    // （キー指定時はキーの記録を出庫と同じトランザクションで行うため、引当指定時は引当を解除するため、通常の出庫処理を使う）
+    String transactionId = idempotencyService.execute(idempotencyKey, IdempotencyRecord.Operation.DISPATCH,
+        () -> inventoryService.isDispatchCoalescingEnabled() && idempotencyKey == null
+                && request.getReservationId() == null
+            ? inventoryService.dispatchInventoryCoalesced(request)
+            : inventoryService.dispatchInventory(request, idempotencyKey));
     return ResponseEntity.ok(
         Map.of(
             "status", 200,
@@ -98,7 +136,7 @@ public class InventoryController {
       @PathVariable String itemCode,
       @PageableDefault(size = 100, sort = "transactionTime", direction = Sort.Direction.DESC) Pageable pageable) {
 
-    Page<InventoryTransaction> historyPage = inventoryService.getTransactionHistory(itemCode, pageable);
+    Page<TransactionHistoryView> historyPage = inventoryService.getTransactionHistory(itemCode, pageable);
 
     return ResponseEntity.ok(
         Map.of(
@@ -107,6 +145,46 @@ public class InventoryController {
             "data", historyPage));
   }
 
+  @Operation(summary = "在庫の処理履歴の取得（カーソル方式・総件数なし）")
+  @GetMapping("/inventory/{itemCode}/history/scroll")
+  public ResponseEntity<?> scrollInventoryHistory(
+      @PathVariable String itemCode,
+      @Parameter(description = "前のページの nextCursor") @RequestParam(required = false) String cursor,
+      @Parameter(description = "取得件数") @RequestParam(defaultValue = "100") int size) {
+
+    return ResponseEntity.ok(
+        Map.of(
+            "status", 200,
+            "message", "Inventory history fetched successfully.",
+            "data", inventoryService.scrollTransactionHistory(itemCode, cursor, size)));
+  }
+
+  @Operation(summary = "指定日終了時点の在庫数の取得")
+  @GetMapping("/inventory/{itemCode}/stock-at")
+  public ResponseEntity<?> getStockAt(
+      @PathVariable String itemCode,
+      @Parameter(description = "対象日") @RequestParam
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+
+    return ResponseEntity.ok(
+        Map.of(
+            "status", 200,
+            "message", "Stock at date fetched successfully.",
+            "data", stockSnapshotService.getStockAt(itemCode, date)));
+  }
+
+  @Operation(summary = "在庫数と入出庫履歴の突合（repair=true で不一致を履歴の値に修正）")
+  @PostMapping("/inventory/reconcile")
+  public ResponseEntity<?> reconcileStock(
+      @Parameter(description = "不一致を修正する") @RequestParam(defaultValue = "false") boolean repair) {
+
+    return ResponseEntity.ok(
+        Map.of(
+            "status", 200,
+            "message", "Stock reconciliation completed.",
+            "data", stockReconciliationService.reconcile(repair)));
+  }
+
   @Operation(summary = "新規在庫ID発行・登録")
   @PostMapping("/inventory/new")
   public ResponseEntity<?> createStock(@RequestBody StockMasterRequest req) {
@@ -130,10 +208,21 @@ public class InventoryController {
       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
       @Parameter(description = "終了日") @RequestParam(required = false) 
       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+      @Parameter(description = "処理種別") @RequestParam(required = false)
+      InventoryTransaction.TransactionType transactionType,
+      @Parameter(description = "発注番号") @RequestParam(required = false) String orderNo,
+      @Parameter(description = "仕入先") @RequestParam(required = false) String supplier,
       @PageableDefault(size = 100, sort = "transactionTime", direction = Sort.Direction.DESC) Pageable pageable) {
 
-      Page<InventoryTransaction> allTransactions = inventoryService.getAllTransactionHistory(
-          itemCode, operator, fromDate, toDate, pageable);
+      TransactionSearchRequest req = new TransactionSearchRequest();
+      req.setItemCode(itemCode);
+      req.setOperator(operator);
+      req.setFromDate(fromDate);
+      req.setToDate(toDate);
+      req.setTransactionType(transactionType);
+      req.setOrderNo(orderNo);
+      req.setSupplier(supplier);
+      Page<TransactionHistoryView> allTransactions = inventoryService.getAllTransactionHistory(req, pageable);
 
       return ResponseEntity.ok(
           Map.of(
@@ -141,4 +230,36 @@ public class InventoryController {
               "message", "All inventory transactions fetched successfully.",
               "data", allTransactions));
   }
+
+  @Operation(summary = "全トランザクション履歴の取得（カーソル方式・総件数なし・検索機能付き）")
+  @GetMapping("/transactions/scroll")
+  public ResponseEntity<?> scrollAllTransactions(
+      @Parameter(description = "在庫ID") @RequestParam(required = false) String itemCode,
+      @Parameter(description = "操作者") @RequestParam(required = false) String operator,
+      @Parameter(description = "開始日") @RequestParam(required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+      @Parameter(description = "終了日") @RequestParam(required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+      @Parameter(description = "処理種別") @RequestParam(required = false)
+      InventoryTransaction.TransactionType transactionType,
+      @Parameter(description = "発注番号") @RequestParam(required = false) String orderNo,
+      @Parameter(description = "仕入先") @RequestParam(required = false) String supplier,
+      @Parameter(description = "前のページの nextCursor") @RequestParam(required = false) String cursor,
+      @Parameter(description = "取得件数") @RequestParam(defaultValue = "100") int size) {
+
+      TransactionSearchRequest req = new TransactionSearchRequest();
+      req.setItemCode(itemCode);
+      req.setOperator(operator);
+      req.setFromDate(fromDate);
+      req.setToDate(toDate);
+      req.setTransactionType(transactionType);
+      req.setOrderNo(orderNo);
+      req.setSupplier(supplier);
+
+      return ResponseEntity.ok(
+          Map.of(
+              "status", 200,
+              "message", "All inventory transactions fetched successfully.",
+              "data", inventoryService.scrollAllTransactionHistory(req, cursor, size)));
+  }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.example.backend.inventory.controller;
+
+import com.example.backend.inventory.dto.StockReservationRequest;
+import com.example.backend.inventory.service.ReservationService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/v1/api/inventory/reservations")
+@Tag(name = "在庫引当API", description = "ピッキング作業中の在庫の仮引当")
+public class ReservationController {
+
+  private final ReservationService reservationService;
+
+  public ReservationController(ReservationService reservationService) {
+    this.reservationService = reservationService;
+  }
+
+  @Operation(summary = "在庫の仮引当（有効期間を過ぎると自動で解除）")
+  @PostMapping
+  public ResponseEntity<?> reserve(@RequestBody StockReservationRequest request) {
+    return ResponseEntity.ok(
+        Map.of(
+            "status", 200,
+            "message", "Stock reserved successfully.",
+            "data", reservationService.reserve(request)));
+  }
+
+  @Operation(summary = "仮引当の解除")
+  @DeleteMapping("/{reservationId}")
+  public ResponseEntity<?> release(@PathVariable String reservationId) {
+    reservationService.release(reservationId);
+    return ResponseEntity.ok(
+        Map.of(
+            "status", 200,
+            "message", "Reservation released."));
+  }
+}
@@ -0,0 +1,76 @@
+package com.example.backend.inventory.controller;
+
+import com.example.backend.entity.StockLocationBalance;
+import com.example.backend.inventory.dto.StockLocationMovementRequest;
+import com.example.backend.inventory.service.StockLocationService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/v1/api/inventory")
+@Tag(name = "保管場所別在庫API", description = "保管場所ごとの在庫数の取得・入出庫")
+public class StockLocationController {
+
+  private final StockLocationService stockLocationService;
+
+  public StockLocationController(StockLocationService stockLocationService) {
+    this.stockLocationService = stockLocationService;
+  }
+
+  @Operation(summary = "品目の保管場所別在庫の取得")
+  @GetMapping("/{itemCode}/locations")
+  public ResponseEntity<?> getBalances(@PathVariable String itemCode) {
+    return ResponseEntity.ok(
+        Map.of(
+            "status", 200,
+            "message", "Location balances fetched successfully.",
+            "data", stockLocationService.getBalances(itemCode)));
+  }
+
+  @Operation(summary = "保管場所にある在庫の取得（ページング対応）")
+  @GetMapping("/locations/{location}")
+  public ResponseEntity<?> getByLocation(@PathVariable String location,
+      @PageableDefault(size = 100, sort = "itemCode", direction = Sort.Direction.ASC) Pageable pageable) {
+    Page<StockLocationBalance> balances = stockLocationService.getByLocation(location, pageable);
+    return ResponseEntity.ok(
+        Map.of(
+            "status", 200,
+            "message", "Location stock fetched successfully.",
+            "data", balances));
+  }
+
+  @Operation(summary = "保管場所への入庫")
+  @PostMapping("/{itemCode}/locations/{location}/receive")
+  public ResponseEntity<?> receive(@PathVariable String itemCode, @PathVariable String location,
+      @RequestBody StockLocationMovementRequest request) {
+    String transactionId = stockLocationService.receive(itemCode, location, request);
+    return ResponseEntity.ok(
+        Map.of(
+            "status", 200,
+            "message", "Stock received successfully.",
+            "data", Map.of(
+                "transactionId", transactionId)));
+  }
+
+  @Operation(summary = "保管場所からの出庫")
+  @PostMapping("/{itemCode}/locations/{location}/dispatch")
+  public ResponseEntity<?> dispatch(@PathVariable String itemCode, @PathVariable String location,
+      @RequestBody StockLocationMovementRequest request) {
+    String transactionId = stockLocationService.dispatch(itemCode, location, request);
+    return ResponseEntity.ok(
+        Map.of(
+            "status", 200,
+            "message", "Stock dispatched successfully.",
+            "data", Map.of(
+                "transactionId", transactionId)));
+  }
+}
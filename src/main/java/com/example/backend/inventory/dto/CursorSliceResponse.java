@@ -0,0 +1,19 @@
+package com.example.backend.inventory.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+/**
+ * カーソル方式のページのレスポンスDTO（総件数は数えない）
+ */
+public class CursorSliceResponse<T> {
+  private List<T> content;
+  private int size; // 要求した件数
+  private int numberOfElements; // このページの件数
+  private boolean hasNext;
+  private String nextCursor; // 次のページの取得に渡すカーソル（最後のページは null）
+}
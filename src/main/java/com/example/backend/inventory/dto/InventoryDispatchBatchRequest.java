@@ -0,0 +1,20 @@
+package com.example.backend.inventory.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+/**
+ * 一括出庫リクエストDTO
+ */
+public class InventoryDispatchBatchRequest {
+
+  private Mode mode; // 処理モード（未指定時は ALL_OR_NOTHING）
+  private List<InventoryDispatchRequest> items; // 出庫明細（必須）
+
+  public enum Mode {
+    ALL_OR_NOTHING, // 1明細でも出庫できなければ全明細を取り消す
+    BEST_EFFORT // 出庫できる明細のみ反映し、できなかった明細は結果で返す
+  }
+}
@@ -0,0 +1,37 @@
+package com.example.backend.inventory.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+/**
+ * 一括出庫のレスポンスDTO
+ */
+public class InventoryDispatchBatchResponse {
+  private InventoryDispatchBatchRequest.Mode mode;
+  private int acceptedCount; // 出庫した明細数
+  private int rejectedCount; // 出庫できなかった明細数
+  private List<Line> lines; // リクエストと同じ順序の明細ごとの結果
+
+  @Data
+  @Builder
+  public static class Line {
+    private int index; // リクエスト内の位置（0始まり）
+    private String itemCode;
+    private BigDecimal quantity;
+    private Status status;
+    private String transactionId; // 出庫した場合のみ
+    private String message; // 出庫できなかった理由
+  }
+
+  public enum Status {
+    SUCCESS, // 出庫済み
+    INSUFFICIENT_STOCK, // 在庫不足
+    NOT_FOUND, // 在庫が存在しない
+    INVALID // 出庫数が不正
+  }
+}
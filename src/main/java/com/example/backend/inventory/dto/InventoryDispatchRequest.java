@@ -16,4 +16,5 @@ public class InventoryDispatchRequest {
   private BigDecimal quantity; // 出庫数（必須）
   private String operator; // 担当者（必須）
   private String remarks; // 備考（任意）
+  private String reservationId; // 仮引当ID（任意。指定時は引当分を出庫し、引当を解除する）
 }
@@ -0,0 +1,19 @@
+package com.example.backend.inventory.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+/**
+ * 過去日時点の在庫数のレスポンスDTO
+ */
+public class StockAtResponse {
+  private String itemCode;
+  private LocalDate date; // 対象日（この日の終了時点）
+  private BigDecimal quantity;
+  private LocalDate snapshotDate; // 起点にしたスナップショットの日付（ない場合は現在の在庫数から逆算）
+}
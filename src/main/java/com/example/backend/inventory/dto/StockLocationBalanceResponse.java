@@ -0,0 +1,22 @@
+package com.example.backend.inventory.dto;
+
+import com.example.backend.entity.StockLocationBalance;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+/**
+ * 品目の保管場所別在庫のレスポンスDTO
+ */
+public class StockLocationBalanceResponse {
+  private String itemCode;
+  private BigDecimal currentStock; // 在庫マスタの在庫数（保管場所別の増減は数秒遅れて反映）
+  private BigDecimal locatedStock; // 保管場所別在庫の合計
+  private BigDecimal pendingDelta; // 在庫マスタへ未反映の増減
+  private BigDecimal unassignedStock; // 保管場所の割り当てがない在庫（currentStock + pendingDelta - locatedStock）
+  private List<StockLocationBalance> balances;
+}
@@ -0,0 +1,14 @@
+package com.example.backend.inventory.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+/**
+ * 保管場所を指定した入出庫リクエストDTO
+ */
+public class StockLocationMovementRequest {
+
+  private BigDecimal quantity; // 数量（必須）
+  private String remarks; // 備考（任意）
+}
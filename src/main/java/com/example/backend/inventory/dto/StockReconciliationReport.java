@@ -0,0 +1,32 @@
+package com.example.backend.inventory.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+/**
+ * 在庫マスタと入出庫履歴の突合結果DTO
+ */
+public class StockReconciliationReport {
+  private boolean repair; // true: 不一致の在庫数を履歴の値に合わせた
+  private long checkedItems; // 突合した在庫数
+  private int mismatchCount;
+  private int repairedCount;
+  private int skippedCount; // 突合後に在庫が変わったため修正しなかった件数
+  private long elapsedMillis;
+  private List<Mismatch> mismatches; // 品目コード順
+
+  @Data
+  @Builder
+  public static class Mismatch {
+    private String itemCode;
+    private BigDecimal currentStock; // 在庫マスタの在庫数（未反映の保管場所別の増減を含む）
+    private BigDecimal ledgerStock; // 入出庫履歴から求めた在庫数
+    private BigDecimal difference; // currentStock - ledgerStock
+    private boolean repaired;
+  }
+}
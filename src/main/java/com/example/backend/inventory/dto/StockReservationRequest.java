@@ -0,0 +1,15 @@
+package com.example.backend.inventory.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+/**
+ * 在庫の仮引当リクエストDTO
+ */
+public class StockReservationRequest {
+
+  private String itemCode; // 商品コード（必須）
+  private BigDecimal quantity; // 引当数（必須）
+  private Long ttlSeconds; // 有効期間（秒・任意。未指定時は reservation.default-ttl-seconds）
+}
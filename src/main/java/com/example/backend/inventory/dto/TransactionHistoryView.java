@@ -0,0 +1,32 @@
+package com.example.backend.inventory.dto;
+
+import com.example.backend.entity.InventoryTransaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 入出庫履歴の一覧表示用の読み取りモデル
+ *
+ * 在庫マスタ・発注の項目を結合した1回のクエリで取得する（InventoryTransactionRepositoryCustom）。
+ * エンティティを返さないため、関連の遅延読み込みは発生しない。
+ *
+ * @param supplier 入出庫の仕入先。未設定の場合（発注からの入庫など）は発注の仕入先
+ */
+public record TransactionHistoryView(
+        Long id,
+        String transactionId,
+        InventoryTransaction.TransactionType transactionType,
+        BigDecimal quantity,
+        String operator,
+        LocalDateTime transactionTime,
+        String itemCode,
+        String itemName,
+        String modelNumber,
+        String category,
+        String manufacturer,
+        String orderNo,
+        String supplier,
+        BigDecimal purchasePrice,
+        String remarks) {
+}
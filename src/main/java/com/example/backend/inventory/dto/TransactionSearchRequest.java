@@ -0,0 +1,21 @@
+package com.example.backend.inventory.dto;
+
+import com.example.backend.entity.InventoryTransaction;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+/**
+ * 全取引履歴の検索条件（すべて任意。指定したものだけで絞り込む）
+ */
+public class TransactionSearchRequest {
+
+  private String itemCode; // 在庫ID（部分一致）
+  private String operator; // 操作者（部分一致）
+  private LocalDate fromDate; // 開始日
+  private LocalDate toDate; // 終了日
+  private InventoryTransaction.TransactionType transactionType; // 処理種別
+  private String orderNo; // 発注番号（完全一致）
+  private String supplier; // 仕入先（部分一致）
+}
@@ -2,15 +2,19 @@ package com.example.backend.inventory.repository;
 
 import com.example.backend.entity.InventoryTransaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface InventoryTransactionRepository extends JpaRepository<InventoryTransaction, Long> {
+public interface InventoryTransactionRepository extends JpaRepository<InventoryTransaction, Long>,
+    JpaSpecificationExecutor<InventoryTransaction>, InventoryTransactionRepositoryCustom {
 
   // ある商品に対する履歴（入庫・出庫問わず）
   List<InventoryTransaction> findByStockItem_ItemCodeOrderByTransactionTimeDesc(String itemCode);
@@ -21,31 +25,36 @@ public interface InventoryTransactionRepository extends JpaRepository<InventoryT
   // 入庫のみ抽出
   List<InventoryTransaction> findByTransactionType(InventoryTransaction.TransactionType type);
 
-  // ページング機能
-  Page<InventoryTransaction> findByStockItem_ItemCodeOrderByTransactionTimeDesc(String itemCode, Pageable pageable);
-
-  // 全取引履歴閲覧
-  Page<InventoryTransaction> findAllByOrderByTransactionTimeDesc(Pageable pageable);
-
-  // アイテムコード部分一致検索（ページング対応）
-  Page<InventoryTransaction> findByStockItem_ItemCodeContainingOrderByTransactionTimeDesc(String itemCode, Pageable pageable);
-
-  // 操作者部分一致検索（ページング対応）
-  Page<InventoryTransaction> findByOperatorContainingOrderByTransactionTimeDesc(String operator, Pageable pageable);
-
-  // 期間指定検索（ページング対応）
-  Page<InventoryTransaction> findByTransactionTimeBetweenOrderByTransactionTimeDesc(LocalDateTime fromDateTime, LocalDateTime toDateTime, Pageable pageable);
-
-  // アイテムコード + 操作者の複合検索（ページング対応）
-  Page<InventoryTransaction> findByStockItem_ItemCodeContainingAndOperatorContainingOrderByTransactionTimeDesc(String itemCode, String operator, Pageable pageable);
-
-  // アイテムコード + 期間の複合検索（ページング対応）
-  Page<InventoryTransaction> findByStockItem_ItemCodeContainingAndTransactionTimeBetweenOrderByTransactionTimeDesc(String itemCode, LocalDateTime fromDateTime, LocalDateTime toDateTime, Pageable pageable);
-
-  // 操作者 + 期間の複合検索（ページング対応）
-  Page<InventoryTransaction> findByOperatorContainingAndTransactionTimeBetweenOrderByTransactionTimeDesc(String operator, LocalDateTime fromDateTime, LocalDateTime toDateTime, Pageable pageable);
-
-  // アイテムコード + 操作者 + 期間の複合検索（ページング対応）
-  Page<InventoryTransaction> findByStockItem_ItemCodeContainingAndOperatorContainingAndTransactionTimeBetweenOrderByTransactionTimeDesc(String itemCode, String operator, LocalDateTime fromDateTime, LocalDateTime toDateTime, Pageable pageable);
+  // 履歴の一覧（全取引・品目ごと）は TransactionSpecificationBuilder で条件を組み立てて
+  // findHistoryViews（InventoryTransactionRepositoryCustom）で取得する
+
+  // 登録済みのトランザクションIDを抽出（ジャーナルからの再反映時の重複除外）
+  @Query("SELECT t.transactionId FROM InventoryTransaction t WHERE t.transactionId IN :ids")
+  List<String> findExistingTransactionIds(@Param("ids") Collection<String> ids);
+
+  // 期間内の在庫増減（入庫は加算・出庫は減算）
+  @Query("""
+      SELECT COALESCE(SUM(CASE WHEN t.transactionType IN :inbound THEN t.quantity
+                               WHEN t.transactionType IN :outbound THEN -t.quantity
+                               ELSE 0 END), 0)
+      FROM InventoryTransaction t
+      WHERE t.stockItem.itemCode = :itemCode
+        AND t.transactionTime >= :from AND t.transactionTime < :to""")
+  BigDecimal sumStockDelta(@Param("itemCode") String itemCode, @Param("from") LocalDateTime from,
+      @Param("to") LocalDateTime to, @Param("inbound") Collection<InventoryTransaction.TransactionType> inbound,
+      @Param("outbound") Collection<InventoryTransaction.TransactionType> outbound);
+
+  // 期間内の在庫増減を品目ごとに集計（[品目コード, 増減]）
+  @Query("""
+      SELECT t.stockItem.itemCode,
+             SUM(CASE WHEN t.transactionType IN :inbound THEN t.quantity
+                      WHEN t.transactionType IN :outbound THEN -t.quantity
+                      ELSE 0 END)
+      FROM InventoryTransaction t
+      WHERE t.transactionTime >= :from AND t.transactionTime < :to
+      GROUP BY t.stockItem.itemCode""")
+  List<Object[]> sumStockDeltaByItem(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+      @Param("inbound") Collection<InventoryTransaction.TransactionType> inbound,
+      @Param("outbound") Collection<InventoryTransaction.TransactionType> outbound);
 
 }
@@ -0,0 +1,28 @@
+package com.example.backend.inventory.repository;
+
+import com.example.backend.entity.InventoryTransaction;
+import com.example.backend.inventory.dto.TransactionHistoryView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * 入出庫履歴の一覧取得（在庫マスタ・発注を結合した {@link TransactionHistoryView} で返す）
+ *
+ * 条件は {@link TransactionSpecificationBuilder} で組み立てた Specification をそのまま使う。
+ */
+public interface InventoryTransactionRepositoryCustom {
+
+  /**
+   * ページ単位で取得する（件数は1ページ目で全件が収まらない場合のみ COUNT で数える）
+   */
+  Page<TransactionHistoryView> findHistoryViews(Specification<InventoryTransaction> spec, Pageable pageable);
+
+  /**
+   * 並び順の先頭から limit 件を取得する（カーソル方式のページング用。COUNT は発行しない）
+   */
+  List<TransactionHistoryView> findHistoryViews(Specification<InventoryTransaction> spec, Sort sort, int limit);
+}
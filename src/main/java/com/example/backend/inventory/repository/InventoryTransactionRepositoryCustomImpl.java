@@ -0,0 +1,97 @@
+package com.example.backend.inventory.repository;
+
+import com.example.backend.entity.InventoryTransaction;
+import com.example.backend.entity.PurchaseOrder;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.inventory.dto.TransactionHistoryView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+/**
+ * 入出庫履歴の一覧取得の実装
+ *
+ * 在庫マスタ（内部結合）と発注（外部結合）の項目をコンストラクタ式で選択するため、
+ * 1ページ分を1回のクエリで取得する。発注の明細（EAGER）などエンティティの関連も読み込まない。
+ */
+class InventoryTransactionRepositoryCustomImpl implements InventoryTransactionRepositoryCustom {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public Page<TransactionHistoryView> findHistoryViews(Specification<InventoryTransaction> spec,
+      Pageable pageable) {
+    TypedQuery<TransactionHistoryView> query = selectViews(spec, pageable.getSort());
+    if (pageable.isPaged()) {
+      query.setFirstResult((int) pageable.getOffset());
+      query.setMaxResults(pageable.getPageSize());
+    }
+    return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(spec));
+  }
+
+  @Override
+  public List<TransactionHistoryView> findHistoryViews(Specification<InventoryTransaction> spec, Sort sort,
+      int limit) {
+    return selectViews(spec, sort).setMaxResults(limit).getResultList();
+  }
+
+  private TypedQuery<TransactionHistoryView> selectViews(Specification<InventoryTransaction> spec, Sort sort) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<TransactionHistoryView> query = cb.createQuery(TransactionHistoryView.class);
+    Root<InventoryTransaction> t = query.from(InventoryTransaction.class);
+    Join<InventoryTransaction, StockMaster> item = t.join("stockItem");
+    Join<InventoryTransaction, PurchaseOrder> order = t.join("purchaseOrder", JoinType.LEFT);
+
+    query.select(cb.construct(TransactionHistoryView.class,
+        t.get("id"),
+        t.get("transactionId"),
+        t.get("transactionType"),
+        t.get("quantity"),
+        t.get("operator"),
+        t.get("transactionTime"),
+        item.get("itemCode"),
+        item.get("itemName"),
+        item.get("modelNumber"),
+        item.get("category"),
+        t.get("manufacturer"),
+        order.get("orderNo"),
+        cb.coalesce(t.<String>get("supplier"), order.<String>get("supplier")),
+        t.get("purchasePrice"),
+        t.get("remarks")));
+    Predicate predicate = spec.toPredicate(t, query, cb);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    if (sort.isSorted()) {
+      query.orderBy(QueryUtils.toOrders(sort, t, cb));
+    }
+    return entityManager.createQuery(query);
+  }
+
+  private long count(Specification<InventoryTransaction> spec) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> query = cb.createQuery(Long.class);
+    Root<InventoryTransaction> t = query.from(InventoryTransaction.class);
+    query.select(cb.count(t));
+    Predicate predicate = spec.toPredicate(t, query, cb);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    return entityManager.createQuery(query).getSingleResult();
+  }
+}
@@ -0,0 +1,38 @@
+package com.example.backend.inventory.repository;
+
+import com.example.backend.entity.StockLocationBalance;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockLocationBalanceRepository extends JpaRepository<StockLocationBalance, Long> {
+
+  // 品目の保管場所別在庫
+  List<StockLocationBalance> findByItemCodeOrderByLocation(String itemCode);
+
+  // 保管場所にある在庫（ページング対応）
+  Page<StockLocationBalance> findByLocation(String location, Pageable pageable);
+
+  // 保管場所の在庫を加算する（戻り値: 更新件数。0 = まだ行がない）
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE StockLocationBalance b SET b.quantity = b.quantity + :quantity, b.lastUpdated = :now "
+      + "WHERE b.itemCode = :itemCode AND b.location = :location")
+  int increase(@Param("itemCode") String itemCode, @Param("location") String location,
+      @Param("quantity") BigDecimal quantity, @Param("now") LocalDateTime now);
+
+  // 保管場所の在庫が足りる場合のみ減算する（戻り値: 更新件数。0 = 在庫不足 または行がない）
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE StockLocationBalance b SET b.quantity = b.quantity - :quantity, b.lastUpdated = :now "
+      + "WHERE b.itemCode = :itemCode AND b.location = :location AND b.quantity >= :quantity")
+  int decreaseIfAvailable(@Param("itemCode") String itemCode, @Param("location") String location,
+      @Param("quantity") BigDecimal quantity, @Param("now") LocalDateTime now);
+}
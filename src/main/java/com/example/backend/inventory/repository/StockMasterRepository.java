@@ -1,12 +1,22 @@
 package com.example.backend.inventory.repository;
 
+import com.example.backend.entity.InventoryTransaction;
 import com.example.backend.entity.StockMaster;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.LockModeType;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,6 +25,17 @@ public interface StockMasterRepository extends JpaRepository<StockMaster, Long>
     // 商品コードで検索
     Optional<StockMaster> findByItemCode(String itemCode);
 
+    // 商品コードの一括検索（一括出庫で在庫を1回のクエリで取得する）
+    List<StockMaster> findByItemCodeIn(Collection<String> itemCodes);
+
+    // ID の一括取得（n-gram 索引で絞り込んだ検索結果の1ページ分を取得する）
+    List<StockMaster> findByIdIn(Collection<Long> ids);
+
+    // n-gram 索引の作成用（ID 順に loadBatchSize 件ずつ読み込む）
+    @Query("SELECT s.id, s.itemCode, s.itemName, s.modelNumber, s.category, s.manufacturer FROM StockMaster s "
+            + "WHERE s.id > :afterId ORDER BY s.id")
+    List<Object[]> findSearchFieldsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
     // itemCodeがリクエストに含まれていた時のクエリ
     Page<StockMaster> findByItemCodeContaining(String itemCode, Pageable pageable);
 
@@ -27,6 +48,94 @@ public interface StockMasterRepository extends JpaRepository<StockMaster, Long>
     Page<StockMaster> findByItemCodeContainingAndItemNameContainingAndCategoryContainingAndModelNumberContaining(
             String itemCode, String itemName, String category, String modelNumber, Pageable pageable);
 
+    // メーカーを指定した場合（n-gram 索引の準備中のみ使用）
+    Page<StockMaster> findByItemNameContainingAndCategoryContainingAndModelNumberContainingAndManufacturerContaining(
+            String itemName, String category, String modelNumber, String manufacturer, Pageable pageable);
+
+    // 商品コードで検索（行ロック付き。入出庫をまとめて反映する際と、単品出庫で保管場所別の増減の反映と直列化する際に使用）
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StockMaster s WHERE s.itemCode = :itemCode")
+    Optional<StockMaster> findByItemCodeForUpdate(@Param("itemCode") String itemCode);
+
     // 型番と品名の完全一致で検索（発注登録用）
     Optional<StockMaster> findByModelNumberAndItemName(String modelNumber, String itemName);
+
+    // 在庫が足りる場合のみ減算する（判定と更新を1文で行うため、同時出庫でも在庫がマイナスにならない）
+    // 戻り値: 更新件数（0 = 在庫不足 または itemCode が存在しない）
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    // JPQLの一括更新では @Version が自動で進まないため、version も明示的に加算する
+    @Query("UPDATE StockMaster s SET s.currentStock = s.currentStock - :quantity, s.lastUpdated = :now, "
+            + "s.version = s.version + 1 "
+            + "WHERE s.itemCode = :itemCode AND s.currentStock >= :quantity")
+    int decreaseStockIfAvailable(@Param("itemCode") String itemCode, @Param("quantity") BigDecimal quantity,
+            @Param("now") LocalDateTime now);
+
+    // 引当済みの数量を除いた在庫が足りる場合のみ減算する（仮引当中の在庫は出庫しない）
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockMaster s SET s.currentStock = s.currentStock - :quantity, s.lastUpdated = :now, "
+            + "s.version = s.version + 1 "
+            + "WHERE s.itemCode = :itemCode AND s.currentStock - :reserved >= :quantity")
+    int decreaseStockIfUnreserved(@Param("itemCode") String itemCode, @Param("quantity") BigDecimal quantity,
+            @Param("reserved") BigDecimal reserved, @Param("now") LocalDateTime now);
+
+    // 保管場所に割り当て済みで在庫数に反映済みの数量（保管場所別在庫の合計 - 在庫数へ未反映の増減）
+    // 保管場所を指定しない出庫は在庫数からこれを除いた「割り当てなしの在庫」からのみ行う
+    // 保管場所別の入出庫は両者を同じトランザクションで更新するため、1文で読んで時点を揃える
+    @Query("""
+            SELECT (SELECT COALESCE(SUM(b.quantity), 0) FROM StockLocationBalance b WHERE b.itemCode = s.itemCode)
+                 - (SELECT COALESCE(SUM(d.delta), 0) FROM StockTotalDelta d WHERE d.itemCode = s.itemCode)
+            FROM StockMaster s WHERE s.itemCode = :itemCode""")
+    Optional<BigDecimal> findLocatedStock(@Param("itemCode") String itemCode);
+
+    // 割り当てなしの在庫（在庫数 - 保管場所に割り当て済みの数量）。引当の判定用
+    // エンティティを経由しないため、同じ永続化コンテキスト内でも常にコミット済みの最新値を読む
+    @Query("""
+            SELECT s.currentStock
+                 - (SELECT COALESCE(SUM(b.quantity), 0) FROM StockLocationBalance b WHERE b.itemCode = s.itemCode)
+                 + (SELECT COALESCE(SUM(d.delta), 0) FROM StockTotalDelta d WHERE d.itemCode = s.itemCode)
+            FROM StockMaster s WHERE s.itemCode = :itemCode""")
+    Optional<BigDecimal> findUnassignedStock(@Param("itemCode") String itemCode);
+
+    // 保管場所に割り当て済みの数量の一括取得（[品目コード, 数量]。一括出庫用）
+    @Query("""
+            SELECT s.itemCode,
+                   (SELECT COALESCE(SUM(b.quantity), 0) FROM StockLocationBalance b WHERE b.itemCode = s.itemCode)
+                 - (SELECT COALESCE(SUM(d.delta), 0) FROM StockTotalDelta d WHERE d.itemCode = s.itemCode)
+            FROM StockMaster s WHERE s.itemCode IN :itemCodes""")
+    List<Object[]> findLocatedStockIn(@Param("itemCodes") Collection<String> itemCodes);
+
+    // 保管場所ごとの入出庫でたまった増減を在庫数にまとめて反映する
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockMaster s SET s.currentStock = s.currentStock + :delta, s.lastUpdated = :now, "
+            + "s.version = s.version + 1 "
+            + "WHERE s.itemCode = :itemCode")
+    int applyStockDelta(@Param("itemCode") String itemCode, @Param("delta") BigDecimal delta,
+            @Param("now") LocalDateTime now);
+
+    // ID の範囲（突合ジョブの分割用）: [最小ID, 最大ID]
+    @Query("SELECT MIN(s.id), MAX(s.id) FROM StockMaster s")
+    List<Object[]> findIdRange();
+
+    // ID 範囲内の在庫ごとに [品目コード, 現在庫, 履歴から求めた在庫, 在庫数へ未反映の保管場所別の増減] を返す
+    // 履歴は品目ごとに DB 側で集計するため、履歴行はアプリに読み込まない（1文で読むので在庫と履歴の時点も揃う）
+    @Query("""
+            SELECT s.itemCode, s.currentStock,
+                   (SELECT COALESCE(SUM(CASE WHEN t.transactionType IN :inbound THEN t.quantity
+                                             WHEN t.transactionType IN :outbound THEN -t.quantity
+                                             ELSE 0 END), 0)
+                    FROM InventoryTransaction t WHERE t.stockItem = s),
+                   (SELECT COALESCE(SUM(d.delta), 0) FROM StockTotalDelta d WHERE d.itemCode = s.itemCode)
+            FROM StockMaster s
+            WHERE s.id BETWEEN :fromId AND :toId AND s.itemCode IS NOT NULL""")
+    List<Object[]> findStockWithLedgerTotal(@Param("fromId") Long fromId, @Param("toId") Long toId,
+            @Param("inbound") Collection<InventoryTransaction.TransactionType> inbound,
+            @Param("outbound") Collection<InventoryTransaction.TransactionType> outbound);
+
+    // 在庫数を履歴の値に合わせる（突合後に在庫が変わっていた場合は更新しない）
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockMaster s SET s.currentStock = :ledgerStock, s.lastUpdated = :now, "
+            + "s.version = s.version + 1 "
+            + "WHERE s.itemCode = :itemCode AND s.currentStock = :currentStock")
+    int repairStock(@Param("itemCode") String itemCode, @Param("currentStock") BigDecimal currentStock,
+            @Param("ledgerStock") BigDecimal ledgerStock, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,23 @@
+package com.example.backend.inventory.repository;
+
+import com.example.backend.entity.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, String> {
+
+  // 有効期限内の引当（起動時の復元用）
+  List<StockReservation> findByExpiresAtAfter(LocalDateTime now);
+
+  // 期限切れの引当を削除
+  @Modifying
+  @Query("DELETE FROM StockReservation r WHERE r.expiresAt <= :now")
+  int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,20 @@
+package com.example.backend.inventory.repository;
+
+import com.example.backend.entity.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+  // 指定日以前で最も新しいスナップショット
+  Optional<StockSnapshot> findFirstByItemCodeAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(String itemCode,
+      LocalDate date);
+
+  // ある日の全品目のスナップショット（日次ジョブで前日分を起点にする）
+  List<StockSnapshot> findBySnapshotDate(LocalDate snapshotDate);
+}
@@ -0,0 +1,23 @@
+package com.example.backend.inventory.repository;
+
+import com.example.backend.entity.StockTotalDelta;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface StockTotalDeltaRepository extends JpaRepository<StockTotalDelta, Long> {
+
+  // 未反映の増減（古い順）
+  @Query("SELECT d FROM StockTotalDelta d ORDER BY d.id")
+  List<StockTotalDelta> findPending(Pageable pageable);
+
+  // 品目の未反映の増減の合計
+  @Query("SELECT COALESCE(SUM(d.delta), 0) FROM StockTotalDelta d WHERE d.itemCode = :itemCode")
+  BigDecimal sumPending(@Param("itemCode") String itemCode);
+}
@@ -0,0 +1,150 @@
+package com.example.backend.inventory.repository;
+
+import com.example.backend.entity.InventoryTransaction;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * 入出庫履歴の検索条件の組み立て
+ *
+ * 指定された条件（null・空文字でないもの）の述語だけを AND で結合する。
+ * 条件を増やす場合はここにメソッドを追加するだけでよく、リポジトリのメソッドは増やさない。
+ *
+ * <pre>
+ * Specification&lt;InventoryTransaction&gt; spec = new TransactionSpecificationBuilder()
+ *     .itemCodeContaining(itemCode)
+ *     .transactionTimeBetween(from, to)
+ *     .build();
+ * </pre>
+ */
+public class TransactionSpecificationBuilder {
+
+    private static final char ESCAPE = '\\';
+
+    private final List<BiFunction<Root<InventoryTransaction>, CriteriaBuilder, Predicate>> predicates =
+            new ArrayList<>();
+
+    /**
+     * 品目コードの部分一致
+     */
+    public TransactionSpecificationBuilder itemCodeContaining(String itemCode) {
+        if (!isBlank(itemCode)) {
+            predicates.add((root, cb) -> contains(cb, root.get("stockItem").get("itemCode"), itemCode));
+        }
+        return this;
+    }
+
+    /**
+     * 品目コードの一致（品目ごとの履歴）
+     */
+    public TransactionSpecificationBuilder itemCode(String itemCode) {
+        if (!isBlank(itemCode)) {
+            predicates.add((root, cb) -> cb.equal(root.get("stockItem").get("itemCode"), itemCode));
+        }
+        return this;
+    }
+
+    /**
+     * 操作者の部分一致
+     */
+    public TransactionSpecificationBuilder operatorContaining(String operator) {
+        if (!isBlank(operator)) {
+            predicates.add((root, cb) -> contains(cb, root.get("operator"), operator));
+        }
+        return this;
+    }
+
+    /**
+     * 処理日時の範囲（両端を含む。どちらかが null の場合は条件にしない）
+     */
+    public TransactionSpecificationBuilder transactionTimeBetween(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null) {
+            predicates.add((root, cb) -> cb.between(root.get("transactionTime"), from, to));
+        }
+        return this;
+    }
+
+    /**
+     * 処理種別の一致
+     */
+    public TransactionSpecificationBuilder transactionType(InventoryTransaction.TransactionType type) {
+        if (type != null) {
+            predicates.add((root, cb) -> cb.equal(root.get("transactionType"), type));
+        }
+        return this;
+    }
+
+    /**
+     * 発注番号の一致
+     */
+    public TransactionSpecificationBuilder orderNo(String orderNo) {
+        if (!isBlank(orderNo)) {
+            predicates.add((root, cb) -> cb.equal(root.get("purchaseOrder").get("orderNo"), orderNo));
+        }
+        return this;
+    }
+
+    /**
+     * 仕入先の部分一致
+     * 発注に紐づく履歴（発注品の入庫・発注登録）は仕入先を発注に持つため、履歴に未設定なら発注の仕入先で判定する
+     * （一覧の仕入先と同じく COALESCE(履歴の仕入先, 発注の仕入先)）。
+     */
+    public TransactionSpecificationBuilder supplierContaining(String supplier) {
+        if (!isBlank(supplier)) {
+            predicates.add((root, cb) -> contains(cb, cb.coalesce(root.<String>get("supplier"),
+                    purchaseOrder(root).<String>get("supplier")), supplier));
+        }
+        return this;
+    }
+
+    /**
+     * (処理日時, ID) が指定位置より前（新しい順で次のページ）のキーセット条件
+     * 先頭の transactionTime &lt;= :time で索引の範囲走査にし、同時刻の行だけを ID で比較する。
+     */
+    public TransactionSpecificationBuilder before(LocalDateTime transactionTime, Long id) {
+        if (transactionTime != null && id != null) {
+            predicates.add((root, cb) -> cb.and(
+                    cb.lessThanOrEqualTo(root.get("transactionTime"), transactionTime),
+                    cb.or(cb.lessThan(root.get("transactionTime"), transactionTime),
+                            cb.lessThan(root.get("id"), id))));
+        }
+        return this;
+    }
+
+    public Specification<InventoryTransaction> build() {
+        List<BiFunction<Root<InventoryTransaction>, CriteriaBuilder, Predicate>> selected = List.copyOf(predicates);
+        return (root, query, cb) -> cb.and(selected.stream()
+                .map(p -> p.apply(root, cb))
+                .toArray(Predicate[]::new));
+    }
+
+    // 発注への LEFT JOIN（呼び出し元のクエリで結合済みならそれを使い、発注のない履歴も残す）
+    private static Join<InventoryTransaction, ?> purchaseOrder(Root<InventoryTransaction> root) {
+        for (Join<InventoryTransaction, ?> join : root.getJoins()) {
+            if (join.getAttribute().getName().equals("purchaseOrder") && join.getJoinType() == JoinType.LEFT) {
+                return join;
+            }
+        }
+        return root.join("purchaseOrder", JoinType.LEFT);
+    }
+
+    // 派生クエリの Containing と同じく、キーワード中の % と _ は文字として扱う
+    private static Predicate contains(CriteriaBuilder cb, Expression<String> path, String keyword) {
+        String escaped = keyword.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return cb.like(path, "%" + escaped + "%", ESCAPE);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,672 @@
+package com.example.backend.inventory.service;
+
+import com.example.backend.entity.InventoryTransaction;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.inventory.repository.InventoryTransactionRepository;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * 入出庫履歴の追記型ジャーナル（inventory.journal.enabled=true で有効）。
+ *
+ * 履歴は inventory_transaction へ同期 INSERT する代わりに、呼び出し元のトランザクションのコミット直前に
+ * ローカルファイルへ追記して fsync する。書けなければ例外で在庫の更新ごとロールバックするため、
+ * 応答した入出庫の履歴は必ずジャーナルにある。コミットに失敗した場合は取り消しのレコード（tombstone）を追記し、
+ * DB 反映・再起動時の読み直しではそのトランザクションIDを読み飛ばす。
+ * fsync 後・DB のコミット前に異常終了した場合は結果が分からないため、再起動時は反映する側に倒す
+ * （在庫数と履歴の差は在庫突合で検出できる）。
+ * 追記は専用スレッドがまとめて書き込み、届いている分を1回の fsync で確定する（グループコミット）。
+ * DB への反映はバックグラウンドで drain-batch-size 件ずつ行い、反映済みの位置をチェックポイントファイルに記録する。
+ * 起動時はチェックポイント以降を読み直して未反映分を DB に反映する（反映済みのトランザクションIDは読み飛ばす）。
+ *
+ * 在庫数の更新は従来どおり同期で行うため、在庫と履歴の件数がずれるのは DB 反映待ちの間（drain-interval-ms 程度）だけ。
+ * このずれは品目ごとの未反映の増減として保持し、在庫突合は withDrainPaused の中でこれを加味して比較する。
+ */
+@Component
+public class InventoryJournal {
+
+    private static final int MAX_GROUP = 1024;
+    // 取り消しのレコードの種別（履歴の種別の代わりに書く）
+    private static final String TOMBSTONE = "TOMBSTONE";
+
+    private final InventoryTransactionRepository inventoryTransactionRepository;
+    private final StockMasterRepository stockMasterRepository;
+    private final TransactionTemplate drainTransaction;
+    private final boolean enabled;
+    private final Path path;
+    private final Path checkpointPath;
+    private final long drainIntervalMillis;
+    private final int drainBatchSize;
+
+    private final BlockingQueue<Pending> appendQueue = new LinkedBlockingQueue<>();
+    // ファイルには書き込み済みで DB 未反映の履歴（追記順）
+    private final ConcurrentLinkedDeque<Journaled> undrained = new ConcurrentLinkedDeque<>();
+    private final Object fileLock = new Object();
+    // 履歴が DB に未反映の品目ごとの件数・在庫増減（呼び出し元のコミット前から DB 反映のコミット後まで）
+    private final Map<String, Unledgered> unledgered = new ConcurrentHashMap<>();
+    // DB 反映（INSERT のコミットと未反映分からの除外）を在庫突合の間は止める
+    private final ReadWriteLock drainLock = new ReentrantReadWriteLock();
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder fsyncs = new LongAdder();
+    private final LongAdder drained = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+
+    private FileChannel channel;
+    private FileChannel checkpointChannel;
+    private Thread writer;
+    private ScheduledExecutorService drainer;
+    private volatile boolean running;
+
+    public InventoryJournal(InventoryTransactionRepository inventoryTransactionRepository,
+            StockMasterRepository stockMasterRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.journal.enabled:false}") boolean enabled,
+            @Value("${inventory.journal.path:data/inventory-journal.log}") String path,
+            @Value("${inventory.journal.drain-interval-ms:200}") long drainIntervalMillis,
+            @Value("${inventory.journal.drain-batch-size:500}") int drainBatchSize) {
+        this.inventoryTransactionRepository = inventoryTransactionRepository;
+        this.stockMasterRepository = stockMasterRepository;
+        this.drainTransaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.path = Path.of(path);
+        this.checkpointPath = Path.of(path + ".checkpoint");
+        this.drainIntervalMillis = drainIntervalMillis;
+        this.drainBatchSize = drainBatchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * ジャーナルを開き、前回の未反映分を読み直してから書き込み・DB反映スレッドを開始する
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        checkpointChannel = FileChannel.open(checkpointPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        replay();
+
+        running = true;
+        writer = new Thread(this::writeLoop, "inventory-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        drainer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "inventory-journal-drain");
+            t.setDaemon(true);
+            return t;
+        });
+        drainer.scheduleWithFixedDelay(this::drainQuietly, drainIntervalMillis, drainIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 受付を止め、書き込み済みの履歴をすべて DB に反映してから閉じる
+     */
+    @PreDestroy
+    public void stop() throws IOException {
+        if (!running) {
+            return;
+        }
+        halt();
+        while (drain() > 0) {
+            // 残りをすべて反映
+        }
+        channel.close();
+        checkpointChannel.close();
+    }
+
+    /**
+     * 書き込み・DB反映スレッドを止める（未反映分はファイルに残り、次回起動時に反映される）
+     */
+    void halt() {
+        running = false;
+        drainer.shutdown();
+        try {
+            writer.join();
+            drainer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 呼び出し元のトランザクションのコミット直前に履歴をジャーナルへ追記し、fsync まで待つ。
+     * 書き込みに失敗した場合（停止中を含む）は例外でトランザクションをロールバックさせる。
+     * トランザクション外で呼ばれた場合はその場で追記する。
+     */
+    public void appendBeforeCommit(InventoryTransaction transaction) {
+        Entry entry = Entry.from(transaction);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(entry);
+            return;
+        }
+        // 在庫数の更新がコミットされた時点で未反映分に含まれているよう、コミット前に加える
+        track(entry, 1);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean attempted;
+            private Journaled journaled;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                attempted = true;
+                journaled = enqueue(entry, State.PENDING);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK && journaled != null) {
+                    // コミット済み（結果不明の場合も在庫の更新が残っている可能性があるため反映する）
+                    journaled.state = State.COMMITTED;
+                    return;
+                }
+                track(entry, -1);
+                if (journaled != null) {
+                    journaled.state = State.ABORTED;
+                }
+                if (attempted) {
+                    // 書きかけ・書き込み済みのレコードが再起動時に反映されないよう取り消しを残す
+                    tombstone(entry);
+                }
+            }
+        });
+    }
+
+    void append(Entry entry) {
+        track(entry, 1);
+        try {
+            enqueue(entry, State.COMMITTED);
+        } catch (RuntimeException ex) {
+            // ジャーナルに書けなかった履歴は DB にも反映されない
+            track(entry, -1);
+            throw ex;
+        }
+    }
+
+    private void tombstone(Entry entry) {
+        try {
+            enqueue(Entry.tombstone(entry), State.ABORTED);
+        } catch (RuntimeException ex) {
+            // この稼働中はメモリ上で取り消し済みのため反映しない（異常終了した場合のみ再起動時に反映される）
+            System.out.println("入出庫ジャーナルへの取り消しの書き込みに失敗しました: " + entry.transactionId() + " "
+                    + ex.getMessage());
+        }
+    }
+
+    private Journaled enqueue(Entry entry, State state) {
+        if (!running) {
+            throw new IllegalStateException("入出庫ジャーナルが停止しています");
+        }
+        Pending pending = new Pending(new Journaled(entry, state), new CompletableFuture<>());
+        appendQueue.add(pending);
+        try {
+            pending.written.get();
+            return pending.journaled;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("入出庫ジャーナルへの書き込み待ちが中断されました", ex);
+        } catch (ExecutionException ex) {
+            throw new UncheckedIOException("入出庫ジャーナルへの書き込みに失敗しました",
+                    ex.getCause() instanceof IOException io ? io : new IOException(ex.getCause()));
+        }
+    }
+
+    /**
+     * 書き込みスレッド: 届いている追記をまとめて書き込み、1回の fsync で確定させる
+     */
+    private void writeLoop() {
+        List<Pending> group = new ArrayList<>();
+        while (running || !appendQueue.isEmpty()) {
+            try {
+                Pending first = appendQueue.poll(50, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                appendQueue.drainTo(group, MAX_GROUP - 1);
+                write(group);
+                group.forEach(p -> p.written.complete(null));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException ex) {
+                System.out.println("入出庫ジャーナルへの書き込みに失敗しました: " + ex.getMessage());
+                group.forEach(p -> p.written.completeExceptionally(ex));
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> group) throws IOException {
+        List<byte[]> frames = new ArrayList<>(group.size());
+        int size = 0;
+        int entries = 0;
+        for (Pending p : group) {
+            byte[] frame = encode(p.journaled.entry);
+            frames.add(frame);
+            size += frame.length;
+            if (!p.journaled.entry.isTombstone()) {
+                entries++;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        frames.forEach(buffer::put);
+        buffer.flip();
+
+        synchronized (fileLock) {
+            long offset = channel.position();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException ex) {
+                // 呼び出し元はロールバックするため、書きかけの分が再起動時に反映されないよう捨てる
+                try {
+                    channel.truncate(offset);
+                    channel.position(offset);
+                } catch (IOException truncateFailure) {
+                    ex.addSuppressed(truncateFailure);
+                }
+                throw ex;
+            }
+            for (int i = 0; i < group.size(); i++) {
+                offset += frames.get(i).length;
+                Journaled journaled = group.get(i).journaled;
+                journaled.endOffset = offset;
+                undrained.add(journaled);
+            }
+        }
+        fsyncs.increment();
+        appended.add(entries);
+    }
+
+    /**
+     * 未反映の履歴を最大 drain-batch-size 件 DB に反映する
+     * 呼び出し元のコミット待ちの履歴があればその手前までとし、取り消された履歴は反映せずに読み飛ばす。
+     *
+     * @return 処理した件数（読み飛ばした件数を含む）
+     */
+    int drain() {
+        List<Journaled> batch = new ArrayList<>(drainBatchSize);
+        Iterator<Journaled> it = undrained.iterator();
+        while (it.hasNext() && batch.size() < drainBatchSize) {
+            Journaled journaled = it.next();
+            if (journaled.state == State.PENDING) {
+                break; // チェックポイントを追い越さないよう、後続もコミットの結果が出るまで待つ
+            }
+            batch.add(journaled);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Journaled> committed = batch.stream().filter(j -> j.state == State.COMMITTED).toList();
+
+        drainLock.writeLock().lock();
+        try {
+            if (!committed.isEmpty()) {
+                drainTransaction.executeWithoutResult(status -> insert(committed));
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                undrained.pollFirst();
+            }
+            committed.forEach(j -> track(j.entry, -1));
+        } finally {
+            drainLock.writeLock().unlock();
+        }
+        drained.add(committed.size());
+
+        try {
+            synchronized (fileLock) {
+                long checkpoint = batch.get(batch.size() - 1).endOffset;
+                if (undrained.isEmpty() && checkpoint == channel.size()) {
+                    // すべて反映済みになったらファイルを空にして再利用する
+                    channel.truncate(0);
+                    channel.position(0);
+                    checkpoint = 0;
+                }
+                writeCheckpoint(checkpoint);
+            }
+        } catch (IOException ex) {
+            // チェックポイントが古くても、再起動時に反映済みの履歴は読み飛ばされる
+            System.out.println("入出庫ジャーナルのチェックポイント更新に失敗しました: " + ex.getMessage());
+        }
+        return batch.size();
+    }
+
+    private void drainQuietly() {
+        try {
+            while (drain() == drainBatchSize) {
+                // 溜まっている間は続けて反映
+            }
+        } catch (RuntimeException ex) {
+            // DB に反映できない間はファイルに残し、次回に再試行する
+            System.out.println("入出庫ジャーナルの DB 反映に失敗しました: " + ex.getMessage());
+        }
+    }
+
+    private void insert(List<Journaled> batch) {
+        Set<String> ids = batch.stream().map(j -> j.entry.transactionId()).collect(Collectors.toSet());
+        Set<String> existing = new HashSet<>(inventoryTransactionRepository.findExistingTransactionIds(ids));
+        Set<String> itemCodes = batch.stream().map(j -> j.entry.itemCode()).collect(Collectors.toSet());
+        Map<String, StockMaster> stocks = stockMasterRepository.findByItemCodeIn(itemCodes).stream()
+                .collect(Collectors.toMap(StockMaster::getItemCode, Function.identity()));
+
+        List<InventoryTransaction> transactions = new ArrayList<>(batch.size());
+        for (Journaled j : batch) {
+            if (!existing.contains(j.entry.transactionId())) {
+                transactions.add(j.entry.toTransaction(stocks.get(j.entry.itemCode())));
+            }
+        }
+        inventoryTransactionRepository.saveAll(transactions);
+    }
+
+    /**
+     * チェックポイント以降を読み直し、未反映分を反映待ちに戻す。途中で切れた末尾の書き込みは捨てる。
+     */
+    private void replay() throws IOException {
+        long checkpoint = readCheckpoint();
+        long size = channel.size();
+        if (checkpoint > size) {
+            checkpoint = 0;
+        }
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES * 2);
+        List<Journaled> frames = new ArrayList<>();
+        Set<String> tombstoned = new HashSet<>();
+        long offset = checkpoint;
+        while (offset + header.capacity() <= size) {
+            header.clear();
+            channel.read(header, offset);
+            header.flip();
+            int length = header.getInt();
+            int crc = header.getInt();
+            long end = offset + header.capacity() + length;
+            if (length <= 0 || end > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, offset + header.capacity());
+            if (crc32(payload.array()) != crc) {
+                break;
+            }
+            Entry entry = decode(payload.array());
+            if (entry.isTombstone()) {
+                tombstoned.add(entry.transactionId());
+            }
+            Journaled journaled = new Journaled(entry, State.COMMITTED);
+            journaled.endOffset = end;
+            frames.add(journaled);
+            offset = end;
+        }
+        // 取り消しのレコードとその対象は反映しない（チェックポイントを進めるため反映待ちには並べる）
+        for (Journaled journaled : frames) {
+            if (journaled.entry.isTombstone() || tombstoned.contains(journaled.entry.transactionId())) {
+                journaled.state = State.ABORTED;
+            } else {
+                track(journaled.entry, 1);
+                replayed.increment();
+            }
+            undrained.add(journaled);
+        }
+        if (offset < size) {
+            System.out.println("入出庫ジャーナル末尾の不完全な書き込みを破棄します: " + (size - offset) + " bytes");
+            channel.truncate(offset);
+        }
+        channel.position(offset);
+        if (replayed.sum() > 0) {
+            System.out.println("入出庫ジャーナルから未反映の履歴を読み直しました: " + replayed.sum() + "件");
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        if (checkpointChannel.read(buffer, 0) < Long.BYTES) {
+            return 0;
+        }
+        return buffer.flip().getLong();
+    }
+
+    private void writeCheckpoint(long offset) throws IOException {
+        checkpointChannel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, offset), 0);
+        checkpointChannel.force(false);
+    }
+
+    // ===== レコード形式: [長さ int][CRC32 int][本体] =====
+
+    private static byte[] encode(Entry entry) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeUTF(entry.transactionId());
+            out.writeUTF(entry.itemCode());
+            out.writeUTF(entry.isTombstone() ? TOMBSTONE : entry.type().name());
+            out.writeUTF(entry.quantity().toPlainString());
+            out.writeUTF(entry.operator());
+            out.writeUTF(entry.transactionTime().toString());
+            writeNullable(out, entry.manufacturer());
+            writeNullable(out, entry.supplier());
+            writeNullable(out, entry.purchasePrice() != null ? entry.purchasePrice().toPlainString() : null);
+            writeNullable(out, entry.remarks());
+            byte[] frame = bytes.toByteArray();
+            int length = frame.length - Integer.BYTES * 2;
+            ByteBuffer.wrap(frame).putInt(length).putInt(crc32(frame, Integer.BYTES * 2, length));
+            return frame;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static Entry decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        String transactionId = in.readUTF();
+        String itemCode = in.readUTF();
+        String typeName = in.readUTF();
+        InventoryTransaction.TransactionType type = TOMBSTONE.equals(typeName) ? null
+                : InventoryTransaction.TransactionType.valueOf(typeName);
+        BigDecimal quantity = new BigDecimal(in.readUTF());
+        String operator = in.readUTF();
+        LocalDateTime time = LocalDateTime.parse(in.readUTF());
+        String manufacturer = readNullable(in);
+        String supplier = readNullable(in);
+        String price = readNullable(in);
+        String remarks = readNullable(in);
+        return new Entry(transactionId, itemCode, type, quantity, operator, time, manufacturer, supplier,
+                price != null ? new BigDecimal(price) : null, remarks);
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static int crc32(byte[] bytes) {
+        return crc32(bytes, 0, bytes.length);
+    }
+
+    private static int crc32(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private void track(Entry entry, int count) {
+        BigDecimal delta = count > 0 ? entry.stockDelta() : entry.stockDelta().negate();
+        unledgered.compute(entry.itemCode(), (itemCode, current) -> {
+            Unledgered next = current == null ? new Unledgered(count, delta)
+                    : new Unledgered(current.count + count, current.delta.add(delta));
+            return next.count == 0 ? null : next;
+        });
+    }
+
+    /**
+     * 履歴が DB に未反映の品目ごとの在庫増減（増減が 0 でも未反映の履歴がある品目は含む）
+     * 在庫数と履歴を読んだ後に取得すること（読んだ在庫数に反映済みの出入庫は必ず含まれる）。
+     */
+    public Map<String, BigDecimal> unledgeredDeltas() {
+        Map<String, BigDecimal> deltas = new HashMap<>();
+        unledgered.forEach((itemCode, u) -> deltas.put(itemCode, u.delta));
+        return deltas;
+    }
+
+    /**
+     * DB 反映を止めた状態で処理を実行する（履歴の読み込みと unledgeredDeltas の間で反映分が二重・欠落にならないように）
+     */
+    public <T> T withDrainPaused(Supplier<T> action) {
+        drainLock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            drainLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 追記件数・fsync 回数・DB反映状況
+     */
+    public Snapshot snapshot() {
+        long a = appended.sum();
+        long f = fsyncs.sum();
+        return new Snapshot(enabled, a, f, f == 0 ? 0 : (double) a / f, drained.sum(), replayed.sum(),
+                undrained.size());
+    }
+
+    public record Snapshot(boolean enabled, long appended, long fsyncs, double entriesPerFsync, long drained,
+            long replayed, int pending) {
+    }
+
+    /**
+     * ジャーナルに記録する履歴1件（発注に紐づかない入出庫のみ）。種別が null のものは取り消しのレコード
+     */
+    record Entry(String transactionId, String itemCode, InventoryTransaction.TransactionType type,
+            BigDecimal quantity, String operator, LocalDateTime transactionTime, String manufacturer,
+            String supplier, BigDecimal purchasePrice, String remarks) {
+
+        static Entry from(InventoryTransaction tx) {
+            if (tx.getPurchaseOrder() != null) {
+                throw new IllegalArgumentException("発注に紐づく履歴はジャーナルに記録できません: " + tx.getTransactionId());
+            }
+            return new Entry(tx.getTransactionId(), tx.getStockItem().getItemCode(), tx.getTransactionType(),
+                    tx.getQuantity(), tx.getOperator(), tx.getTransactionTime(), tx.getManufacturer(),
+                    tx.getSupplier(), tx.getPurchasePrice(), tx.getRemarks());
+        }
+
+        static Entry tombstone(Entry entry) {
+            return new Entry(entry.transactionId, entry.itemCode, null, BigDecimal.ZERO, "", LocalDateTime.now(),
+                    null, null, null, null);
+        }
+
+        boolean isTombstone() {
+            return type == null;
+        }
+
+        // 在庫数の増減（入庫は +、出庫は -、在庫変動なしは 0）
+        BigDecimal stockDelta() {
+            if (InventoryTransaction.INBOUND_TYPES.contains(type)) {
+                return quantity;
+            }
+            return InventoryTransaction.OUTBOUND_TYPES.contains(type) ? quantity.negate() : BigDecimal.ZERO;
+        }
+
+        InventoryTransaction toTransaction(StockMaster stock) {
+            InventoryTransaction tx = new InventoryTransaction();
+            tx.setTransactionId(transactionId);
+            tx.setStockItem(stock);
+            tx.setTransactionType(type);
+            tx.setQuantity(quantity);
+            tx.setOperator(operator);
+            tx.setTransactionTime(transactionTime);
+            tx.setManufacturer(manufacturer);
+            tx.setSupplier(supplier);
+            tx.setPurchasePrice(purchasePrice);
+            tx.setRemarks(remarks);
+            return tx;
+        }
+    }
+
+    private record Pending(Journaled journaled, CompletableFuture<Void> written) {
+    }
+
+    /**
+     * ファイルに書き込んだ履歴（endOffset は書き込みスレッドが設定する）
+     */
+    private static final class Journaled {
+        private final Entry entry;
+        private long endOffset;
+        private volatile State state;
+
+        private Journaled(Entry entry, State state) {
+            this.entry = entry;
+            this.state = state;
+        }
+    }
+
+    private enum State {
+        PENDING, // 呼び出し元のコミット待ち（DB に反映しない）
+        COMMITTED,
+        ABORTED // 呼び出し元がロールバックした履歴・取り消しのレコード（DB に反映しない）
+    }
+
+    private record Unledgered(int count, BigDecimal delta) {
+    }
+}
@@ -1,25 +1,37 @@
 package com.example.backend.inventory.service;
 
+import com.example.backend.common.retry.OptimisticRetry;
+import com.example.backend.common.service.IdempotencyService;
 import com.example.backend.common.service.ItemCodeGenerator;
 import com.example.backend.common.service.OrderNumberGenerator;
 import com.example.backend.common.service.TransactionIdGenerator;
+import com.example.backend.entity.IdempotencyRecord;
 import com.example.backend.entity.InventoryTransaction;
 import com.example.backend.entity.StockMaster;
 import com.example.backend.entity.PurchaseOrder;
 import com.example.backend.entity.PurchaseOrderDetail;
 import com.example.backend.exception.ResourceNotFoundException;
+import com.example.backend.inventory.dto.CursorSliceResponse;
+import com.example.backend.inventory.dto.InventoryDispatchBatchRequest;
+import com.example.backend.inventory.dto.InventoryDispatchBatchResponse;
 import com.example.backend.inventory.dto.InventoryDispatchRequest;
 import com.example.backend.inventory.dto.InventoryReceiveRequest;
 import com.example.backend.inventory.dto.StockMasterRequest;
+import com.example.backend.inventory.dto.TransactionHistoryView;
+import com.example.backend.inventory.dto.TransactionSearchRequest;
 import com.example.backend.inventory.repository.InventoryTransactionRepository;
 import com.example.backend.inventory.repository.StockMasterRepository;
+import com.example.backend.inventory.repository.TransactionSpecificationBuilder;
 import com.example.backend.order.dto.InventoryReceiveFromOrderRequest;
 import com.example.backend.order.repository.PurchaseOrderDetailRepository;
 import com.example.backend.order.repository.PurchaseOrderRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,6 +39,17 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import jakarta.validation.ValidationException;
 
 @Service
@@ -39,9 +62,15 @@ public class InventoryService {
     private final ItemCodeGenerator itemCodeGenerator;
     private final OrderNumberGenerator orderNumberGenerator;
     private TransactionIdGenerator transactionIdGenerator;
+    private final StockUpdateCoalescer stockUpdateCoalescer;
+    private final IdempotencyService idempotencyService;
+    private final InventoryJournal inventoryJournal;
+    private final ReservationService reservationService;
+    private final StockSearchIndex stockSearchIndex;
 
     private static final int DEFAULT_DAYS_BACK = 30; // toDateのみ指定時のデフォルト期間
     private static final int MAX_SEARCH_DAYS = 365; // 最大検索可能期間（パフォーマンス対策）
+    private static final int MAX_SCROLL_SIZE = 1000; // カーソル方式の1ページの最大件数
 
     @Autowired
     public InventoryService(StockMasterRepository stockMasterRepository,
@@ -50,7 +79,12 @@ public class InventoryService {
             PurchaseOrderDetailRepository purchaseOrderDetailRepository,
             ItemCodeGenerator itemCodeGenerator,
             OrderNumberGenerator orderNumberGenerator,
-            TransactionIdGenerator transactionIdGenerator) {
+            TransactionIdGenerator transactionIdGenerator,
+            StockUpdateCoalescer stockUpdateCoalescer,
+            IdempotencyService idempotencyService,
+            InventoryJournal inventoryJournal,
+            ReservationService reservationService,
+            StockSearchIndex stockSearchIndex) {
         this.stockMasterRepository = stockMasterRepository;
         this.inventoryTransactionRepository = inventoryTransactionRepository;
         this.purchaseOrderRepository = purchaseOrderRepository;
@@ -58,6 +92,11 @@ public class InventoryService {
         this.itemCodeGenerator = itemCodeGenerator;
         this.orderNumberGenerator = orderNumberGenerator;
         this.transactionIdGenerator = transactionIdGenerator;
+        this.stockUpdateCoalescer = stockUpdateCoalescer;
+        this.idempotencyService = idempotencyService;
+        this.inventoryJournal = inventoryJournal;
+        this.reservationService = reservationService;
+        this.stockSearchIndex = stockSearchIndex;
     }
 
     /**
@@ -87,11 +126,13 @@ public class InventoryService {
     /**
      * 入庫処理 (モーダルからの手動入庫)
      *
-     * @param req 在庫登録リクエスト
+     * @param req            在庫登録リクエスト
+     * @param idempotencyKey Idempotency-Key（任意。指定時は結果を同じトランザクションで記録する）
      * @return 登録された在庫マスタエンティティ
      */
+    @OptimisticRetry
     @Transactional
-    public String receiveInventory(InventoryReceiveRequest req) {
+    public String receiveInventory(InventoryReceiveRequest req, String idempotencyKey) {
         System.out.println("Receiving inventory with request: " + req);
         // 1. ログインユーザー名を取得
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -141,6 +182,7 @@ public class InventoryService {
             detail.setStatus("完了"); // 入庫処理なのでステータスは「完了」
             detail.setRemarks(req.getRemarks()); // remarksもOrderDetailに設定するなら
             purchaseOrderDetailRepository.save(detail);
+            order.addLine(detail);
 
         }
 
@@ -159,17 +201,16 @@ public class InventoryService {
         order.setOrderSubtotal(order.getOrderSubtotal().add(lineTotal));
         purchaseOrderRepository.save(order);
 
-        // 8. 全明細が完了か判定してヘッダーに反映
-        boolean allDone = purchaseOrderDetailRepository.findByPurchaseOrder_OrderNo(req.getOrderNo())
-                .stream()
-                .allMatch(d -> "完了".equals(d.getStatus()));
-
-        if (allDone) {
+        // 8. 全明細が完了か判定してヘッダーに反映（未完了明細数で判定）
+        if (order.isAllLinesCompleted()) {
             order.setStatus("完了");
             purchaseOrderRepository.save(order);
             purchaseOrderRepository.flush();
         }
 
+        // 再送時に同じ結果を返せるようキーを記録
+        idempotencyService.record(idempotencyKey, IdempotencyRecord.Operation.RECEIVE, transaction.getTransactionId());
+
         // 発行されたトランザクションIDを返す
         System.out.println(transaction.getTransactionId());
         return transaction.getTransactionId();
@@ -177,39 +218,242 @@ public class InventoryService {
 
     /**
      * 在庫出庫処理 (モーダルからの手動入庫)
-     * 
+     *
+     * 保管場所に割り当て済みの数量を正しく差し引くため、在庫行を行ロックしてから読み、条件付き UPDATE で減算する。
+     * このため同じ品目の出庫どうし、および保管場所別の増減の反映（StockLocationService#foldTotals）とは
+     * 行ロックで直列化され、行ロックを取らない条件付き UPDATE だけで出庫していた以前の方式より同じ品目への同時出庫は遅くなる。
+     * 割り当て済みの数量を読んでから減算するまでの間に増減の反映が入らないことを優先したトレードオフ。
+     * 行ロック中は他の更新が入らないため、@OptimisticRetry が再実行するのは行ロックを取る前に読んだエンティティの
+     * バージョンが増減の反映で進んでいた場合に限られる。
+     *
      * @param req
+     * @param idempotencyKey Idempotency-Key（任意。指定時は結果を同じトランザクションで記録する）
      * @return
      */
+    @OptimisticRetry
     @Transactional
-    public String dispatchInventory(InventoryDispatchRequest req) {
+    public String dispatchInventory(InventoryDispatchRequest req, String idempotencyKey) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
 
+        // 1. 在庫行をロックしてから保管場所に割り当て済みの数量を読む
+        // （保管場所別の増減の在庫数への反映は同じ行を更新するため、読み込みと反映が入れ違わない）
+        stockMasterRepository.findByItemCodeForUpdate(req.getItemCode())
+                .orElseThrow(() -> new ResourceNotFoundException("在庫が見つかりません"));
+        BigDecimal located = stockMasterRepository.findLocatedStock(req.getItemCode()).orElse(BigDecimal.ZERO);
+
+        // 2. 他の仮引当分と保管場所に割り当て済みの分を除いた在庫が足りる場合のみ減算
+        // （保管場所の在庫は保管場所を指定した出庫でのみ減らす）
+        BigDecimal reserved = reservationService.getReservedQuantityExcluding(req.getItemCode(),
+                req.getReservationId());
+        int updated = stockMasterRepository.decreaseStockIfUnreserved(req.getItemCode(), req.getQuantity(),
+                reserved.add(located), LocalDateTime.now());
+        if (updated == 0) {
+            throw new RuntimeException("在庫が不足しています");
+        }
+
+        // 減算後の在庫を取得
         StockMaster stock = stockMasterRepository.findByItemCode(req.getItemCode())
                 .orElseThrow(() -> new ResourceNotFoundException("在庫が見つかりません"));
 
-        if (stock.getCurrentStock().compareTo(req.getQuantity()) < 0) {
+        // 減算前に読んだ後で増えた引当があれば、減算後の在庫で判定し直す
+        // （引当側は合計への加算後に在庫を読み直すため、同時の引当と出庫はどちらかが在庫不足になる）
+        BigDecimal reservedNow = reservationService.getReservedQuantityExcluding(req.getItemCode(),
+                req.getReservationId());
+        if (reservedNow.compareTo(reserved) > 0
+                && stock.getCurrentStock().subtract(located).compareTo(reservedNow) < 0) {
             throw new RuntimeException("在庫が不足しています");
         }
 
         // 3. トランザクション履歴登録
         InventoryTransaction transaction = InventoryTransaction.createTransactionforDispatch(stock, req, username,
                 transactionIdGenerator, inventoryTransactionRepository);
-        inventoryTransactionRepository.save(transaction);
+        if (inventoryJournal.isEnabled()) {
+            // 履歴はコミット直前にジャーナルへ追記し（書けなければ在庫の減算ごとロールバック）、
+            // DB へはバックグラウンドでまとめて反映する
+            inventoryJournal.appendBeforeCommit(transaction);
+        } else {
+            inventoryTransactionRepository.save(transaction);
+        }
 
-        // 4. 在庫数を更新
-        stock.setCurrentStock(stock.getCurrentStock().subtract(req.getQuantity()));
-        stockMasterRepository.save(stock);
+        // 引当分の出庫はコミット後に引当を解除
+        if (req.getReservationId() != null) {
+            reservationService.releaseAfterCommit(req.getReservationId());
+        }
+
+        // 再送時に同じ結果を返せるようキーを記録
+        idempotencyService.record(idempotencyKey, IdempotencyRecord.Operation.DISPATCH, transaction.getTransactionId());
 
         return transaction.getTransactionId();
     }
 
+    /**
+     * 在庫出庫処理（コアレッサ経由）
+     * 同じ品目への同時出庫を1回の在庫更新にまとめる。在庫更新はコアレッサ側のトランザクションで確定するため、
+     * 呼び出し元ではトランザクションを開始しない（接続を保持したまま待たないようにする）。
+     *
+     * @param req 出庫リクエスト
+     * @return 発行されたトランザクションID
+     */
+    public String dispatchInventoryCoalesced(InventoryDispatchRequest req) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+
+        StockUpdateCoalescer.Result result = stockUpdateCoalescer.dispatch(req, username);
+        switch (result.status()) {
+            case NOT_FOUND -> throw new ResourceNotFoundException("在庫が見つかりません");
+            case INSUFFICIENT_STOCK -> throw new RuntimeException("在庫が不足しています");
+            default -> {
+                return result.transactionId();
+            }
+        }
+    }
+
+    /**
+     * 出庫をコアレッサ経由で処理するか（inventory.coalescer.enabled）
+     */
+    public boolean isDispatchCoalescingEnabled() {
+        return stockUpdateCoalescer.isEnabled();
+    }
+
+    /**
+     * 一括出庫処理（ピッキングリストなど複数明細の出庫）
+     * 在庫は1回のクエリでまとめて取得し、明細の順に在庫と照合する。トランザクションIDはまとめて採番し、
+     * 在庫の更新と履歴の登録は JDBC バッチで反映する。
+     * 単品の出庫と同じく保管場所に割り当て済み・仮引当中の在庫は出庫せず、引当を指定した明細は自分の引当分を出庫して
+     * コミット後に引当を解除する。
+     *
+     * @param req 一括出庫リクエスト（ALL_OR_NOTHING: 1明細でも出庫できなければ全体を取り消す /
+     *            BEST_EFFORT: 出庫できる明細のみ反映する）
+     * @return 明細ごとの結果
+     */
+    @OptimisticRetry
+    @Transactional
+    public InventoryDispatchBatchResponse dispatchInventoryBatch(InventoryDispatchBatchRequest req) {
+        List<InventoryDispatchRequest> items = req.getItems();
+        if (items == null || items.isEmpty()) {
+            throw new ValidationException("出庫明細が指定されていません");
+        }
+        InventoryDispatchBatchRequest.Mode mode = req.getMode() != null ? req.getMode()
+                : InventoryDispatchBatchRequest.Mode.ALL_OR_NOTHING;
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+
+        // 1. 対象在庫を1回のクエリで取得
+        Set<String> itemCodes = items.stream()
+                .map(InventoryDispatchRequest::getItemCode)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, StockMaster> stocks = stockMasterRepository.findByItemCodeIn(itemCodes).stream()
+                .collect(Collectors.toMap(StockMaster::getItemCode, Function.identity()));
+        // 保管場所に割り当て済みの在庫・仮引当中の在庫は出庫できない
+        // （保管場所別の増減の在庫数への反映と入れ違った場合はバージョンの競合で再実行）
+        Map<String, BigDecimal> held = new HashMap<>();
+        stockMasterRepository.findLocatedStockIn(itemCodes).forEach(row -> held.put((String) row[0],
+                ((BigDecimal) row[1]).add(reservationService.getReservedQuantity((String) row[0]))));
+        Set<String> releasedReservations = new HashSet<>();
+
+        // 2. 明細の順に在庫と照合（同じ品目が複数行ある場合は残数を引き継ぐ）
+        Map<String, BigDecimal> remaining = new HashMap<>();
+        List<InventoryDispatchBatchResponse.Line.LineBuilder> lines = new ArrayList<>(items.size());
+        List<Integer> accepted = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            InventoryDispatchRequest item = items.get(i);
+            InventoryDispatchBatchResponse.Line.LineBuilder line = InventoryDispatchBatchResponse.Line.builder()
+                    .index(i)
+                    .itemCode(item.getItemCode())
+                    .quantity(item.getQuantity());
+            lines.add(line);
+
+            StockMaster stock = stocks.get(item.getItemCode());
+            if (item.getQuantity() == null || item.getQuantity().signum() <= 0) {
+                line.status(InventoryDispatchBatchResponse.Status.INVALID).message("出庫数が不正です");
+            } else if (stock == null) {
+                line.status(InventoryDispatchBatchResponse.Status.NOT_FOUND).message("在庫が見つかりません");
+            } else {
+                // 引当分の出庫は自分の引当の分も出庫できる
+                BigDecimal own;
+                try {
+                    own = ownReservedQuantity(item, releasedReservations);
+                } catch (ValidationException ex) {
+                    line.status(InventoryDispatchBatchResponse.Status.INVALID).message(ex.getMessage());
+                    continue;
+                }
+                BigDecimal left = remaining.getOrDefault(stock.getItemCode(), stock.getCurrentStock()
+                        .subtract(held.getOrDefault(stock.getItemCode(), BigDecimal.ZERO)))
+                        .add(own)
+                        .subtract(item.getQuantity());
+                if (left.signum() < 0) {
+                    line.status(InventoryDispatchBatchResponse.Status.INSUFFICIENT_STOCK).message("在庫が不足しています");
+                } else {
+                    remaining.put(stock.getItemCode(), left);
+                    held.merge(stock.getItemCode(), own.negate(), BigDecimal::add);
+                    if (item.getReservationId() != null) {
+                        releasedReservations.add(item.getReservationId());
+                    }
+                    accepted.add(i);
+                }
+            }
+        }
+
+        int rejectedCount = items.size() - accepted.size();
+        if (mode == InventoryDispatchBatchRequest.Mode.ALL_OR_NOTHING && rejectedCount > 0) {
+            String reasons = lines.stream()
+                    .map(InventoryDispatchBatchResponse.Line.LineBuilder::build)
+                    .filter(l -> l.getStatus() != null)
+                    .map(l -> (l.getIndex() + 1) + "行目 " + l.getItemCode() + ": " + l.getMessage())
+                    .collect(Collectors.joining(", "));
+            throw new ValidationException("出庫できない明細があるため、一括出庫を取り消しました（" + reasons + "）");
+        }
+
+        // 3. 在庫数を更新（flush 時にバージョン付きの UPDATE をまとめて送信）
+        remaining.forEach((itemCode, left) -> stocks.get(itemCode)
+                .setCurrentStock(left.add(held.getOrDefault(itemCode, BigDecimal.ZERO))));
+        // 引当分を出庫した明細の引当はコミット後に解除
+        releasedReservations.forEach(reservationService::releaseAfterCommit);
+
+        // 4. トランザクションIDをまとめて採番し、履歴を一括登録
+        Iterator<String> txNos = transactionIdGenerator.generateTxNos(accepted.size()).iterator();
+        List<InventoryTransaction> transactions = new ArrayList<>(accepted.size());
+        for (int i : accepted) {
+            InventoryDispatchRequest item = items.get(i);
+            String txNo = txNos.next();
+            transactions.add(InventoryTransaction.createTransactionforDispatch(
+                    stocks.get(item.getItemCode()), item, username, txNo));
+            lines.get(i).status(InventoryDispatchBatchResponse.Status.SUCCESS).transactionId(txNo);
+        }
+        inventoryTransactionRepository.saveAll(transactions);
+
+        return InventoryDispatchBatchResponse.builder()
+                .mode(mode)
+                .acceptedCount(accepted.size())
+                .rejectedCount(rejectedCount)
+                .lines(lines.stream().map(InventoryDispatchBatchResponse.Line.LineBuilder::build).toList())
+                .build();
+    }
+
+    /**
+     * 一括出庫の明細に指定された引当の数量（引当の指定がなければ 0）
+     *
+     * @throws ValidationException 引当が見つからない・品目が一致しない・同じ引当を複数の明細に指定した場合
+     */
+    private BigDecimal ownReservedQuantity(InventoryDispatchRequest item, Set<String> releasedReservations) {
+        if (item.getReservationId() == null) {
+            return BigDecimal.ZERO;
+        }
+        if (releasedReservations.contains(item.getReservationId())) {
+            throw new ValidationException("同じ引当が複数の明細に指定されています: " + item.getReservationId());
+        }
+        return reservationService.getReservedQuantity(item.getItemCode())
+                .subtract(reservationService.getReservedQuantityExcluding(item.getItemCode(),
+                        item.getReservationId()));
+    }
+
     /**
      * 発注商品の納品処理
+     * 対象の発注明細と在庫はそれぞれ1回のクエリでまとめて取得し、メモリ上で更新してコミット時に反映する。
      * 
      * @param req
      * @return
      */
+    @OptimisticRetry
     @Transactional
     public void receiveFromOrder(InventoryReceiveFromOrderRequest req) {
         String orderNo = req.getOrderNo();
@@ -217,23 +461,36 @@ public class InventoryService {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         req.setOperator(username);
 
-        PurchaseOrder order = purchaseOrderRepository.findByOrderNo(req.getOrderNo())
+        // 同じ発注への同時納品で未完了明細数・入庫済み数が上書きされないよう、発注の行をロックしてから明細を読む
+        PurchaseOrder order = purchaseOrderRepository.findByOrderNoForUpdate(req.getOrderNo())
                 .orElseThrow(() -> new ResourceNotFoundException("対象の発注番号が見つかりません"));
 
+        // 対象の発注明細と在庫をそれぞれ1回のクエリで取得
+        Set<String> itemCodes = req.getItems().stream()
+                .map(InventoryReceiveFromOrderRequest.Item::getItemCode)
+                .collect(Collectors.toSet());
+        Map<String, PurchaseOrderDetail> detailsByItemCode = purchaseOrderDetailRepository
+                .findByPurchaseOrder_OrderNoAndItemCodeIn(orderNo, itemCodes).stream()
+                .collect(Collectors.toMap(PurchaseOrderDetail::getItemCode, Function.identity(), (a, b) -> a));
+        Map<String, StockMaster> stocks = stockMasterRepository.findByItemCodeIn(itemCodes).stream()
+                .collect(Collectors.toMap(StockMaster::getItemCode, Function.identity()));
+
+        // トランザクションIDを明細数分まとめて採番（採番マスタの更新は1回）
+        Iterator<String> txNos = transactionIdGenerator.generateTxNos(req.getItems().size()).iterator();
+        List<InventoryTransaction> transactions = new ArrayList<>(req.getItems().size());
+
+        // 在庫・明細はメモリ上で更新し、コミット時にまとめて反映する
         for (InventoryReceiveFromOrderRequest.Item item : req.getItems()) {
             String itemCode = item.getItemCode();
 
-            // 🔽 ここで DB から単価を取得
-            BigDecimal purchasePrice = purchaseOrderDetailRepository
-                    .findByPurchaseOrder_OrderNoAndItemCode(orderNo, itemCode)
-                    .map(PurchaseOrderDetail::getPurchasePrice)
-                    .orElse(BigDecimal.ZERO); // fallback（または例外投げる）
-
-            // 発注明細を取得
-            PurchaseOrderDetail detail = purchaseOrderDetailRepository
-                    .findByPurchaseOrder_OrderNoAndItemCode(req.getOrderNo(), itemCode)
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "発注明細が見つかりません（orderNo: " + req.getOrderNo() + ", itemCode: " + itemCode + "）"));
+            // 発注明細を取得（単価も明細から取得する）
+            PurchaseOrderDetail detail = detailsByItemCode.get(itemCode);
+            if (detail == null) {
+                throw new ResourceNotFoundException(
+                        "発注明細が見つかりません（orderNo: " + orderNo + ", itemCode: " + itemCode + "）");
+            }
+            BigDecimal purchasePrice = detail.getPurchasePrice() != null ? detail.getPurchasePrice()
+                    : BigDecimal.ZERO;
 
             // ▼ ここで受け入れ済み数量チェックを追加
             BigDecimal receivedSoFar = detail.getReceivedQuantity() != null ? detail.getReceivedQuantity()
@@ -250,47 +507,26 @@ public class InventoryService {
             }
 
             // 在庫マスタを取得
-            StockMaster stock = stockMasterRepository.findByItemCode(itemCode)
-                    .orElseThrow(() -> new ResourceNotFoundException("在庫が見つかりません"));
-
-            // 入庫数チェック
-            BigDecimal totalReceived = detail.getReceivedQuantity().add(item.getReceivedQuantity());
-
-            if (totalReceived.compareTo(detail.getQuantity()) > 0) {
-                throw new IllegalArgumentException("受領数が発注数を超えています: " + itemCode);
+            StockMaster stock = stocks.get(itemCode);
+            if (stock == null) {
+                throw new ResourceNotFoundException("在庫が見つかりません");
             }
 
             // 在庫数更新
-            stock.setCurrentStock(stock.getCurrentStock().add(item.getReceivedQuantity()));
-            stockMasterRepository.save(stock);
-
-            // 明細更新
-            detail.setReceivedQuantity(totalReceived);
-            // .compareTo() は 0 を返すと「等しい」、正なら「大きい」、負なら「小さい」。
-            if (totalReceived.compareTo(detail.getQuantity()) >= 0) {
-                detail.setStatus("完了");
-            } else if (totalReceived.compareTo(BigDecimal.ZERO) > 0) {
-                detail.setStatus("一部入庫");
-            } else {
-                detail.setStatus("未入庫");
-            }
-            purchaseOrderDetailRepository.save(detail);
+            stock.setCurrentStock(stock.getCurrentStock().add(receivingNow));
+
+            // 明細更新（ステータスと発注ヘッダーの集計も合わせて更新）
+            order.receiveLine(detail, receivingNow);
 
             // トランザクション登録
-            InventoryTransaction tx = InventoryTransaction.createTransactionForPurchaseReceive(
-                    stock, item, order, req, purchasePrice, username, transactionIdGenerator,
-                    inventoryTransactionRepository);
-            inventoryTransactionRepository.save(tx);
+            transactions.add(InventoryTransaction.createTransactionForPurchaseReceive(
+                    stock, item, order, req, purchasePrice, username, txNos.next()));
         }
+        inventoryTransactionRepository.saveAll(transactions);
 
-        // 全明細が完了か判定してヘッダーに反映
-        boolean allDone = purchaseOrderDetailRepository.findByPurchaseOrder_OrderNo(req.getOrderNo())
-                .stream()
-                .allMatch(d -> "完了".equals(d.getStatus()));
-
-        if (allDone) {
+        // 全明細が完了か判定してヘッダーに反映（未完了明細数で判定し、明細は再取得しない）
+        if (order.isAllLinesCompleted()) {
             order.setStatus("完了");
-            purchaseOrderRepository.save(order);
         }
     }
 
@@ -301,11 +537,12 @@ public class InventoryService {
      * @param itemName
      * @param category
      * @param modelNumber
+     * @param manufacturer
      * @param pageable
      * @return
      */
     public Page<StockMaster> searchStock(String itemCode, String itemName, String category, String modelNumber,
-            Pageable pageable) {
+            String manufacturer, Pageable pageable) {
 
         // 空の場合は空文字に変換（部分一致検索に対応）
         String itemCodeKeyword = (itemCode != null) ? itemCode : "";
@@ -314,19 +551,63 @@ public class InventoryService {
         String modelNumberKeyword = (modelNumber != null) ? modelNumber : "";
 
         System.out.printf(
-                "🔍 検索条件: itemCodeKeyword='%s', itemNameKeyword='%s', categoryKeyword='%s', modelNumberKeyword='%s'%n",
-                itemCodeKeyword, itemNameKeyword, categoryKeyword, modelNumberKeyword);
+                "🔍 検索条件: itemCodeKeyword='%s', itemNameKeyword='%s', categoryKeyword='%s', modelNumberKeyword='%s', manufacturer='%s'%n",
+                itemCodeKeyword, itemNameKeyword, categoryKeyword, modelNumberKeyword, manufacturer);
 
+        Map<StockSearchIndex.Field, String> criteria = new HashMap<>();
         if (!isBlank(itemCode)) {
-            System.out.printf("!isBlank(itemCode)");
             // itemCode は一意なので他の条件を無視してよい
-            return stockMasterRepository.findByItemCodeContaining(itemCode, pageable);
+            criteria.put(StockSearchIndex.Field.ITEM_CODE, itemCode);
+        } else {
+            criteria.put(StockSearchIndex.Field.ITEM_CODE, itemCodeKeyword);
+            criteria.put(StockSearchIndex.Field.ITEM_NAME, itemNameKeyword);
+            criteria.put(StockSearchIndex.Field.CATEGORY, categoryKeyword);
+            criteria.put(StockSearchIndex.Field.MODEL_NUMBER, modelNumberKeyword);
+            if (!isBlank(manufacturer)) {
+                criteria.put(StockSearchIndex.Field.MANUFACTURER, manufacturer);
+            }
         }
-        // itemCode が空の場合、他の条件で検索
-        return stockMasterRepository
-                .findByItemCodeContainingAndItemNameContainingAndCategoryContainingAndModelNumberContaining(
-                        itemCodeKeyword, itemNameKeyword,
-                        categoryKeyword, modelNumberKeyword, pageable);
+
+        // キーワードがある場合は n-gram 索引で絞り込み、1ページ分だけを ID 指定で取得する（LIKE の全件走査をしない）
+        boolean hasKeyword = criteria.values().stream().anyMatch(k -> !k.isEmpty());
+        Page<StockMaster> result = hasKeyword ? searchByIndex(criteria, pageable).orElse(null) : null;
+        if (result == null) {
+            if (!isBlank(itemCode)) {
+                result = stockMasterRepository.findByItemCodeContaining(itemCode, pageable);
+            } else if (isBlank(manufacturer)) {
+                // 条件なし（全件表示）または索引の準備中
+                result = stockMasterRepository
+                        .findByItemCodeContainingAndItemNameContainingAndCategoryContainingAndModelNumberContaining(
+                                itemCodeKeyword, itemNameKeyword,
+                                categoryKeyword, modelNumberKeyword, pageable);
+            } else {
+                result = stockMasterRepository
+                        .findByItemNameContainingAndCategoryContainingAndModelNumberContainingAndManufacturerContaining(
+                                itemNameKeyword, categoryKeyword, modelNumberKeyword, manufacturer, pageable);
+            }
+        }
+        // 仮引当数はメモリ上の値を設定する（品目ごとのクエリは発行しない）
+        result.forEach(stock -> stock.setReservedStock(reservationService.getReservedQuantity(stock.getItemCode())));
+        return result;
+    }
+
+    private Optional<Page<StockMaster>> searchByIndex(Map<StockSearchIndex.Field, String> criteria,
+            Pageable pageable) {
+        return stockSearchIndex.findIds(criteria, pageable.getSort()).map(ids -> {
+            List<Long> pageIds = ids;
+            if (pageable.isPaged()) {
+                int from = (int) Math.min(pageable.getOffset(), ids.size());
+                pageIds = ids.subList(from, Math.min(from + pageable.getPageSize(), ids.size()));
+            }
+            if (pageIds.isEmpty()) {
+                return new PageImpl<>(List.of(), pageable, ids.size());
+            }
+            Map<Long, StockMaster> byId = stockMasterRepository.findByIdIn(pageIds).stream()
+                    .collect(Collectors.toMap(StockMaster::getId, Function.identity()));
+            // IN 句の結果は順不同のため索引の並び順に戻す（取得までに削除されたものは除く）
+            List<StockMaster> content = pageIds.stream().map(byId::get).filter(Objects::nonNull).toList();
+            return new PageImpl<>(content, pageable, ids.size());
+        });
     }
 
     /**
@@ -336,8 +617,10 @@ public class InventoryService {
      * @return
      */
     public StockMaster getStockByItemCode(String itemCode) {
-        return stockMasterRepository.findByItemCode(itemCode)
+        StockMaster stock = stockMasterRepository.findByItemCode(itemCode)
                 .orElseThrow(() -> new ResourceNotFoundException("Item not found: " + itemCode));
+        stock.setReservedStock(reservationService.getReservedQuantity(itemCode));
+        return stock;
     }
 
     /**
@@ -347,31 +630,87 @@ public class InventoryService {
      * @param pageable
      * @return
      */
-    public Page<InventoryTransaction> getTransactionHistory(String itemCode, Pageable pageable) {
-        return inventoryTransactionRepository.findByStockItem_ItemCodeOrderByTransactionTimeDesc(itemCode, pageable);
+    public Page<TransactionHistoryView> getTransactionHistory(String itemCode, Pageable pageable) {
+        return inventoryTransactionRepository.findHistoryViews(
+                new TransactionSpecificationBuilder().itemCode(itemCode).build(), newestFirst(pageable));
     }
 
     /**
      * 全取引履歴閲覧（検索機能付き）
      * 
-     * @param itemCode
-     * @param operator
-     * @param fromDate
-     * @param toDate
+     * @param req 検索条件
      * @param pageable
      * @return
      */
-    public Page<InventoryTransaction> getAllTransactionHistory(
-            String itemCode, String operator, LocalDate fromDate, LocalDate toDate, Pageable pageable) {
+    public Page<TransactionHistoryView> getAllTransactionHistory(TransactionSearchRequest req, Pageable pageable) {
+        return inventoryTransactionRepository.findHistoryViews(searchCriteria(req).build(), newestFirst(pageable));
+    }
+
+    /**
+     * 在庫ID指定で在庫の処理履歴取得（カーソル方式）
+     * 
+     * @param itemCode
+     * @param cursor 前のページの nextCursor（最初のページは null）
+     * @param size
+     * @return
+     */
+    public CursorSliceResponse<TransactionHistoryView> scrollTransactionHistory(String itemCode, String cursor,
+            int size) {
+        return scroll(new TransactionSpecificationBuilder().itemCode(itemCode), cursor, size);
+    }
+
+    /**
+     * 全取引履歴閲覧（検索機能付き・カーソル方式）
+     * 
+     * @param req 検索条件（getAllTransactionHistory と同じ）
+     * @param cursor 前のページの nextCursor（最初のページは null）
+     * @param size
+     * @return
+     */
+    public CursorSliceResponse<TransactionHistoryView> scrollAllTransactionHistory(TransactionSearchRequest req,
+            String cursor, int size) {
+        return scroll(searchCriteria(req), cursor, size);
+    }
+
+    // (処理日時, ID) の新しい順に、カーソルより後の size 件を取得する。
+    // オフセットを使わず索引の範囲走査で読み始めるため深いページでも同じコストになり、
+    // 1件多く読んで次のページの有無を判定するので COUNT は発行しない。
+    private CursorSliceResponse<TransactionHistoryView> scroll(TransactionSpecificationBuilder criteria, String cursor,
+            int size) {
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new ValidationException("取得件数は1〜" + MAX_SCROLL_SIZE + "件で指定してください");
+        }
+        TransactionCursor after = TransactionCursor.decode(cursor);
+        if (after != null) {
+            criteria.before(after.transactionTime(), after.id());
+        }
+        List<TransactionHistoryView> rows = inventoryTransactionRepository.findHistoryViews(criteria.build(),
+                Sort.by(Sort.Order.desc("transactionTime"), Sort.Order.desc("id")), size + 1);
+
+        boolean hasNext = rows.size() > size;
+        List<TransactionHistoryView> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            TransactionHistoryView last = content.get(content.size() - 1);
+            nextCursor = new TransactionCursor(last.transactionTime(), last.id()).encode();
+        }
+        return CursorSliceResponse.<TransactionHistoryView>builder()
+                .content(content)
+                .size(size)
+                .numberOfElements(content.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    // 検索条件から述語を組み立てる（期間の自動補完を含む）
+    private TransactionSpecificationBuilder searchCriteria(TransactionSearchRequest req) {
 
         // 検索条件をログ出力（デバッグ用）
-        System.out.printf(
-                "🔍 取引履歴検索条件: itemCode='%s', operator='%s', fromDate='%s', toDate='%s'%n",
-                itemCode, operator, fromDate, toDate);
+        System.out.println("🔍 取引履歴検索条件: " + req);
 
-        // パラメーターの正規化
-        String itemCodeKeyword = (itemCode != null && !itemCode.isBlank()) ? itemCode : null;
-        String operatorKeyword = (operator != null && !operator.isBlank()) ? operator : null;
+        LocalDate fromDate = req.getFromDate();
+        LocalDate toDate = req.getToDate();
 
         // 期間の自動補完処理
         LocalDateTime fromDateTime = null;
@@ -404,59 +743,36 @@ public class InventoryService {
             fromDateTime = toDate.minusDays(DEFAULT_DAYS_BACK).atStartOfDay();
             toDateTime = toDate.atTime(23, 59, 59);
             System.out.println("📅 fromDateが未指定のため、" + toDate.minusDays(DEFAULT_DAYS_BACK) + "からの範囲で検索します");
-        }
 
-        // 条件に応じた検索処理
-        return executeTransactionSearch(itemCodeKeyword, operatorKeyword, fromDateTime, toDateTime, pageable);
-    }
-
-    // 検索実行メソッド（可読性向上のため分離）
-    private Page<InventoryTransaction> executeTransactionSearch(
-            String itemCode, String operator, LocalDateTime fromDateTime, LocalDateTime toDateTime, Pageable pageable) {
-
-        // 期間検索の有無を判定
-        boolean hasDateRange = (fromDateTime != null && toDateTime != null);
-
-        if (itemCode != null && operator != null && hasDateRange) {
-            // 全条件指定
-            return inventoryTransactionRepository
-                    .findByStockItem_ItemCodeContainingAndOperatorContainingAndTransactionTimeBetweenOrderByTransactionTimeDesc(
-                            itemCode, operator, fromDateTime, toDateTime, pageable);
-        } else if (itemCode != null && hasDateRange) {
-            // アイテムコード + 期間
-            return inventoryTransactionRepository
-                    .findByStockItem_ItemCodeContainingAndTransactionTimeBetweenOrderByTransactionTimeDesc(
-                            itemCode, fromDateTime, toDateTime, pageable);
-        } else if (operator != null && hasDateRange) {
-            // 操作者 + 期間
-            return inventoryTransactionRepository
-                    .findByOperatorContainingAndTransactionTimeBetweenOrderByTransactionTimeDesc(
-                            operator, fromDateTime, toDateTime, pageable);
-        } else if (itemCode != null && operator != null) {
-            // アイテムコード + 操作者
-            return inventoryTransactionRepository
-                    .findByStockItem_ItemCodeContainingAndOperatorContainingOrderByTransactionTimeDesc(
-                            itemCode, operator, pageable);
-        } else if (itemCode != null) {
-            // アイテムコードのみ
-            return inventoryTransactionRepository.findByStockItem_ItemCodeContainingOrderByTransactionTimeDesc(
-                    itemCode, pageable);
-        } else if (operator != null) {
-            // 操作者のみ
-            return inventoryTransactionRepository.findByOperatorContainingOrderByTransactionTimeDesc(
-                    operator, pageable);
-        } else if (hasDateRange) {
-            // 期間のみ
-            return inventoryTransactionRepository.findByTransactionTimeBetweenOrderByTransactionTimeDesc(
-                    fromDateTime, toDateTime, pageable);
-        } else {
+        } else if (isBlank(req.getItemCode()) && isBlank(req.getOperator()) && req.getTransactionType() == null
+                && isBlank(req.getOrderNo()) && isBlank(req.getSupplier())) {
             // 条件なし（全件） - パフォーマンス対策として最近30日に限定
-            LocalDateTime defaultFrom = LocalDate.now().minusDays(DEFAULT_DAYS_BACK).atStartOfDay();
-            LocalDateTime defaultTo = LocalDate.now().atTime(23, 59, 59);
+            fromDateTime = LocalDate.now().minusDays(DEFAULT_DAYS_BACK).atStartOfDay();
+            toDateTime = LocalDate.now().atTime(23, 59, 59);
             System.out.println("📅 検索条件未指定のため、最近" + DEFAULT_DAYS_BACK + "日間の履歴を表示します");
-            return inventoryTransactionRepository.findByTransactionTimeBetweenOrderByTransactionTimeDesc(
-                    defaultFrom, defaultTo, pageable);
         }
+
+        // 指定された条件の述語だけを組み立てる
+        return new TransactionSpecificationBuilder()
+                .itemCodeContaining(req.getItemCode())
+                .operatorContaining(req.getOperator())
+                .transactionTimeBetween(fromDateTime, toDateTime)
+                .transactionType(req.getTransactionType())
+                .orderNo(req.getOrderNo())
+                .supplierContaining(req.getSupplier());
+    }
+
+    // 処理日時の新しい順を先頭にする（transaction_time の索引で並べ替える。同時刻は ID の新しい順）
+    private static Pageable newestFirst(Pageable pageable) {
+        List<Sort.Order> orders = new ArrayList<>();
+        orders.add(Sort.Order.desc("transactionTime"));
+        pageable.getSort().stream()
+                .filter(o -> !o.getProperty().equals("transactionTime") && !o.getProperty().equals("id"))
+                .forEach(orders::add);
+        orders.add(Sort.Order.desc("id"));
+        Sort sort = Sort.by(orders);
+        return pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort)
+                : Pageable.unpaged(sort);
     }
 
     /**
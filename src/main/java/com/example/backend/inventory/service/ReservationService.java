@@ -0,0 +1,317 @@
+package com.example.backend.inventory.service;
+
+import com.example.backend.entity.StockReservation;
+import com.example.backend.exception.ResourceNotFoundException;
+import com.example.backend.inventory.dto.StockReservationRequest;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import com.example.backend.inventory.repository.StockReservationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ValidationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ピッキング作業中の在庫の仮引当
+ *
+ * 引当は DB の行ロックを取らずにメモリ上で管理する（引当ID → 引当、品目コード → 引当数の合計）。
+ * 有効期限はタイミングホイールで管理し、期限切れの引当は自動で解除する。
+ * stock_reservation テーブルへは flush-interval-ms ごとにまとめて反映し（write-behind）、起動時にそこから復元する。
+ * 引当数の参照はメモリのみで完結するため、在庫検索・出庫で品目ごとのクエリは増えない。
+ *
+ * 引当はこのインスタンス内で管理するため、複数台構成では台ごとに別の引当となる。
+ *
+ * 引当と出庫は互いにロックを取らないため、どちらも「自分の変更を先に行い、相手の値を後から読み直す」順で判定する
+ * （引当は合計への加算後に在庫を読み直し、出庫は在庫の減算後に引当の合計を読み直す）。
+ * これで同時の引当と出庫の多くは片方が失敗するが、出庫側の読み直しからコミットまでの間に引当が在庫を読んだ場合は
+ * 未コミットの減算が見えず、両方が成功して引当が在庫を上回ることがある（出庫時に在庫不足として検出される）。
+ */
+@Service
+public class ReservationService {
+
+    private final StockReservationRepository stockReservationRepository;
+    private final StockMasterRepository stockMasterRepository;
+    private final TransactionTemplate flushTransaction;
+    private final Clock clock;
+    private final long tickMillis;
+    private final long flushIntervalMillis;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+
+    private final Map<String, StockReservation> reservations = new ConcurrentHashMap<>();
+    private final Map<String, BigDecimal> reservedByItem = new ConcurrentHashMap<>();
+    private final TimingWheel<String> expiryWheel;
+
+    // DB 未反映の変更（write-behind）
+    private final Map<String, StockReservation> pendingSaves = new ConcurrentHashMap<>();
+    private final Set<String> pendingDeletes = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public ReservationService(StockReservationRepository stockReservationRepository,
+            StockMasterRepository stockMasterRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${reservation.tick-ms:1000}") long tickMillis,
+            @Value("${reservation.wheel-size:512}") int wheelSize,
+            @Value("${reservation.flush-interval-ms:500}") long flushIntervalMillis,
+            @Value("${reservation.default-ttl-seconds:900}") long defaultTtlSeconds,
+            @Value("${reservation.max-ttl-seconds:86400}") long maxTtlSeconds) {
+        this(stockReservationRepository, stockMasterRepository, transactionManager, tickMillis, wheelSize,
+                flushIntervalMillis, Duration.ofSeconds(defaultTtlSeconds), Duration.ofSeconds(maxTtlSeconds),
+                Clock.systemDefaultZone());
+    }
+
+    public ReservationService(StockReservationRepository stockReservationRepository,
+            StockMasterRepository stockMasterRepository, PlatformTransactionManager transactionManager,
+            long tickMillis, int wheelSize, long flushIntervalMillis, Duration defaultTtl, Duration maxTtl,
+            Clock clock) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.stockMasterRepository = stockMasterRepository;
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.tickMillis = tickMillis;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+        this.expiryWheel = new TimingWheel<>(tickMillis, wheelSize, clock.millis());
+    }
+
+    /**
+     * 有効期限内の引当を DB から復元し、期限切れ判定と DB 反映を開始する
+     */
+    @PostConstruct
+    public void start() {
+        restore();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stock-reservation");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::expireDue, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 未反映の変更を DB に反映してから停止する
+     */
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        flushQuietly();
+    }
+
+    void restore() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        flushTransaction.executeWithoutResult(status -> {
+            stockReservationRepository.deleteExpired(now);
+            for (StockReservation r : stockReservationRepository.findByExpiresAtAfter(now)) {
+                reservations.put(r.getReservationId(), r);
+                reservedByItem.merge(r.getItemCode(), r.getQuantity(), BigDecimal::add);
+                expiryWheel.schedule(r.getReservationId(), toMillis(r.getExpiresAt()));
+            }
+        });
+        if (!reservations.isEmpty()) {
+            System.out.println("在庫の仮引当を復元しました: " + reservations.size() + "件");
+        }
+    }
+
+    /**
+     * 在庫を仮引当する（現在庫から保管場所に割り当て済み・引当済みの数量を除いた範囲でのみ引当可能）
+     *
+     * @param req 引当リクエスト
+     * @return 登録した引当
+     */
+    public StockReservation reserve(StockReservationRequest req) {
+        if (req.getQuantity() == null || req.getQuantity().signum() <= 0) {
+            throw new ValidationException("引当数は1以上を指定してください");
+        }
+        Duration ttl = req.getTtlSeconds() != null ? Duration.ofSeconds(req.getTtlSeconds()) : defaultTtl;
+        if (ttl.isNegative() || ttl.isZero() || ttl.compareTo(maxTtl) > 0) {
+            throw new ValidationException("有効期間は1秒以上" + maxTtl.getSeconds() + "秒以下を指定してください");
+        }
+        // 引当分は保管場所を指定しない出庫で払い出すため、保管場所に割り当て済みの在庫は引き当てない
+        BigDecimal available = stockMasterRepository.findUnassignedStock(req.getItemCode())
+                .orElseThrow(() -> new ResourceNotFoundException("在庫が見つかりません"));
+
+        String operator = SecurityContextHolder.getContext().getAuthentication().getName();
+        LocalDateTime now = LocalDateTime.now(clock);
+        StockReservation reservation = new StockReservation(UUID.randomUUID().toString(), req.getItemCode(),
+                req.getQuantity(), operator, now.plus(ttl), now);
+
+        // 品目ごとの合計を原子的に判定・加算する（不足時は例外で合計は変わらない）
+        reservedByItem.compute(req.getItemCode(), (itemCode, reserved) -> {
+            BigDecimal next = (reserved != null ? reserved : BigDecimal.ZERO).add(req.getQuantity());
+            if (next.compareTo(available) > 0) {
+                throw new RuntimeException("在庫が不足しています");
+            }
+            return next;
+        });
+        reservations.put(reservation.getReservationId(), reservation);
+        pendingSaves.put(reservation.getReservationId(), reservation);
+
+        // 在庫を読んでから加算するまでの間にコミットされた出庫を見落とさないよう、加算後に読み直して判定する
+        BigDecimal availableNow = stockMasterRepository.findUnassignedStock(req.getItemCode()).orElse(BigDecimal.ZERO);
+        if (getReservedQuantity(req.getItemCode()).compareTo(availableNow) > 0) {
+            remove(reservation.getReservationId());
+            throw new RuntimeException("在庫が不足しています");
+        }
+        expiryWheel.schedule(reservation.getReservationId(), toMillis(reservation.getExpiresAt()));
+        return reservation;
+    }
+
+    /**
+     * 引当を解除する
+     */
+    public void release(String reservationId) {
+        if (!remove(reservationId)) {
+            throw new ResourceNotFoundException("引当が見つかりません: " + reservationId);
+        }
+    }
+
+    /**
+     * 呼び出し元のトランザクションのコミット後に引当を解除する（引当分を出庫した場合）
+     */
+    public void releaseAfterCommit(String reservationId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remove(reservationId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remove(reservationId);
+            }
+        });
+    }
+
+    /**
+     * 品目の引当数の合計
+     */
+    public BigDecimal getReservedQuantity(String itemCode) {
+        return reservedByItem.getOrDefault(itemCode, BigDecimal.ZERO);
+    }
+
+    /**
+     * 品目の引当数の合計（指定した引当の分を除く。引当分を出庫する場合の在庫判定用）
+     */
+    public BigDecimal getReservedQuantityExcluding(String itemCode, String reservationId) {
+        BigDecimal reserved = getReservedQuantity(itemCode);
+        if (reservationId == null) {
+            return reserved;
+        }
+        StockReservation own = reservations.get(reservationId);
+        if (own == null || !own.getItemCode().equals(itemCode)) {
+            throw new ValidationException("引当が見つからないか、品目が一致しません: " + reservationId);
+        }
+        return reserved.subtract(own.getQuantity()).max(BigDecimal.ZERO);
+    }
+
+    /**
+     * 期限切れの引当を解除する
+     */
+    void expireDue() {
+        try {
+            LocalDateTime now = LocalDateTime.now(clock);
+            expiryWheel.advance(clock.millis(), reservationId -> {
+                StockReservation r = reservations.get(reservationId);
+                // 解除済み・期限内のものは対象外
+                if (r != null && !r.getExpiresAt().isAfter(now)) {
+                    remove(reservationId);
+                }
+            });
+        } catch (RuntimeException ex) {
+            System.out.println("仮引当の期限切れ処理に失敗しました: " + ex.getMessage());
+        }
+    }
+
+    private boolean remove(String reservationId) {
+        StockReservation r = reservations.remove(reservationId);
+        if (r == null) {
+            return false;
+        }
+        reservedByItem.computeIfPresent(r.getItemCode(), (itemCode, reserved) -> {
+            BigDecimal next = reserved.subtract(r.getQuantity());
+            return next.signum() > 0 ? next : null;
+        });
+        // DB 未反映のまま解除された引当は INSERT も DELETE も不要
+        if (pendingSaves.remove(reservationId) == null) {
+            pendingDeletes.add(reservationId);
+        }
+        return true;
+    }
+
+    /**
+     * 未反映の登録・解除を1トランザクションでまとめて DB に反映する
+     */
+    void flush() {
+        List<StockReservation> saves = new ArrayList<>();
+        for (String id : new ArrayList<>(pendingSaves.keySet())) {
+            StockReservation r = pendingSaves.remove(id);
+            if (r != null) {
+                saves.add(r);
+            }
+        }
+        Set<String> deletes = new HashSet<>();
+        for (String id : new ArrayList<>(pendingDeletes)) {
+            if (pendingDeletes.remove(id)) {
+                deletes.add(id);
+            }
+        }
+        if (saves.isEmpty() && deletes.isEmpty()) {
+            return;
+        }
+        try {
+            flushTransaction.executeWithoutResult(status -> {
+                stockReservationRepository.saveAll(saves);
+                if (!deletes.isEmpty()) {
+                    stockReservationRepository.deleteAllByIdInBatch(deletes);
+                }
+            });
+        } catch (RuntimeException ex) {
+            // 次回に再試行する（解除済みの引当は登録し直さない）
+            saves.stream().filter(r -> reservations.containsKey(r.getReservationId()))
+                    .forEach(r -> pendingSaves.putIfAbsent(r.getReservationId(), r));
+            pendingDeletes.addAll(deletes);
+            throw ex;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            System.out.println("仮引当の DB 反映に失敗しました: " + ex.getMessage());
+        }
+    }
+
+    private long toMillis(LocalDateTime time) {
+        ZoneId zone = clock.getZone();
+        return time.atZone(zone).toInstant().toEpochMilli();
+    }
+}
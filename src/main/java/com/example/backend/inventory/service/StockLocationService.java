@@ -0,0 +1,230 @@
+package com.example.backend.inventory.service;
+
+import com.example.backend.common.service.TransactionIdGenerator;
+import com.example.backend.entity.InventoryTransaction;
+import com.example.backend.entity.StockLocationBalance;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.entity.StockTotalDelta;
+import com.example.backend.exception.ResourceNotFoundException;
+import com.example.backend.inventory.dto.InventoryDispatchRequest;
+import com.example.backend.inventory.dto.InventoryReceiveRequest;
+import com.example.backend.inventory.dto.StockLocationBalanceResponse;
+import com.example.backend.inventory.dto.StockLocationMovementRequest;
+import com.example.backend.inventory.repository.InventoryTransactionRepository;
+import com.example.backend.inventory.repository.StockLocationBalanceRepository;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import com.example.backend.inventory.repository.StockTotalDeltaRepository;
+import jakarta.validation.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 保管場所ごとの入出庫
+ *
+ * 在庫数は stock_location_balance の (品目, 保管場所) 行だけを更新し、在庫マスタの行には触れない。
+ * 在庫マスタの在庫数（全保管場所の合計）へは増減を stock_total_delta に INSERT しておき、
+ * fold-interval-ms ごとに品目単位でまとめて1回の UPDATE で反映する。
+ * これにより同じ品目の別々の保管場所への同時入出庫が1行を奪い合わない。
+ *
+ * 保管場所を指定しない従来の入出庫は在庫マスタを直接更新するため、保管場所別在庫の合計との差は
+ * 「保管場所の割り当てがない在庫」として扱う。保管場所を指定しない出庫はこの割り当てなしの在庫からのみ行い、
+ * 保管場所の在庫はその保管場所を指定した出庫でのみ減らす（同じ在庫を両方から出庫して在庫数がマイナスにならない）。
+ */
+@Service
+public class StockLocationService {
+
+    private final StockLocationBalanceRepository stockLocationBalanceRepository;
+    private final StockTotalDeltaRepository stockTotalDeltaRepository;
+    private final StockMasterRepository stockMasterRepository;
+    private final InventoryTransactionRepository inventoryTransactionRepository;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final TransactionTemplate rowTransaction;
+    private final TransactionTemplate foldTransaction;
+    private final int foldBatchSize;
+
+    public StockLocationService(StockLocationBalanceRepository stockLocationBalanceRepository,
+            StockTotalDeltaRepository stockTotalDeltaRepository,
+            StockMasterRepository stockMasterRepository,
+            InventoryTransactionRepository inventoryTransactionRepository,
+            TransactionIdGenerator transactionIdGenerator,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.location.fold-batch-size:5000}") int foldBatchSize) {
+        this.stockLocationBalanceRepository = stockLocationBalanceRepository;
+        this.stockTotalDeltaRepository = stockTotalDeltaRepository;
+        this.stockMasterRepository = stockMasterRepository;
+        this.inventoryTransactionRepository = inventoryTransactionRepository;
+        this.transactionIdGenerator = transactionIdGenerator;
+        // 保管場所の行の新規作成は入出庫とは別に確定させる（同時作成の一意制約違反で入出庫を巻き戻さない）
+        this.rowTransaction = new TransactionTemplate(transactionManager);
+        this.rowTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.foldTransaction = new TransactionTemplate(transactionManager);
+        this.foldBatchSize = foldBatchSize;
+    }
+
+    /**
+     * 保管場所への入庫
+     *
+     * @return 発行したトランザクションID
+     */
+    @Transactional
+    public String receive(String itemCode, String location, StockLocationMovementRequest req) {
+        validate(location, req);
+        StockMaster stock = findStock(itemCode);
+        LocalDateTime now = LocalDateTime.now();
+
+        if (stockLocationBalanceRepository.increase(itemCode, location, req.getQuantity(), now) == 0) {
+            createRow(itemCode, location);
+            stockLocationBalanceRepository.increase(itemCode, location, req.getQuantity(), now);
+        }
+        stockTotalDeltaRepository.save(new StockTotalDelta(itemCode, req.getQuantity()));
+
+        InventoryReceiveRequest receive = new InventoryReceiveRequest();
+        receive.setItemCode(itemCode);
+        receive.setQuantity(req.getQuantity());
+        receive.setRemarks(remarks(location, req));
+        InventoryTransaction tx = InventoryTransaction.createTransactionForManualReceive(stock, null, receive,
+                operator(), transactionIdGenerator.generateTxNo());
+        inventoryTransactionRepository.save(tx);
+        return tx.getTransactionId();
+    }
+
+    /**
+     * 保管場所からの出庫（その保管場所の在庫が足りる場合のみ）
+     *
+     * @return 発行したトランザクションID
+     */
+    @Transactional
+    public String dispatch(String itemCode, String location, StockLocationMovementRequest req) {
+        validate(location, req);
+        StockMaster stock = findStock(itemCode);
+
+        if (stockLocationBalanceRepository.decreaseIfAvailable(itemCode, location, req.getQuantity(),
+                LocalDateTime.now()) == 0) {
+            throw new RuntimeException("在庫が不足しています");
+        }
+        stockTotalDeltaRepository.save(new StockTotalDelta(itemCode, req.getQuantity().negate()));
+
+        InventoryDispatchRequest dispatch = new InventoryDispatchRequest();
+        dispatch.setItemCode(itemCode);
+        dispatch.setQuantity(req.getQuantity());
+        dispatch.setRemarks(remarks(location, req));
+        InventoryTransaction tx = InventoryTransaction.createTransactionforDispatch(stock, dispatch, operator(),
+                transactionIdGenerator.generateTxNo());
+        inventoryTransactionRepository.save(tx);
+        return tx.getTransactionId();
+    }
+
+    /**
+     * 品目の保管場所別在庫
+     */
+    @Transactional(readOnly = true)
+    public StockLocationBalanceResponse getBalances(String itemCode) {
+        StockMaster stock = findStock(itemCode);
+        List<StockLocationBalance> balances = stockLocationBalanceRepository.findByItemCodeOrderByLocation(itemCode);
+        BigDecimal located = balances.stream().map(StockLocationBalance::getQuantity)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal pending = stockTotalDeltaRepository.sumPending(itemCode);
+        return StockLocationBalanceResponse.builder()
+                .itemCode(itemCode)
+                .currentStock(stock.getCurrentStock())
+                .locatedStock(located)
+                .pendingDelta(pending)
+                .unassignedStock(stock.getCurrentStock().add(pending).subtract(located))
+                .balances(balances)
+                .build();
+    }
+
+    /**
+     * 保管場所にある在庫（ページング対応）
+     */
+    @Transactional(readOnly = true)
+    public Page<StockLocationBalance> getByLocation(String location, Pageable pageable) {
+        return stockLocationBalanceRepository.findByLocation(location, pageable);
+    }
+
+    /**
+     * 未反映の増減を品目ごとに合計し、在庫マスタへ反映する（既定: 1秒ごと）
+     */
+    @Scheduled(fixedDelayString = "${inventory.location.fold-interval-ms:1000}")
+    public void foldTotals() {
+        while (foldOnce() == foldBatchSize) {
+            // 溜まっている間は続けて反映
+        }
+    }
+
+    /**
+     * 未反映の増減を最大 fold-batch-size 件反映する
+     *
+     * @return 反映した増減の件数
+     */
+    int foldOnce() {
+        Integer folded = foldTransaction.execute(status -> {
+            // コミット済みで読めた行だけを ID 指定で消す（未コミットの行を反映せずに消さない）
+            List<StockTotalDelta> deltas = stockTotalDeltaRepository.findPending(PageRequest.of(0, foldBatchSize));
+            if (deltas.isEmpty()) {
+                return 0;
+            }
+            Map<String, BigDecimal> byItem = new LinkedHashMap<>();
+            deltas.forEach(d -> byItem.merge(d.getItemCode(), d.getDelta(), BigDecimal::add));
+            LocalDateTime now = LocalDateTime.now();
+            byItem.forEach((itemCode, delta) -> {
+                if (delta.signum() != 0) {
+                    stockMasterRepository.applyStockDelta(itemCode, delta, now);
+                }
+            });
+            stockTotalDeltaRepository.deleteAllInBatch(deltas);
+            return deltas.size();
+        });
+        return folded != null ? folded : 0;
+    }
+
+    private void createRow(String itemCode, String location) {
+        try {
+            rowTransaction.executeWithoutResult(status -> stockLocationBalanceRepository
+                    .saveAndFlush(new StockLocationBalance(itemCode, location, BigDecimal.ZERO)));
+        } catch (DataIntegrityViolationException ex) {
+            // 同時に別のリクエストが作成済み
+        }
+    }
+
+    private StockMaster findStock(String itemCode) {
+        return stockMasterRepository.findByItemCode(itemCode)
+                .orElseThrow(() -> new ResourceNotFoundException("在庫が見つかりません"));
+    }
+
+    private static void validate(String location, StockLocationMovementRequest req) {
+        if (location == null || location.isBlank() || location.length() > 64) {
+            throw new ValidationException("保管場所は1〜64文字で指定してください");
+        }
+        if (req.getQuantity() == null || req.getQuantity().signum() <= 0) {
+            throw new ValidationException("数量は1以上を指定してください");
+        }
+    }
+
+    private static String remarks(String location, StockLocationMovementRequest req) {
+        // 履歴に保管場所の列はないため備考の先頭に残す
+        String prefix = "[" + location + "]";
+        String remarks = req.getRemarks() != null ? prefix + " " + req.getRemarks() : prefix;
+        return remarks.length() > 255 ? remarks.substring(0, 255) : remarks;
+    }
+
+    private static String operator() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+}
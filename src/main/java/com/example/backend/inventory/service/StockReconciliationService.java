@@ -0,0 +1,184 @@
+package com.example.backend.inventory.service;
+
+import com.example.backend.entity.InventoryTransaction;
+import com.example.backend.inventory.dto.StockReconciliationReport;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 在庫マスタの在庫数と入出庫履歴の突合
+ *
+ * 在庫IDの範囲を chunk-size 件ずつになるまで二分し、ForkJoinPool で並列に突合する。
+ * 各範囲は在庫ごとの履歴合計を DB 側で集計した1文で取得するため、履歴が何百万行あってもヒープには載せない。
+ * 修正モードでは、突合後に在庫数が変わっていない在庫のみ履歴の値に合わせる。
+ * 入出庫ジャーナルが有効な場合、DB 未反映の履歴の増減を履歴側に加えて比較し、未反映の履歴がある在庫は修正しない。
+ */
+@Service
+public class StockReconciliationService {
+
+    private final StockMasterRepository stockMasterRepository;
+    private final InventoryJournal inventoryJournal;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final int parallelism;
+    private final long chunkSize;
+
+    public StockReconciliationService(StockMasterRepository stockMasterRepository,
+            InventoryJournal inventoryJournal,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.reconcile.parallelism:4}") int parallelism,
+            @Value("${inventory.reconcile.chunk-size:1000}") long chunkSize) {
+        this.stockMasterRepository = stockMasterRepository;
+        this.inventoryJournal = inventoryJournal;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 定期突合（inventory.reconcile.cron を設定した場合のみ。結果の出力のみで修正はしない）
+     */
+    @Scheduled(cron = "${inventory.reconcile.cron:-}")
+    public void reconcileScheduled() {
+        StockReconciliationReport report = reconcile(false);
+        System.out.println("在庫突合: " + report.getCheckedItems() + "件中 " + report.getMismatchCount()
+                + "件不一致 (" + report.getElapsedMillis() + "ms)");
+    }
+
+    /**
+     * 全在庫を突合する
+     *
+     * @param repair true の場合、不一致の在庫数を履歴の値に合わせる
+     * @return 突合結果
+     */
+    public StockReconciliationReport reconcile(boolean repair) {
+        long started = System.currentTimeMillis();
+        Object[] range = readTransaction.execute(status -> stockMasterRepository.findIdRange().get(0));
+
+        Result result = new Result();
+        if (range[0] != null) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                result = pool.invoke(new RangeTask((Long) range[0], (Long) range[1], repair));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        result.mismatches.sort(Comparator.comparing(StockReconciliationReport.Mismatch::getItemCode));
+        int repaired = (int) result.mismatches.stream().filter(StockReconciliationReport.Mismatch::isRepaired)
+                .count();
+        return StockReconciliationReport.builder()
+                .repair(repair)
+                .checkedItems(result.checked)
+                .mismatchCount(result.mismatches.size())
+                .repairedCount(repaired)
+                .skippedCount(repair ? result.mismatches.size() - repaired : 0)
+                .elapsedMillis(System.currentTimeMillis() - started)
+                .mismatches(result.mismatches)
+                .build();
+    }
+
+    /**
+     * 在庫ID [fromId, toId] の範囲を突合する（大きい範囲は二分して並列に処理）
+     */
+    private final class RangeTask extends RecursiveTask<Result> {
+        private final long fromId;
+        private final long toId;
+        private final boolean repair;
+
+        private RangeTask(long fromId, long toId, boolean repair) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.repair = repair;
+        }
+
+        @Override
+        protected Result compute() {
+            if (toId - fromId < chunkSize) {
+                return reconcileRange(fromId, toId, repair);
+            }
+            long mid = fromId + (toId - fromId) / 2;
+            RangeTask left = new RangeTask(fromId, mid, repair);
+            RangeTask right = new RangeTask(mid + 1, toId, repair);
+            left.fork();
+            Result merged = right.compute();
+            merged.merge(left.join());
+            return merged;
+        }
+    }
+
+    private Result reconcileRange(long fromId, long toId, boolean repair) {
+        // 履歴の読み込みから未反映分の取得までの間にジャーナルの DB 反映が入ると、同じ履歴を二重に数えてしまう
+        return inventoryJournal.withDrainPaused(() -> {
+            List<Object[]> rows = readTransaction.execute(status -> stockMasterRepository.findStockWithLedgerTotal(
+                    fromId, toId, InventoryTransaction.INBOUND_TYPES, InventoryTransaction.OUTBOUND_TYPES));
+            // 在庫数を読んだ後に取得する（読んだ在庫数に含まれる入出庫の履歴は DB かこちらのどちらかにある）
+            Map<String, BigDecimal> unledgered = inventoryJournal.unledgeredDeltas();
+            return compare(rows, unledgered, repair);
+        });
+    }
+
+    private Result compare(List<Object[]> rows, Map<String, BigDecimal> unledgered, boolean repair) {
+        Result result = new Result();
+        result.checked = rows.size();
+        List<BigDecimal[]> repairs = new ArrayList<>(); // [在庫マスタの在庫数, 修正後の在庫数]
+        // 未反映の履歴がある在庫は、コミット前の入出庫の分が在庫数に含まれていない場合があるため修正しない
+        List<Boolean> repairable = new ArrayList<>();
+        for (Object[] row : rows) {
+            String itemCode = (String) row[0];
+            BigDecimal stored = (BigDecimal) row[1];
+            // ジャーナルの DB 未反映分を加えた履歴上の在庫
+            BigDecimal ledger = ((BigDecimal) row[2]).add(unledgered.getOrDefault(itemCode, BigDecimal.ZERO));
+            BigDecimal pending = (BigDecimal) row[3]; // 保管場所別の入出庫で未反映の増減
+            BigDecimal current = stored.add(pending);
+            if (current.compareTo(ledger) != 0) {
+                result.mismatches.add(StockReconciliationReport.Mismatch.builder()
+                        .itemCode(itemCode)
+                        .currentStock(current)
+                        .ledgerStock(ledger)
+                        .difference(current.subtract(ledger))
+                        .build());
+                repairs.add(new BigDecimal[] { stored, ledger.subtract(pending) });
+                repairable.add(!unledgered.containsKey(itemCode));
+            }
+        }
+
+        if (repair && !result.mismatches.isEmpty()) {
+            writeTransaction.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                for (int i = 0; i < result.mismatches.size(); i++) {
+                    StockReconciliationReport.Mismatch m = result.mismatches.get(i);
+                    m.setRepaired(repairable.get(i) && stockMasterRepository.repairStock(m.getItemCode(),
+                            repairs.get(i)[0], repairs.get(i)[1], now) == 1);
+                }
+            });
+        }
+        return result;
+    }
+
+    private static final class Result {
+        private long checked;
+        private final List<StockReconciliationReport.Mismatch> mismatches = new ArrayList<>();
+
+        private void merge(Result other) {
+            checked += other.checked;
+            mismatches.addAll(other.mismatches);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.backend.inventory.service;
+
+import com.example.backend.entity.StockMaster;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 在庫マスタの部分一致検索用のメモリ上の n-gram 転置インデックス
+ *
+ * 品目コード・品名・型番・カテゴリ・メーカーの値を2文字（bigram）と3文字（trigram）に分割し、
+ * n-gram → 在庫ID の対応を項目ごとに保持する。日本語の品名は2文字の語が多いため bigram も持つ。
+ * 検索は最も件数の少ない n-gram の在庫IDだけを候補にし、保持している値で部分一致を確認するため、
+ * LIKE '%x%' と同じ結果を全件走査なしで返す（1文字のキーワードはメモリ上の値を走査する）。
+ *
+ * 起動時に全件を読み込み、以降は {@link StockSearchIndexListener} がコミット後の変更を反映する。
+ * JPQL の一括更新は対象外（更新しているのは在庫数のみで、索引の項目は変わらない）。
+ */
+@Component
+public class StockSearchIndex {
+
+    private static final int MIN_GRAM = 2;
+    private static final int MAX_GRAM = 3;
+
+    private final StockMasterRepository stockMasterRepository;
+    private final int loadBatchSize;
+
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final Map<Field, Map<String, Set<Long>>> postings = new EnumMap<>(Field.class);
+    private volatile boolean ready;
+
+    public StockSearchIndex(StockMasterRepository stockMasterRepository,
+            @Value("${inventory.search.load-batch-size:5000}") int loadBatchSize) {
+        this.stockMasterRepository = stockMasterRepository;
+        this.loadBatchSize = loadBatchSize;
+        for (Field field : Field.values()) {
+            postings.put(field, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * 在庫マスタを全件読み込む（読み込みが終わるまでは検索に使わない）
+     */
+    @PostConstruct
+    public void rebuild() {
+        long afterId = Long.MIN_VALUE;
+        int loaded = 0;
+        while (true) {
+            List<Object[]> rows = stockMasterRepository.findSearchFieldsAfter(afterId,
+                    PageRequest.of(0, loadBatchSize));
+            for (Object[] row : rows) {
+                Document doc = new Document((Long) row[0], new String[] { (String) row[1], (String) row[2],
+                        (String) row[3], (String) row[4], (String) row[5] });
+                // 読み込み中にコミットされた変更の方が新しいため上書きしない
+                if (!documents.containsKey(doc.id())) {
+                    put(doc);
+                }
+                afterId = doc.id();
+            }
+            loaded += rows.size();
+            if (rows.size() < loadBatchSize) {
+                break;
+            }
+        }
+        ready = true;
+        System.out.println("在庫検索インデックスを作成しました: " + loaded + "件");
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 条件にすべて部分一致する在庫IDを並び順どおりに返す
+     *
+     * @param criteria 項目ごとのキーワード（null の項目は条件にしない）
+     * @param sort     並び順（索引の項目と id のみ対応）
+     * @return 在庫ID。索引の準備中・未対応の並び順の場合は empty（呼び出し側で DB 検索する）
+     */
+    public Optional<List<Long>> findIds(Map<Field, String> criteria, Sort sort) {
+        Comparator<Document> order = comparator(sort);
+        if (!ready || order == null) {
+            return Optional.empty();
+        }
+        // 空文字のキーワードは LIKE '%%' と同じく値が NULL でないことだけを条件にする
+        Map<Field, String> keywords = new EnumMap<>(Field.class);
+        criteria.forEach((field, keyword) -> {
+            if (keyword != null) {
+                keywords.put(field, keyword);
+            }
+        });
+
+        Collection<Long> candidates = candidates(keywords);
+        List<Document> matches = new ArrayList<>();
+        for (Long id : candidates) {
+            Document doc = documents.get(id);
+            if (doc != null && doc.matches(keywords)) {
+                matches.add(doc);
+            }
+        }
+        matches.sort(order);
+        return Optional.of(matches.stream().map(Document::id).toList());
+    }
+
+    /**
+     * 在庫を登録・更新する（コミット後に呼ぶ）
+     */
+    synchronized void put(Document doc) {
+        Document previous = documents.put(doc.id(), doc);
+        for (Field field : Field.values()) {
+            Set<String> before = previous != null ? grams(previous.value(field)) : Set.of();
+            Set<String> after = grams(doc.value(field));
+            Map<String, Set<Long>> index = postings.get(field);
+            for (String gram : before) {
+                if (!after.contains(gram)) {
+                    removePosting(index, gram, doc.id());
+                }
+            }
+            for (String gram : after) {
+                if (!before.contains(gram)) {
+                    index.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(doc.id());
+                }
+            }
+        }
+    }
+
+    /**
+     * 在庫を削除する（コミット後に呼ぶ）
+     */
+    synchronized void remove(long id) {
+        Document previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (Field field : Field.values()) {
+            for (String gram : grams(previous.value(field))) {
+                removePosting(postings.get(field), gram, id);
+            }
+        }
+    }
+
+    private Collection<Long> candidates(Map<Field, String> keywords) {
+        // 最も件数の少ない n-gram の在庫IDを候補にする（ほかの条件は値で確認する）
+        Set<Long> smallest = null;
+        for (Map.Entry<Field, String> e : keywords.entrySet()) {
+            String keyword = e.getValue();
+            if (keyword.length() < MIN_GRAM) {
+                continue;
+            }
+            int n = Math.min(keyword.length(), MAX_GRAM);
+            for (int i = 0; i + n <= keyword.length(); i++) {
+                Set<Long> ids = postings.get(e.getKey()).get(keyword.substring(i, i + n));
+                if (ids == null) {
+                    return Collections.emptyList();
+                }
+                if (smallest == null || ids.size() < smallest.size()) {
+                    smallest = ids;
+                }
+            }
+        }
+        // 1文字のキーワードのみ・条件なしの場合は全件を値で確認する
+        return smallest != null ? new ArrayList<>(smallest) : documents.keySet();
+    }
+
+    private static void removePosting(Map<String, Set<Long>> index, String gram, long id) {
+        index.computeIfPresent(gram, (g, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static Set<String> grams(String value) {
+        if (value == null || value.length() < MIN_GRAM) {
+            return Set.of();
+        }
+        Set<String> grams = new HashSet<>();
+        for (int n = MIN_GRAM; n <= MAX_GRAM; n++) {
+            for (int i = 0; i + n <= value.length(); i++) {
+                grams.add(value.substring(i, i + n));
+            }
+        }
+        return grams;
+    }
+
+    private static Comparator<Document> comparator(Sort sort) {
+        Comparator<Document> result = null;
+        for (Sort.Order order : sort) {
+            Comparator<Document> c;
+            if (order.getProperty().equals("id")) {
+                c = Comparator.comparingLong(Document::id);
+            } else {
+                Field field = Field.byProperty(order.getProperty());
+                if (field == null || order.isIgnoreCase()) {
+                    return null;
+                }
+                // H2 と同じく昇順では NULL を先頭にする
+                c = Comparator.comparing(doc -> doc.value(field), Comparator.nullsFirst(Comparator.naturalOrder()));
+            }
+            c = order.isAscending() ? c : c.reversed();
+            result = result == null ? c : result.thenComparing(c);
+        }
+        Comparator<Document> byId = Comparator.comparingLong(Document::id);
+        return result == null ? byId : result.thenComparing(byId);
+    }
+
+    /**
+     * 索引の対象項目
+     */
+    public enum Field {
+        ITEM_CODE("itemCode"),
+        ITEM_NAME("itemName"),
+        MODEL_NUMBER("modelNumber"),
+        CATEGORY("category"),
+        MANUFACTURER("manufacturer");
+
+        private final String property;
+
+        Field(String property) {
+            this.property = property;
+        }
+
+        static Field byProperty(String property) {
+            return Arrays.stream(values()).filter(f -> f.property.equals(property)).findFirst().orElse(null);
+        }
+    }
+
+    /**
+     * 索引に保持する在庫1件分の値（Field の順）
+     */
+    record Document(long id, String[] values) {
+
+        static Document of(StockMaster stock) {
+            return new Document(stock.getId(), new String[] { stock.getItemCode(), stock.getItemName(),
+                    stock.getModelNumber(), stock.getCategory(), stock.getManufacturer() });
+        }
+
+        String value(Field field) {
+            return values[field.ordinal()];
+        }
+
+        boolean matches(Map<Field, String> keywords) {
+            for (Map.Entry<Field, String> e : keywords.entrySet()) {
+                String value = value(e.getKey());
+                if (value == null || !value.contains(e.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.backend.inventory.service;
+
+import com.example.backend.entity.StockMaster;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 在庫マスタの登録・更新・削除を {@link StockSearchIndex} に反映する JPA エンティティリスナー
+ * ロールバックした変更を索引に残さないよう、反映はコミット後に行う。
+ */
+public class StockSearchIndexListener {
+
+    // Hibernate が生成するため、索引がない構成（JPA のみのテストなど）でも生成できるよう遅延取得する
+    @Autowired
+    private ObjectProvider<StockSearchIndex> stockSearchIndex;
+
+    @PostPersist
+    @PostUpdate
+    void afterSave(StockMaster stock) {
+        StockSearchIndex index = index();
+        if (index != null) {
+            StockSearchIndex.Document doc = StockSearchIndex.Document.of(stock); // DB に書いた時点の値
+            afterCommit(() -> index.put(doc));
+        }
+    }
+
+    @PostRemove
+    void afterRemove(StockMaster stock) {
+        StockSearchIndex index = index();
+        if (index != null) {
+            long id = stock.getId();
+            afterCommit(() -> index.remove(id));
+        }
+    }
+
+    private StockSearchIndex index() {
+        return stockSearchIndex != null ? stockSearchIndex.getIfAvailable() : null;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.backend.inventory.service;
+
+import com.example.backend.exception.ResourceNotFoundException;
+import com.example.backend.entity.InventoryTransaction;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.entity.StockSnapshot;
+import com.example.backend.inventory.dto.StockAtResponse;
+import com.example.backend.inventory.repository.InventoryTransactionRepository;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import com.example.backend.inventory.repository.StockSnapshotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 日次の在庫スナップショットと過去日時点の在庫数
+ *
+ * 毎日前日終了時点の在庫数を品目ごとに stock_snapshot へ記録する。
+ * 過去日時点の在庫数は、その日以前で直近のスナップショットに以降の入出庫だけを足して求めるため、
+ * 履歴が増えても集計対象はスナップショットからの日数分で済む。
+ */
+@Service
+public class StockSnapshotService {
+
+    private final StockSnapshotRepository stockSnapshotRepository;
+    private final StockMasterRepository stockMasterRepository;
+    private final InventoryTransactionRepository inventoryTransactionRepository;
+    private final Clock clock;
+
+    @Autowired
+    public StockSnapshotService(StockSnapshotRepository stockSnapshotRepository,
+            StockMasterRepository stockMasterRepository,
+            InventoryTransactionRepository inventoryTransactionRepository) {
+        this(stockSnapshotRepository, stockMasterRepository, inventoryTransactionRepository,
+                Clock.systemDefaultZone());
+    }
+
+    public StockSnapshotService(StockSnapshotRepository stockSnapshotRepository,
+            StockMasterRepository stockMasterRepository,
+            InventoryTransactionRepository inventoryTransactionRepository, Clock clock) {
+        this.stockSnapshotRepository = stockSnapshotRepository;
+        this.stockMasterRepository = stockMasterRepository;
+        this.inventoryTransactionRepository = inventoryTransactionRepository;
+        this.clock = clock;
+    }
+
+    /**
+     * 前日分のスナップショットを記録する（既定: 毎日 0:05）
+     */
+    @Scheduled(cron = "${inventory.snapshot.cron:0 5 0 * * *}")
+    @Transactional
+    public void takeDailySnapshots() {
+        int created = takeSnapshots(LocalDate.now(clock).minusDays(1));
+        System.out.println("在庫スナップショットを記録しました: " + created + "件");
+    }
+
+    /**
+     * 指定日終了時点の在庫数を全品目分記録する（記録済みの品目は飛ばす）
+     *
+     * 前日のスナップショットがある品目はその日の入出庫だけを足し、ない品目は現在の在庫数から翌日以降の入出庫を差し引く。
+     *
+     * @param date 対象日
+     * @return 記録した件数
+     */
+    @Transactional
+    public int takeSnapshots(LocalDate date) {
+        LocalDateTime from = date.atStartOfDay();
+        LocalDateTime to = date.plusDays(1).atStartOfDay();
+
+        Set<String> done = stockSnapshotRepository.findBySnapshotDate(date).stream()
+                .map(StockSnapshot::getItemCode)
+                .collect(Collectors.toSet());
+        Map<String, BigDecimal> previous = stockSnapshotRepository.findBySnapshotDate(date.minusDays(1)).stream()
+                .collect(Collectors.toMap(StockSnapshot::getItemCode, StockSnapshot::getQuantity));
+        Map<String, BigDecimal> dayDeltas = sumByItem(from, to);
+        Map<String, BigDecimal> laterDeltas = null; // 前日分がない品目があるときだけ集計
+
+        List<StockSnapshot> snapshots = new ArrayList<>();
+        for (StockMaster stock : stockMasterRepository.findAll()) {
+            String itemCode = stock.getItemCode();
+            if (itemCode == null || done.contains(itemCode)) {
+                continue;
+            }
+            BigDecimal quantity;
+            if (previous.containsKey(itemCode)) {
+                quantity = previous.get(itemCode).add(dayDeltas.getOrDefault(itemCode, BigDecimal.ZERO));
+            } else {
+                if (laterDeltas == null) {
+                    laterDeltas = sumByItem(to, LocalDateTime.now(clock).plusDays(1));
+                }
+                quantity = stock.getCurrentStock().subtract(laterDeltas.getOrDefault(itemCode, BigDecimal.ZERO));
+            }
+            snapshots.add(new StockSnapshot(itemCode, date, quantity));
+        }
+        stockSnapshotRepository.saveAll(snapshots);
+        return snapshots.size();
+    }
+
+    /**
+     * 指定日終了時点の在庫数
+     *
+     * @param itemCode 在庫ID
+     * @param date     対象日
+     * @return 在庫数と起点にしたスナップショットの日付
+     */
+    @Transactional(readOnly = true)
+    public StockAtResponse getStockAt(String itemCode, LocalDate date) {
+        StockMaster stock = stockMasterRepository.findByItemCode(itemCode)
+                .orElseThrow(() -> new ResourceNotFoundException("在庫が見つかりません"));
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
+
+        Optional<StockSnapshot> snapshot = stockSnapshotRepository
+                .findFirstByItemCodeAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(itemCode, date);
+        BigDecimal quantity;
+        if (snapshot.isPresent()) {
+            // スナップショット + 翌日から対象日までの入出庫
+            LocalDateTime start = snapshot.get().getSnapshotDate().plusDays(1).atStartOfDay();
+            quantity = snapshot.get().getQuantity().add(sumDelta(itemCode, start, end));
+        } else {
+            // スナップショットがない: 現在の在庫数から対象日より後の入出庫を差し引く
+            LocalDateTime now = LocalDateTime.now(clock);
+            quantity = end.isAfter(now)
+                    ? stock.getCurrentStock()
+                    : stock.getCurrentStock().subtract(sumDelta(itemCode, end, now.plusDays(1)));
+        }
+
+        return StockAtResponse.builder()
+                .itemCode(itemCode)
+                .date(date)
+                .quantity(quantity)
+                .snapshotDate(snapshot.map(StockSnapshot::getSnapshotDate).orElse(null))
+                .build();
+    }
+
+    private BigDecimal sumDelta(String itemCode, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return BigDecimal.ZERO;
+        }
+        return inventoryTransactionRepository.sumStockDelta(itemCode, from, to,
+                InventoryTransaction.INBOUND_TYPES, InventoryTransaction.OUTBOUND_TYPES);
+    }
+
+    private Map<String, BigDecimal> sumByItem(LocalDateTime from, LocalDateTime to) {
+        Map<String, BigDecimal> deltas = new HashMap<>();
+        for (Object[] row : inventoryTransactionRepository.sumStockDeltaByItem(from, to,
+                InventoryTransaction.INBOUND_TYPES, InventoryTransaction.OUTBOUND_TYPES)) {
+            deltas.put((String) row[0], (BigDecimal) row[1]);
+        }
+        return deltas;
+    }
+}
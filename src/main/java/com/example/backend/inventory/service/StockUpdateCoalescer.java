@@ -0,0 +1,244 @@
+package com.example.backend.inventory.service;
+
+import com.example.backend.common.service.TransactionIdGenerator;
+import com.example.backend.entity.InventoryTransaction;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.inventory.dto.InventoryDispatchRequest;
+import com.example.backend.inventory.dto.InventoryReceiveRequest;
+import com.example.backend.inventory.repository.InventoryTransactionRepository;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 同一 itemCode への入出庫を数ミリ秒単位でまとめて反映するコアレッサ（inventory.coalescer.enabled=true で有効）。
+ *
+ * 最初に到着したリクエストのスレッドがリーダーとなり、待ち時間（window-ms）の間に届いた同じ品目の入出庫を
+ * 1つのトランザクションで処理する。在庫行は1回だけロック・更新し、履歴は saveAll でまとめて登録する。
+ * 出庫は到着順に在庫と照合し、足りない分だけ個別に在庫不足として返す（他のリクエストは巻き添えにしない）。
+ * 呼び出し元ごとにトランザクションIDと結果が返る。
+ */
+@Component
+public class StockUpdateCoalescer {
+
+    private final StockMasterRepository stockMasterRepository;
+    private final InventoryTransactionRepository inventoryTransactionRepository;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final ReservationService reservationService;
+    private final TransactionTemplate batchTransaction;
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int maxBatchSize;
+
+    // 受付中のバッチ（品目ごと）
+    private final Map<String, Batch> openBatches = new ConcurrentHashMap<>();
+
+    public StockUpdateCoalescer(StockMasterRepository stockMasterRepository,
+            InventoryTransactionRepository inventoryTransactionRepository,
+            TransactionIdGenerator transactionIdGenerator,
+            ReservationService reservationService,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.coalescer.enabled:false}") boolean enabled,
+            @Value("${inventory.coalescer.window-ms:2}") long windowMillis,
+            @Value("${inventory.coalescer.max-batch:200}") int maxBatchSize) {
+        this.stockMasterRepository = stockMasterRepository;
+        this.inventoryTransactionRepository = inventoryTransactionRepository;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.reservationService = reservationService;
+        // 呼び出し元のトランザクションとは独立してまとめて確定させる
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 出庫をまとめて反映する（在庫不足の場合は失敗結果を返す）
+     */
+    public Result dispatch(InventoryDispatchRequest req, String operator) {
+        return submit(new Entry(req.getItemCode(), req.getQuantity().negate(), operator, req, null));
+    }
+
+    /**
+     * 発注を伴わない入庫をまとめて反映する
+     */
+    public Result receive(InventoryReceiveRequest req, String operator) {
+        return submit(new Entry(req.getItemCode(), req.getQuantity(), operator, null, req));
+    }
+
+    private Result submit(Entry entry) {
+        while (true) {
+            Batch batch = openBatches.computeIfAbsent(entry.itemCode, k -> new Batch());
+            if (!batch.add(entry, maxBatchSize)) {
+                // リーダーが締め切った直後、または上限到達: 次のバッチへ
+                openBatches.remove(entry.itemCode, batch);
+                continue;
+            }
+            if (batch.leader == Thread.currentThread()) {
+                lead(entry.itemCode, batch);
+            }
+            try {
+                return entry.result.join();
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException re) {
+                    throw re;
+                }
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * リーダー: 待ち時間の間に集まった入出庫を締め切り、1トランザクションで反映する
+     */
+    private void lead(String itemCode, Batch batch) {
+        try {
+            if (windowMillis > 0) {
+                Thread.sleep(windowMillis);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        List<Entry> entries = batch.close();
+        openBatches.remove(itemCode, batch);
+
+        try {
+            batchTransaction.executeWithoutResult(status -> apply(itemCode, entries));
+        } catch (RuntimeException ex) {
+            entries.forEach(e -> e.result.completeExceptionally(ex));
+            return;
+        }
+        entries.forEach(e -> e.result.complete(e.outcome));
+    }
+
+    private void apply(String itemCode, List<Entry> entries) {
+        Optional<StockMaster> locked = stockMasterRepository.findByItemCodeForUpdate(itemCode);
+        if (locked.isEmpty()) {
+            entries.forEach(e -> e.outcome = Result.notFound());
+            return;
+        }
+        StockMaster stock = locked.get();
+
+        // 到着順に在庫と照合（出庫は保管場所に割り当て済み・仮引当中の分を除いた在庫が足りる分だけ受け付ける。
+        // 引当を指定した出庫はコアレッサを経由しない）
+        BigDecimal held = stockMasterRepository.findLocatedStock(itemCode).orElse(BigDecimal.ZERO)
+                .add(reservationService.getReservedQuantity(itemCode));
+        BigDecimal running = stock.getCurrentStock().subtract(held);
+        List<Entry> accepted = new ArrayList<>(entries.size());
+        for (Entry e : entries) {
+            BigDecimal next = running.add(e.delta);
+            if (next.signum() < 0) {
+                e.outcome = Result.insufficientStock();
+            } else {
+                running = next;
+                accepted.add(e);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        // 在庫更新は1回、トランザクションIDは1往復でまとめて採番
+        stock.setCurrentStock(running.add(held));
+        stockMasterRepository.save(stock);
+
+        Iterator<String> txNos = transactionIdGenerator.generateTxNos(accepted.size()).iterator();
+        List<InventoryTransaction> transactions = new ArrayList<>(accepted.size());
+        for (Entry e : accepted) {
+            String txNo = txNos.next();
+            transactions.add(e.dispatch != null
+                    ? InventoryTransaction.createTransactionforDispatch(stock, e.dispatch, e.operator, txNo)
+                    : InventoryTransaction.createTransactionForManualReceive(stock, null, e.receive, e.operator,
+                            txNo));
+            e.outcome = Result.success(txNo);
+        }
+        inventoryTransactionRepository.saveAll(transactions);
+    }
+
+    /**
+     * 呼び出し元ごとの処理結果
+     */
+    public record Result(Status status, String transactionId) {
+        static Result success(String transactionId) {
+            return new Result(Status.SUCCESS, transactionId);
+        }
+
+        static Result insufficientStock() {
+            return new Result(Status.INSUFFICIENT_STOCK, null);
+        }
+
+        static Result notFound() {
+            return new Result(Status.NOT_FOUND, null);
+        }
+    }
+
+    public enum Status {
+        SUCCESS, // 反映済み
+        INSUFFICIENT_STOCK, // 在庫不足のため出庫できなかった
+        NOT_FOUND // 在庫が存在しない
+    }
+
+    private static final class Entry {
+        private final String itemCode;
+        private final BigDecimal delta;
+        private final String operator;
+        private final InventoryDispatchRequest dispatch;
+        private final InventoryReceiveRequest receive;
+        private final CompletableFuture<Result> result = new CompletableFuture<>();
+        private Result outcome; // バッチ処理中に設定し、コミット後に result へ反映する
+
+        private Entry(String itemCode, BigDecimal delta, String operator,
+                InventoryDispatchRequest dispatch, InventoryReceiveRequest receive) {
+            this.itemCode = itemCode;
+            this.delta = delta;
+            this.operator = operator;
+            this.dispatch = dispatch;
+            this.receive = receive;
+        }
+    }
+
+    private static final class Batch {
+        private final List<Entry> entries = new ArrayList<>();
+        private Thread leader;
+        private boolean closed;
+
+        /**
+         * バッチに追加する。最初に追加したスレッドがリーダーになる。
+         *
+         * @return 締め切り済み・上限到達で追加できなかった場合 false
+         */
+        synchronized boolean add(Entry entry, int maxSize) {
+            if (closed || entries.size() >= maxSize) {
+                return false;
+            }
+            if (leader == null) {
+                leader = Thread.currentThread();
+            }
+            entries.add(entry);
+            return true;
+        }
+
+        synchronized List<Entry> close() {
+            closed = true;
+            return new ArrayList<>(entries);
+        }
+    }
+}
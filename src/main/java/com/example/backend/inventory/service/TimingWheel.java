@@ -0,0 +1,79 @@
+package com.example.backend.inventory.service;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * 有効期限管理用のハッシュ型タイミングホイール
+ *
+ * 期限を tickMillis 単位の目盛りに丸めて wheelSize 個のスロットに振り分ける。
+ * 登録は O(1)、期限切れの判定は進めた目盛りのスロットだけを見るため、件数が増えても全件を走査しない。
+ * ホイールを1周以上先の期限はスロットに残し、該当する目盛りに来たときに期限切れとする。
+ * 取り消しは行わない（呼び出し側で期限切れ時に有効かどうかを確認する）。
+ *
+ * 登録はどのスレッドからでもよい。advance は1つのスレッドから呼ぶこと。
+ */
+final class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final Queue<Timeout<T>>[] slots; // advance のスレッドのみが操作
+    private final Queue<Timeout<T>> incoming = new ConcurrentLinkedQueue<>();
+    private final long startMillis;
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            slots[i] = new ArrayDeque<>();
+        }
+        this.startMillis = startMillis;
+    }
+
+    /**
+     * 期限（エポックミリ秒）に期限切れとなるよう登録する
+     */
+    void schedule(T item, long deadlineMillis) {
+        // 目盛りの途中の期限は次の目盛りで期限切れにする（早めに切れることはない）
+        incoming.add(new Timeout<>(item, ceilDiv(deadlineMillis - startMillis, tickMillis)));
+    }
+
+    /**
+     * 現在時刻までの目盛りを進め、期限切れになったものを expired に渡す
+     */
+    void advance(long nowMillis, Consumer<T> expired) {
+        long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        while (currentTick <= targetTick) {
+            transferIncoming();
+            Queue<Timeout<T>> slot = slots[(int) (currentTick % slots.length)];
+            for (int n = slot.size(); n > 0; n--) {
+                Timeout<T> timeout = slot.poll();
+                if (timeout.deadlineTick <= currentTick) {
+                    expired.accept(timeout.item);
+                } else {
+                    slot.add(timeout); // 1周以上先
+                }
+            }
+            currentTick++;
+        }
+    }
+
+    private void transferIncoming() {
+        Timeout<T> timeout;
+        while ((timeout = incoming.poll()) != null) {
+            // 過ぎた期限は今の目盛りで期限切れにする
+            long tick = Math.max(timeout.deadlineTick, currentTick);
+            slots[(int) (tick % slots.length)].add(new Timeout<>(timeout.item, tick));
+        }
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    private record Timeout<T>(T item, long deadlineTick) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.backend.inventory.service;
+
+import jakarta.validation.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 入出庫履歴のカーソル（前のページの最後の行の処理日時と ID）
+ * クライアントには中身を意識させないよう Base64URL で符号化した文字列として渡す。
+ */
+record TransactionCursor(LocalDateTime transactionTime, long id) {
+
+    String encode() {
+        String raw = transactionTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return カーソル。null・空の場合（最初のページ）は null
+     */
+    static TransactionCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new TransactionCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+            throw new ValidationException("カーソルが不正です");
+        }
+    }
+}
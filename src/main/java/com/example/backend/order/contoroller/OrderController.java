@@ -18,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.data.web.PageableDefault;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -44,8 +45,10 @@ public class OrderController {
       @RequestParam(defaultValue = "10") int size,
       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+      @Parameter(description = "未完了の明細が残る発注のみ") @RequestParam(defaultValue = "false") boolean openOnly,
       @PageableDefault(size = 100, direction = Sort.Direction.ASC) Pageable pageable) {
-    Page<OrderHistoryResponse> result = orderHistoryService.getOrderHistory(orderNo, page, size, fromDate, toDate);
+    Page<OrderHistoryResponse> result = orderHistoryService.getOrderHistory(orderNo, page, size, fromDate, toDate,
+        openOnly);
     return ResponseEntity.ok(result);
   }
 
@@ -4,8 +4,11 @@ import com.example.backend.entity.AssetMaster;
 import com.example.backend.entity.PurchaseOrder;
 import com.example.backend.entity.PurchaseOrderDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,8 +19,15 @@ public interface PurchaseOrderDetailRepository
   // 特定の発注に属する明細一覧を取得
   List<PurchaseOrderDetail> findByPurchaseOrder_OrderNo(String orderNo);
 
+  // 複数の発注の明細を発注ごと1回で取得（発注履歴の1ページ分。明細の登録順）
+  @Query("SELECT d FROM PurchaseOrderDetail d JOIN FETCH d.purchaseOrder o WHERE o.orderNo IN :orderNos ORDER BY d.id")
+  List<PurchaseOrderDetail> findWithOrderByOrderNoIn(@Param("orderNos") Collection<String> orderNos);
+
   // 発注番号 + 商品コードで1明細を取得（省略可、JpaRepositoryが自動生成）
   Optional<PurchaseOrderDetail> findByPurchaseOrder_OrderNoAndItemCode(String orderNo, String itemCode);
 
+  // 発注番号 + 商品コード（複数）で明細をまとめて取得
+  List<PurchaseOrderDetail> findByPurchaseOrder_OrderNoAndItemCodeIn(String orderNo, Collection<String> itemCodes);
+
   Optional<PurchaseOrderDetail> findByPurchaseOrderAndItemName(PurchaseOrder purchaseOrder, String itemName);
 }
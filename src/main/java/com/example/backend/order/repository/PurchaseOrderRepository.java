@@ -1,10 +1,14 @@
 package com.example.backend.order.repository;
 
 import com.example.backend.entity.PurchaseOrder;
+import jakarta.persistence.LockModeType;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -19,6 +23,11 @@ public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Lo
   // 過去の発注履歴一覧取得
   Optional<PurchaseOrder> findByOrderNo(String orderNo);
 
+  // 発注番号で検索（行ロック付き。納品で明細と集計を更新する際に使用し、同じ発注への同時納品を直列化する）
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT o FROM PurchaseOrder o WHERE o.orderNo = :orderNo")
+  Optional<PurchaseOrder> findByOrderNoForUpdate(@Param("orderNo") String orderNo);
+
   // 特定期間内全件取得
   Page<PurchaseOrder> findByCreatedAtBetween(LocalDate fromDate, LocalDate toDate, Pageable pageable);
 
@@ -27,6 +36,9 @@ public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Lo
 
   // 特定期日以前全件取得
   Page<PurchaseOrder> findByCreatedAtBefore(LocalDate toDate, Pageable pageable);
+
+  // 未完了の明細が残る発注（open_line_count のインデックスを使用）
+  Page<PurchaseOrder> findByOpenLineCountGreaterThan(int openLineCount, Pageable pageable);
   
 
 }
@@ -18,6 +18,8 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -34,17 +36,18 @@ public class OrderHistoryService {
      * @param size     ページサイズ（nullの場合は指定なし）
      * @param fromDate 開始日付（nullの場合は指定なし）
      * @param toDate   終了日付（nullの場合は指定なし）
+     * @param openOnly 未完了の明細が残る発注のみ（open_line_count のインデックスで絞り込む。日付条件とは併用しない）
      * @return 発注履歴のページ
      */
     public Page<OrderHistoryResponse> getOrderHistory(String orderNo, int page, int size, LocalDate fromDate,
-            LocalDate toDate) {
+            LocalDate toDate, boolean openOnly) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
 
         // 条件: orderNo指定あり
         if (orderNo != null && !orderNo.isBlank()) {
             PurchaseOrder order = purchaseOrderRepository.findByOrderNo(orderNo)
                     .orElseThrow(() -> new ResourceNotFoundException("発注が見つかりません（orderNo: " + orderNo + "）"));
-            List<PurchaseOrderDetail> details = purchaseOrderDetailRepository.findByPurchaseOrder_OrderNo(orderNo);
+            List<PurchaseOrderDetail> details = purchaseOrderDetailRepository.findWithOrderByOrderNoIn(List.of(orderNo));
             OrderHistoryResponse response = OrderHistoryResponse.from(order, details);
             return new PageImpl<>(List.of(response), pageable, 1);
         }
@@ -58,7 +61,9 @@ public class OrderHistoryService {
         // } else {
         //     ordersPage = purchaseOrderRepository.findAll(pageable);
         // }
-        if (fromDate != null && toDate != null) {
+        if (openOnly) {
+            ordersPage = purchaseOrderRepository.findByOpenLineCountGreaterThan(0, pageable);
+        } else if (fromDate != null && toDate != null) {
             ordersPage = purchaseOrderRepository.findByCreatedAtBetween(fromDate, toDate, pageable);
         } else if (fromDate != null) {
             ordersPage = purchaseOrderRepository.findByCreatedAtAfter(fromDate.minusDays(1), pageable);
@@ -69,11 +74,16 @@ public class OrderHistoryService {
         }
         
 
+        // ページ内の発注の明細を IN でまとめて取得し、発注番号ごとに振り分ける（発注ごとのクエリは発行しない）
+        List<String> orderNos = ordersPage.stream().map(PurchaseOrder::getOrderNo).toList();
+        Map<String, List<PurchaseOrderDetail>> detailsByOrderNo = orderNos.isEmpty() ? Map.of()
+                : purchaseOrderDetailRepository.findWithOrderByOrderNoIn(orderNos).stream()
+                        .collect(Collectors.groupingBy(d -> d.getPurchaseOrder().getOrderNo()));
+
         List<OrderHistoryResponse> responseList = ordersPage.stream()
-                .map(order -> {
-                    List<PurchaseOrderDetail> details = purchaseOrderDetailRepository.findByPurchaseOrder_OrderNo(order.getOrderNo());
-                    return OrderHistoryResponse.from(order, details);
-                }).toList();
+                .map(order -> OrderHistoryResponse.from(order,
+                        detailsByOrderNo.getOrDefault(order.getOrderNo(), List.of())))
+                .toList();
 
         return new PageImpl<>(responseList, pageable, ordersPage.getTotalElements());
 
@@ -45,6 +45,7 @@ public class AssetOrderHandler {
             }
             
             PurchaseOrderDetail savedDetail = purchaseOrderDetailRepository.save(orderDetail);
+            header.addLine(savedDetail);
             System.out.println("トップレベル明細登録完了: ID=" + savedDetail.getId() + ", itemType=" + savedDetail.getItemType());
             
             totalAmount = totalAmount.add(detail.getQuantity().multiply(detail.getPurchasePrice()));
@@ -124,6 +125,7 @@ public class AssetOrderHandler {
             PurchaseOrderDetail serviceDetail = createNestedServiceDetail(header, serviceReq, parentDetail);
             
             purchaseOrderDetailRepository.save(serviceDetail);
+            header.addLine(serviceDetail);
             System.out.println("  ▶ ネストされたサービス明細登録完了: ID=" + serviceDetail.getId());
             
             nestedServiceAmount = nestedServiceAmount.add(serviceReq.getQuantity().multiply(serviceReq.getPurchasePrice()));
@@ -1,6 +1,7 @@
 package com.example.backend.order.service.handler;
 
 import java.math.BigDecimal;
+import java.util.Iterator;
 import java.util.List;
 
 import org.springframework.stereotype.Component;
@@ -36,7 +37,10 @@ public class InventoryOrderHandler {
     @Transactional
     public BigDecimal processOrderDetails(PurchaseOrder header, List<PurchaseOrderRequest.Detail> details, String username) {
         BigDecimal totalAmount = BigDecimal.ZERO;
-        
+
+        // トランザクションIDを明細数分まとめて採番（採番マスタの更新は1回）
+        Iterator<String> txNos = transactionIdGenerator.generateTxNos(details.size()).iterator();
+
         for (PurchaseOrderRequest.Detail detail : details) {
             validateInventoryOrderDetail(detail);
             
@@ -44,11 +48,12 @@ public class InventoryOrderHandler {
             PurchaseOrderDetail orderDetail = createOrderDetail(header, detail, stock);
             
             purchaseOrderDetailRepository.save(orderDetail);
+            header.addLine(orderDetail);
             
             totalAmount = totalAmount.add(detail.getQuantity().multiply(detail.getPurchasePrice()));
             System.out.println("現在の小計:" + totalAmount);
             
-            createInventoryTransaction(stock, header, detail, username);
+            createInventoryTransaction(stock, header, detail, username, txNos.next());
         }
         
         return totalAmount;
@@ -84,12 +89,10 @@ public class InventoryOrderHandler {
         stockMaster.setLocation(detail.getLocation());
         stockMaster.setCurrentStock(BigDecimal.ZERO);
         
+        // ID・itemCodeをINSERT前に確定させ、1回のINSERTで登録する
+        stockMaster.assignIdentity(itemCodeGenerator);
         StockMaster saved = stockMasterRepository.save(stockMaster);
-        
-        String itemCode = itemCodeGenerator.generateItemCode(saved.getId());
-        saved.setItemCode(itemCode);
-        
-        stockMasterRepository.flush();
+
         System.out.println("▶ 新規登録 itemCode: " + saved.getItemCode());
         
         return saved;
@@ -119,9 +122,9 @@ public class InventoryOrderHandler {
         return orderDetail;
     }
 
-    private void createInventoryTransaction(StockMaster stock, PurchaseOrder header, PurchaseOrderRequest.Detail detail, String username) {
+    private void createInventoryTransaction(StockMaster stock, PurchaseOrder header, PurchaseOrderRequest.Detail detail, String username, String txNo) {
         InventoryTransaction transaction = InventoryTransaction.createTransactionForPurchaseOrder(
-            username, stock, header, detail, transactionIdGenerator, inventoryTransactionRepository);
+            username, stock, header, detail, txNo);
         System.out.println(transaction);
         inventoryTransactionRepository.save(transaction);
     }
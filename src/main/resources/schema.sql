@@ -18,9 +18,13 @@ CREATE TABLE stock_master
   current_stock DECIMAL(14,2) NOT NULL DEFAULT 0,
   location VARCHAR(64) DEFAULT '-',
   created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+  last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  version BIGINT NOT NULL DEFAULT 0
 );
 
+-- 在庫IDシーケンス（ItemCodeGenerator が50件ずつ確保する。INCREMENT BY は ID_ALLOCATION_SIZE と揃えること）
+CREATE SEQUENCE stock_master_seq START WITH 1 INCREMENT BY 50;
+
 -- 設備品マスタ
 CREATE TABLE asset_master (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -55,13 +59,19 @@ CREATE TABLE purchase_order
   operator VARCHAR(64) NOT NULL,
   status VARCHAR(32) NOT NULL DEFAULT '未完了',
   remarks VARCHAR(255),
+  open_line_count INT NOT NULL DEFAULT 0,
+  ordered_quantity_total DECIMAL(14,2) NOT NULL DEFAULT 0,
+  received_quantity_total DECIMAL(14,2) NOT NULL DEFAULT 0,
   created_at DATE DEFAULT (CURRENT_DATE)
 );
 
+-- 未完了の発注一覧用
+CREATE INDEX idx_purchase_order_open_line_count ON purchase_order (open_line_count);
+
 -- 発注明細
 CREATE TABLE purchase_order_detail
 (
-  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  id BIGINT PRIMARY KEY,
   order_no VARCHAR(64) NOT NULL,
   item_code VARCHAR(64),
   item_name VARCHAR(128),
@@ -77,10 +87,14 @@ CREATE TABLE purchase_order_detail
     REFERENCES purchase_order (order_no)
 );
 
+-- 発注明細IDシーケンス（Hibernate の pooled 最適化で50件ずつ使用。allocationSize と揃えること）
+-- IDENTITY 時代の行が残るDBでは起動時に IdSequenceInitializer が既存IDの続きまで進める
+CREATE SEQUENCE purchase_order_detail_seq START WITH 1 INCREMENT BY 50;
+
 -- 在庫品トランザクション
 CREATE TABLE inventory_transaction
 (
-  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  id BIGINT PRIMARY KEY,
   transaction_id VARCHAR(64) NOT NULL UNIQUE,
   item_code VARCHAR(64) NOT NULL,
   transaction_type VARCHAR(32) NOT NULL,
@@ -98,6 +112,76 @@ CREATE TABLE inventory_transaction
     FOREIGN KEY (item_code) REFERENCES stock_master (item_code)
 );
 
+-- 在庫品トランザクションIDシーケンス（Hibernate の pooled 最適化で50件ずつ使用。allocationSize と揃えること）
+-- IDENTITY 時代の行が残るDBでは起動時に IdSequenceInitializer が既存IDの続きまで進める
+CREATE SEQUENCE inventory_transaction_seq START WITH 1 INCREMENT BY 50;
+
+-- 品目ごとの期間集計（過去日時点の在庫数・日次スナップショット）用
+CREATE INDEX idx_inventory_transaction_item_time ON inventory_transaction (item_code, transaction_time);
+-- 全取引履歴の検索（処理日時の範囲・新しい順の並び）用
+CREATE INDEX idx_inventory_transaction_time ON inventory_transaction (transaction_time);
+
+-- 日次在庫スナップショット（snapshot_date 終了時点の在庫数）
+CREATE TABLE stock_snapshot
+(
+  id BIGINT PRIMARY KEY,
+  item_code VARCHAR(32) NOT NULL,
+  snapshot_date DATE NOT NULL,
+  quantity DECIMAL(14, 2) NOT NULL,
+  created_at TIMESTAMP NOT NULL,
+  CONSTRAINT uk_stock_snapshot_item_date UNIQUE (item_code, snapshot_date)
+);
+
+-- 在庫スナップショットIDシーケンス（allocationSize と揃えること）
+CREATE SEQUENCE stock_snapshot_seq START WITH 1 INCREMENT BY 50;
+
+-- 在庫の仮引当（メモリ上の引当を後からまとめて反映。再起動時の復元用）
+CREATE TABLE stock_reservation
+(
+  reservation_id VARCHAR(36) PRIMARY KEY,
+  item_code VARCHAR(32) NOT NULL,
+  quantity DECIMAL(14, 2) NOT NULL,
+  operator VARCHAR(64) NOT NULL,
+  expires_at TIMESTAMP NOT NULL,
+  created_at TIMESTAMP NOT NULL
+);
+CREATE INDEX idx_stock_reservation_expires_at ON stock_reservation (expires_at);
+
+-- 保管場所ごとの在庫数（保管場所を指定した入出庫はこの行だけを更新する）
+CREATE TABLE stock_location_balance
+(
+  id BIGINT PRIMARY KEY,
+  item_code VARCHAR(32) NOT NULL,
+  location VARCHAR(64) NOT NULL,
+  quantity DECIMAL(14, 2) NOT NULL,
+  last_updated TIMESTAMP,
+  CONSTRAINT uk_stock_location_balance_item_location UNIQUE (item_code, location)
+);
+CREATE INDEX idx_stock_location_balance_location ON stock_location_balance (location);
+CREATE SEQUENCE stock_location_balance_seq START WITH 1 INCREMENT BY 50;
+
+-- 在庫マスタの在庫数へ未反映の増減（保管場所別の入出庫で INSERT し、品目ごとにまとめて反映する）
+CREATE TABLE stock_total_delta
+(
+  id BIGINT PRIMARY KEY,
+  item_code VARCHAR(32) NOT NULL,
+  delta DECIMAL(14, 2) NOT NULL,
+  created_at TIMESTAMP NOT NULL
+);
+CREATE INDEX idx_stock_total_delta_item_code ON stock_total_delta (item_code);
+CREATE SEQUENCE stock_total_delta_seq START WITH 1 INCREMENT BY 50;
+
+-- 送出待ちのイベント（トランザクショナルアウトボックス）
+CREATE TABLE outbox_event
+(
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  aggregate_type VARCHAR(32) NOT NULL,
+  aggregate_id VARCHAR(64) NOT NULL,
+  event_type VARCHAR(32) NOT NULL,
+  payload VARCHAR(4000) NOT NULL,
+  created_at TIMESTAMP NOT NULL
+);
+
 -- 番号マスタ
 CREATE TABLE numbering_master
 (
@@ -109,4 +193,14 @@ CREATE TABLE numbering_master
   created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
   updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   version INTEGER DEFAULT 0
-);
\ No newline at end of file
+);
+
+-- Idempotency-Key と処理結果（入出庫の再送時に最初の結果を返す）
+CREATE TABLE idempotency_record
+(
+  idempotency_key VARCHAR(128) PRIMARY KEY,
+  operation VARCHAR(32) NOT NULL,
+  transaction_id VARCHAR(64) NOT NULL,
+  created_at TIMESTAMP NOT NULL
+);
+CREATE INDEX idx_idempotency_record_created_at ON idempotency_record (created_at);
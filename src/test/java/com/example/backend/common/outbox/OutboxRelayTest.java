@@ -0,0 +1,192 @@
+package com.example.backend.common.outbox;
+
+import com.example.backend.common.repository.OutboxEventRepository;
+import com.example.backend.common.service.ItemCodeGenerator;
+import com.example.backend.common.service.NumberingFormatter;
+import com.example.backend.entity.InventoryTransaction;
+import com.example.backend.entity.OutboxEvent;
+import com.example.backend.entity.PurchaseOrder;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.inventory.dto.InventoryReceiveRequest;
+import com.example.backend.inventory.repository.InventoryTransactionRepository;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import com.example.backend.order.repository.PurchaseOrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // コミット時の記録を確認するため
+@DirtiesContext // Hibernate にリスナーを登録するため、他のテストとコンテキストを共有しない
+@DisplayName("アウトボックスの記録・送出テスト")
+class OutboxRelayTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private StockMasterRepository stockMasterRepository;
+
+    @Autowired
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Autowired
+    private PurchaseOrderRepository purchaseOrderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private StockMaster stock;
+
+    @BeforeEach
+    void setUp() {
+        new OutboxListenerRegistrar(entityManagerFactory, objectMapper).register();
+        ItemCodeGenerator itemCodeGenerator = new ItemCodeGenerator(jdbcTemplate, transactionManager,
+                new NumberingFormatter());
+        stock = new TransactionTemplate(transactionManager).execute(status -> {
+            StockMaster s = new StockMaster();
+            s.setItemName("軍手");
+            s.setCategory("消耗品");
+            s.assignIdentity(itemCodeGenerator);
+            return stockMasterRepository.save(s);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventoryTransactionRepository.deleteAll();
+        purchaseOrderRepository.deleteAll();
+        stockMasterRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("成功：入出庫履歴と発注ステータスの変更がコミット時だけ記録され、登録順にまとめて送出される")
+    void testRecordAndRelay() throws IOException {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            receive("S56-1");
+            receive("S56-2");
+            purchaseOrderRepository.save(order("PO-1"));
+        });
+        tx.executeWithoutResult(status -> {
+            PurchaseOrder order = purchaseOrderRepository.findByOrderNo("PO-1").orElseThrow();
+            order.setStatus("完了");
+            order.setRemarks("ステータス以外の変更のみでは記録しない");
+        });
+        assertThatThrownBy(() -> tx.executeWithoutResult(status -> {
+            receive("S56-3");
+            throw new IllegalStateException("ロールバック");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::getAggregateId,
+                OutboxEvent::getEventType).containsExactly(
+                        tuple("S56-1", "MANUAL_RECEIVE"),
+                        tuple("S56-2", "MANUAL_RECEIVE"),
+                        tuple("PO-1", OutboxEventListener.ORDER_CREATED),
+                        tuple("PO-1", OutboxEventListener.ORDER_STATUS_CHANGED));
+
+        List<OutboxEvent> received = new ArrayList<>();
+        NdjsonFileOutboxSink file = new NdjsonFileOutboxSink(objectMapper, true, dir.toString(), 1, 10);
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, List.of(received::addAll, file),
+                transactionManager, true, 3);
+        relay.relay();
+
+        assertThat(received).extracting(OutboxEvent::getAggregateId).containsExactly("S56-1", "S56-2", "PO-1", "PO-1");
+        assertThat(outboxEventRepository.count()).isZero();
+        assertThat(relay.snapshot().batches()).isEqualTo(2);
+
+        // 1バイトごとに切り替えるため、バッチごとのファイルが名前順に並ぶ
+        List<String> lines = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : files.sorted().toList()) {
+                lines.addAll(Files.readAllLines(p));
+            }
+        }
+        assertThat(lines).hasSize(4);
+        assertThat(objectMapper.readTree(lines.get(0)).get("payload").get("itemCode").asText())
+                .isEqualTo(stock.getItemCode());
+        assertThat(objectMapper.readTree(lines.get(3)).get("payload").get("previousStatus").asText())
+                .isEqualTo("未完了");
+        file.close();
+    }
+
+    @Test
+    @DisplayName("失敗：送出先がエラーの場合はアウトボックスに残し、次回にバッチごと再送する")
+    void testRelay_Retry() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> receive("S56-1"));
+        List<OutboxEvent> received = new ArrayList<>();
+        boolean[] failing = { true };
+        OutboxSink flaky = events -> {
+            if (failing[0]) {
+                throw new IllegalStateException("送出先の障害");
+            }
+            received.addAll(events);
+        };
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, List.of(flaky), transactionManager, true, 10);
+
+        relay.relay();
+        assertThat(outboxEventRepository.count()).isEqualTo(1);
+        assertThat(relay.snapshot().failures()).isEqualTo(1);
+
+        failing[0] = false;
+        relay.relay();
+        assertThat(received).extracting(OutboxEvent::getAggregateId).containsExactly("S56-1");
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    private void receive(String transactionId) {
+        InventoryReceiveRequest req = new InventoryReceiveRequest();
+        req.setItemCode(stock.getItemCode());
+        req.setQuantity(new BigDecimal("2"));
+        inventoryTransactionRepository.save(InventoryTransaction.createTransactionForManualReceive(stock, null, req,
+                "picker", transactionId));
+    }
+
+    private static PurchaseOrder order(String orderNo) {
+        PurchaseOrder order = new PurchaseOrder();
+        order.setOrderNo(orderNo);
+        order.setSupplier("テスト商事");
+        order.setOrderDate(LocalDate.now());
+        order.setOrderType(PurchaseOrder.OrderType.INVENTORY);
+        order.setOperator("buyer");
+        return order;
+    }
+}
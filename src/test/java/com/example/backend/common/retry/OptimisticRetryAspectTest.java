@@ -0,0 +1,87 @@
+package com.example.backend.common.retry;
+
+import com.example.backend.common.service.ItemCodeGenerator;
+import com.example.backend.common.service.NumberingFormatter;
+import com.example.backend.entity.StockMaster;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OptimisticRetryAspectのリトライテスト")
+class OptimisticRetryAspectTest {
+
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+
+    @Mock
+    private Signature signature;
+
+    private ConflictMetrics metrics;
+    private OptimisticRetryAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new ConflictMetrics();
+        ItemCodeGenerator itemCodeGenerator = new ItemCodeGenerator(null, null, new NumberingFormatter());
+        aspect = new OptimisticRetryAspect(metrics, itemCodeGenerator, 3, 0, 0);
+        lenient().when(joinPoint.getSignature()).thenReturn(signature);
+    }
+
+    @Test
+    @DisplayName("成功：競合後の再実行で成功した場合は結果を返す")
+    void testRetry_SucceedsAfterConflict() throws Throwable {
+        when(joinPoint.proceed())
+                .thenThrow(conflictOn(0x4E7L))
+                .thenReturn("S56-000001");
+
+        assertThat(aspect.retry(joinPoint)).isEqualTo("S56-000001");
+
+        verify(joinPoint, times(2)).proceed();
+        ConflictMetrics.Snapshot snapshot = metrics.snapshot();
+        assertThat(snapshot.attempts()).isEqualTo(2);
+        assertThat(snapshot.conflicts()).isEqualTo(1);
+        assertThat(snapshot.conflictRate()).isEqualTo(0.5);
+        assertThat(snapshot.items().get("I-0004E7")).isEqualTo(new ConflictMetrics.KeySnapshot(1, 0));
+    }
+
+    @Test
+    @DisplayName("失敗：上限回数まで競合した場合は例外をそのまま返す")
+    void testRetry_GivesUpAfterMaxAttempts() throws Throwable {
+        when(joinPoint.proceed()).thenThrow(conflictOn(1L));
+
+        assertThatThrownBy(() -> aspect.retry(joinPoint))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        verify(joinPoint, times(3)).proceed();
+        assertThat(metrics.snapshot().items().get("I-000001")).isEqualTo(new ConflictMetrics.KeySnapshot(3, 1));
+    }
+
+    @Test
+    @DisplayName("競合以外の例外はリトライしない")
+    void testRetry_DoesNotRetryOtherExceptions() throws Throwable {
+        when(joinPoint.proceed()).thenThrow(new RuntimeException("在庫が不足しています"));
+
+        assertThatThrownBy(() -> aspect.retry(joinPoint)).hasMessage("在庫が不足しています");
+
+        verify(joinPoint, times(1)).proceed();
+        assertThat(metrics.snapshot().conflicts()).isZero();
+    }
+
+    private static ObjectOptimisticLockingFailureException conflictOn(Long id) {
+        return new ObjectOptimisticLockingFailureException(StockMaster.class, id);
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.backend.common.service;
+
+import com.example.backend.common.repository.IdempotencyRecordRepository;
+import com.example.backend.entity.IdempotencyRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // 入出庫と同じくキーの登録をコミットさせるため
+@DisplayName("IdempotencyServiceの重複実行防止テスト")
+class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private MutableClock clock;
+    private IdempotencyService service;
+    private TransactionTemplate tx;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2026-04-01T00:00:00Z"));
+        service = new IdempotencyService(repository, 100, Duration.ofMinutes(10), clock);
+        tx = new TransactionTemplate(transactionManager);
+        executions = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("同じキーの再送は処理を実行せず最初の結果を返す")
+    void testExecute_ReturnsFirstResult() {
+        String first = service.execute("scan-001", IdempotencyRecord.Operation.DISPATCH, dispatch("scan-001", "S56-1"));
+        String retry = service.execute("scan-001", IdempotencyRecord.Operation.DISPATCH, dispatch("scan-001", "S56-2"));
+
+        assertThat(first).isEqualTo("S56-1");
+        assertThat(retry).isEqualTo("S56-1");
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("キャッシュにない（再起動後・期限切れ）キーはテーブルから結果を返す")
+    void testExecute_FallsBackToTable() {
+        service.execute("scan-002", IdempotencyRecord.Operation.RECEIVE, receive("scan-002", "S56-1"));
+
+        IdempotencyService restarted = new IdempotencyService(repository, 100, Duration.ofMinutes(10), clock);
+        assertThat(restarted.execute("scan-002", IdempotencyRecord.Operation.RECEIVE, receive("scan-002", "S56-2")))
+                .isEqualTo("S56-1");
+
+        // キャッシュの期限切れ後はテーブルを参照する（テーブルから消えていれば再実行される）
+        clock.advance(Duration.ofMinutes(11));
+        repository.deleteAll();
+        assertThat(service.execute("scan-002", IdempotencyRecord.Operation.RECEIVE, receive("scan-002", "S56-3")))
+                .isEqualTo("S56-3");
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("登録から有効期限を過ぎたキーはテーブルに残っていても再実行し、登録し直す")
+    void testExecute_ExpiredRowIgnored() {
+        service.execute("scan-005", IdempotencyRecord.Operation.DISPATCH, dispatch("scan-005", "S56-1"));
+
+        clock.advance(Duration.ofMinutes(11));
+        IdempotencyService restarted = new IdempotencyService(repository, 100, Duration.ofMinutes(10), clock);
+        assertThat(restarted.execute("scan-005", IdempotencyRecord.Operation.DISPATCH, dispatch("scan-005", "S56-2")))
+                .isEqualTo("S56-2");
+        assertThat(service.execute("scan-005", IdempotencyRecord.Operation.DISPATCH, dispatch("scan-005", "S56-3")))
+                .isEqualTo("S56-2");
+        assertThat(executions).hasValue(2);
+        assertThat(repository.findById("scan-005")).get()
+                .extracting(IdempotencyRecord::getTransactionId).isEqualTo("S56-2");
+    }
+
+    @Test
+    @DisplayName("定期削除は有効期限を過ぎたキーだけを削除する")
+    void testPurgeExpired() {
+        service.execute("scan-006", IdempotencyRecord.Operation.RECEIVE, receive("scan-006", "S56-1"));
+        clock.advance(Duration.ofMinutes(6));
+        service.execute("scan-007", IdempotencyRecord.Operation.RECEIVE, receive("scan-007", "S56-2"));
+        clock.advance(Duration.ofMinutes(6));
+
+        service.purgeExpired();
+
+        assertThat(repository.findAll()).extracting(IdempotencyRecord::getIdempotencyKey)
+                .containsExactly("scan-007");
+    }
+
+    @Test
+    @DisplayName("同じキーの同時リクエストは後着側がロールバックされ、先着側の結果を返す")
+    void testExecute_ConcurrentSameKey() throws Exception {
+        CountDownLatch recorded = new CountDownLatch(1);
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> service.execute("scan-003",
+                IdempotencyRecord.Operation.DISPATCH, () -> tx.execute(status -> {
+                    executions.incrementAndGet();
+                    service.record("scan-003", IdempotencyRecord.Operation.DISPATCH, "S56-1");
+                    recorded.countDown();
+                    sleep(200); // コミット前に後着側を到着させる
+                    return "S56-1";
+                })));
+        assertThat(recorded.await(10, TimeUnit.SECONDS)).isTrue();
+
+        String follower = service.execute("scan-003", IdempotencyRecord.Operation.DISPATCH,
+                dispatch("scan-003", "S56-2"));
+
+        assertThat(leader.get(10, TimeUnit.SECONDS)).isEqualTo("S56-1");
+        assertThat(follower).isEqualTo("S56-1");
+        assertThat(repository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("別の操作で使用済みのキーはエラー")
+    void testExecute_OperationMismatch() {
+        service.execute("scan-004", IdempotencyRecord.Operation.RECEIVE, receive("scan-004", "S56-1"));
+
+        assertThatThrownBy(() -> service.execute("scan-004", IdempotencyRecord.Operation.DISPATCH,
+                dispatch("scan-004", "S56-2")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("キー未指定の場合は毎回実行する")
+    void testExecute_WithoutKey() {
+        service.execute(null, IdempotencyRecord.Operation.DISPATCH, dispatch(null, "S56-1"));
+        service.execute(null, IdempotencyRecord.Operation.DISPATCH, dispatch(null, "S56-2"));
+
+        assertThat(executions).hasValue(2);
+        assertThat(repository.count()).isZero();
+    }
+
+    private Supplier<String> dispatch(String key, String transactionId) {
+        return action(key, IdempotencyRecord.Operation.DISPATCH, transactionId);
+    }
+
+    private Supplier<String> receive(String key, String transactionId) {
+        return action(key, IdempotencyRecord.Operation.RECEIVE, transactionId);
+    }
+
+    // 入出庫処理の代わり: トランザクション内で結果を記録する
+    private Supplier<String> action(String key, IdempotencyRecord.Operation operation, String transactionId) {
+        return () -> tx.execute(status -> {
+            executions.incrementAndGet();
+            service.record(key, operation, transactionId);
+            return transactionId;
+        });
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.backend.common.service;
+
+import com.example.backend.common.repository.NumberingMasterRepository;
+import com.example.backend.common.service.numbering.NumberingMetrics;
+import com.example.backend.entity.NumberingMaster;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("NumberingBlockAllocatorのブロック予約テスト")
+class NumberingBlockAllocatorTest {
+
+    @Mock
+    private NumberingMasterRepository numberingMasterRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NumberingMaster master;
+
+    @BeforeEach
+    void setUp() {
+        master = new NumberingMaster("S", "TX", 56);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().when(numberingMasterRepository.findByDepartmentCodeAndNumberingTypeAndFiscalYearForUpdate("S", "TX", 56))
+                .thenReturn(Optional.of(master));
+    }
+
+    @Test
+    @DisplayName("ブロック単位でのみ採番マスタをロックする")
+    void testNext_LocksOncePerBlock() {
+        NumberingBlockAllocator allocator = new NumberingBlockAllocator(
+                numberingMasterRepository, transactionManager, NumberingBlockAllocator.Mode.BLOCK, 100, new NumberingMetrics());
+
+        List<Long> numbers = IntStream.range(0, 250)
+                .mapToObj(i -> allocator.next("S", "TX", 56))
+                .toList();
+
+        assertThat(numbers).containsExactlyElementsOf(
+                IntStream.rangeClosed(1, 250).mapToObj(Long::valueOf).toList());
+        // 250件 = 3ブロック分のロックのみ
+        verify(numberingMasterRepository, times(3))
+                .findByDepartmentCodeAndNumberingTypeAndFiscalYearForUpdate("S", "TX", 56);
+        assertThat(master.getCurrentDecimalNumber()).isEqualTo(300L);
+    }
+
+    @Test
+    @DisplayName("並行呼び出しでも番号が重複しない")
+    void testNext_ConcurrentCallersGetUniqueNumbers() throws Exception {
+        NumberingBlockAllocator allocator = new NumberingBlockAllocator(
+                numberingMasterRepository, transactionManager, NumberingBlockAllocator.Mode.BLOCK, 50, new NumberingMetrics());
+        Set<Long> issued = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = IntStream.range(0, 16)
+                    .<Future<?>>mapToObj(t -> executor.submit(() -> {
+                        for (int i = 0; i < 200; i++) {
+                            issued.add(allocator.next("S", "TX", 56));
+                        }
+                    }))
+                    .toList();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(issued).hasSize(16 * 200);
+        assertThat(issued).allMatch(n -> n >= 1 && n <= 16 * 200);
+    }
+
+    @Test
+    @DisplayName("STRICTモードではブロック予約を使わない")
+    void testIsEnabled_StrictMode() {
+        NumberingBlockAllocator allocator = new NumberingBlockAllocator(
+                numberingMasterRepository, transactionManager, NumberingBlockAllocator.Mode.STRICT, 100, new NumberingMetrics());
+
+        assertThat(allocator.isEnabled()).isFalse();
+    }
+
+    @Test
+    @DisplayName("採番マスタが存在しない場合は新規作成してから予約する")
+    void testNext_CreatesMasterWhenMissing() {
+        when(numberingMasterRepository.findByDepartmentCodeAndNumberingTypeAndFiscalYearForUpdate("S", "ORDER", 57))
+                .thenReturn(Optional.empty());
+        when(numberingMasterRepository.save(any(NumberingMaster.class))).thenAnswer(inv -> inv.getArgument(0));
+        NumberingBlockAllocator allocator = new NumberingBlockAllocator(
+                numberingMasterRepository, transactionManager, NumberingBlockAllocator.Mode.BLOCK, 10, new NumberingMetrics());
+
+        assertThat(allocator.next("S", "ORDER", 57)).isEqualTo(1L);
+        assertThat(allocator.next("S", "ORDER", 57)).isEqualTo(2L);
+    }
+}
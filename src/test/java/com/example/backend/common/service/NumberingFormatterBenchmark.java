@@ -0,0 +1,68 @@
+package com.example.backend.common.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 採番文字列生成のJMHベンチマーク（従来の String.format 版と NumberingFormatter 版の比較）。
+ * 実行: main() を起動する。GCプロファイラの gc.alloc.rate.norm が1回あたりの割り当てバイト数。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberingFormatterBenchmark {
+
+    private static final int BASE_TERM = 56;
+    private static final int START_YEAR = 2024;
+    private static final int ZERO_PADDING = 6;
+
+    private final NumberingFormatter formatter = new NumberingFormatter();
+
+    private long number = 0x4E7;
+
+    @Benchmark
+    public String legacyStringFormat() {
+        int currentTerm = legacyResolveCurrentTerm();
+        String numberFormatted = String.format("%0" + ZERO_PADDING + "X", number++);
+        return String.format("%s%d-%s", "S", currentTerm, numberFormatted);
+    }
+
+    @Benchmark
+    public String numberingFormatter() {
+        return formatter.format("S", formatter.currentTerm(), number++);
+    }
+
+    // 変更前の TransactionIdGenerator#resolveCurrentTerm
+    private static int legacyResolveCurrentTerm() {
+        LocalDate now = LocalDate.now();
+        int year = now.getYear();
+        LocalDate cutoff = LocalDate.of(year, 8, 1);
+        if (now.isBefore(cutoff)) {
+            year--;
+        }
+        return BASE_TERM + (year - START_YEAR);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(NumberingFormatterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.backend.common.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("NumberingFormatterの採番文字列生成テスト")
+class NumberingFormatterTest {
+
+    private static final ZoneId JST = ZoneId.of("Asia/Tokyo");
+
+    @Test
+    @DisplayName("従来の String.format と同じ文字列を生成する")
+    void testFormat_SameAsStringFormat() {
+        NumberingFormatter formatter = new NumberingFormatter();
+        long[] samples = { 0, 1, 0x4E7, 0xFFFFFF, 0x1000000, 123_456_789_012L, Long.MAX_VALUE, -1 };
+
+        for (long n : samples) {
+            assertThat(formatter.format("S", 56, n))
+                    .isEqualTo(String.format("%s%d-%s", "S", 56, String.format("%06X", n)));
+            assertThat(formatter.formatItemCode("I", n))
+                    .isEqualTo(String.format("%s-%s", "I", String.format("%06X", n)));
+        }
+        assertThat(formatter.format("S", 100, 1)).isEqualTo("S100-000001");
+    }
+
+    @Test
+    @DisplayName("期は8月1日0時に切り替わる")
+    void testCurrentTerm_SwitchesAtAugustFirst() {
+        AtomicReference<Instant> now = new AtomicReference<>(at(2025, 7, 31, 23, 59));
+        NumberingFormatter formatter = new NumberingFormatter(new MutableClock(now));
+
+        assertThat(formatter.currentTerm()).isEqualTo(56);
+
+        now.set(at(2025, 8, 1, 0, 0));
+        assertThat(formatter.currentTerm()).isEqualTo(57);
+
+        now.set(at(2026, 1, 15, 12, 0));
+        assertThat(formatter.currentTerm()).isEqualTo(57);
+    }
+
+    @Test
+    @DisplayName("従来の生成処理より割り当てバイト数が少ない")
+    void testFormat_AllocatesLessThanStringFormat() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        NumberingFormatter formatter = new NumberingFormatter();
+        int calls = 20_000;
+
+        // ウォームアップ
+        for (int i = 0; i < calls; i++) {
+            legacy(i);
+            formatter.format("S", formatter.currentTerm(), i);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < calls; i++) {
+            legacy(i);
+        }
+        long legacyBytes = threads.getCurrentThreadAllocatedBytes() - before;
+
+        before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < calls; i++) {
+            formatter.format("S", formatter.currentTerm(), i);
+        }
+        long formatterBytes = threads.getCurrentThreadAllocatedBytes() - before;
+
+        System.out.printf("[numbering formatter] bytes/call legacy=%d formatter=%d%n",
+                legacyBytes / calls, formatterBytes / calls);
+        assertThat(formatterBytes).isLessThan(legacyBytes / 4);
+    }
+
+    // 変更前の TransactionIdGenerator#generateNumber の文字列生成部分
+    private static String legacy(long n) {
+        java.time.LocalDate now = java.time.LocalDate.now();
+        int year = now.getYear();
+        if (now.isBefore(java.time.LocalDate.of(year, 8, 1))) {
+            year--;
+        }
+        int term = 56 + (year - 2024);
+        String numberFormatted = String.format("%0" + 6 + "X", n);
+        return String.format("%s%d-%s", "S", term, numberFormatted);
+    }
+
+    private static Instant at(int year, int month, int day, int hour, int minute) {
+        return LocalDateTime.of(year, month, day, hour, minute).atZone(JST).toInstant();
+    }
+
+    private static final class MutableClock extends Clock {
+        private final AtomicReference<Instant> now;
+
+        private MutableClock(AtomicReference<Instant> now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return JST;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now.get();
+        }
+    }
+}
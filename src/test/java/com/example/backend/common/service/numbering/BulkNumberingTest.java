@@ -0,0 +1,83 @@
+package com.example.backend.common.service.numbering;
+
+import com.example.backend.common.repository.NumberingMasterRepository;
+import com.example.backend.common.service.NumberingBlockAllocator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // 採番は別トランザクションでコミットされるため
+@DisplayName("一括採番のテスト")
+class BulkNumberingTest {
+
+    @Autowired
+    private NumberingMasterRepository numberingMasterRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("tableエンジン：1万件を1回のロックで連続した番号として確保する")
+    void testTableEngine_ReservesContiguousRangeWithOneLock() {
+        NumberingMetrics metrics = new NumberingMetrics();
+        NumberingStrategy table = new TableNumberingStrategy(numberingMasterRepository,
+                new NumberingBlockAllocator(numberingMasterRepository, transactionManager,
+                        NumberingBlockAllocator.Mode.STRICT, 100, metrics),
+                transactionManager, metrics);
+
+        long single = table.next("S", "BULK_T", 56);
+        long[] numbers = table.next("S", "BULK_T", 56, 10_000);
+
+        assertThat(single).isEqualTo(1L);
+        assertThat(numbers).hasSize(10_000);
+        assertThat(numbers[0]).isEqualTo(2L);
+        assertThat(numbers[9_999]).isEqualTo(10_001L);
+        assertThat(metrics.snapshot().get("BULK_T").lockCount()).isEqualTo(2);
+        assertThat(numberingMasterRepository.findByDepartmentCodeAndNumberingTypeAndFiscalYear("S", "BULK_T", 56))
+                .get()
+                .extracting(m -> m.getCurrentDecimalNumber())
+                .isEqualTo(10_001L);
+    }
+
+    @Test
+    @DisplayName("sequenceエンジン：1回の問い合わせで一意な番号を件数分取得する")
+    void testSequenceEngine_FetchesAllInOneQuery() {
+        NumberingMetrics metrics = new NumberingMetrics();
+        NumberingStrategy sequence = new SequenceNumberingStrategy(jdbcTemplate, numberingMasterRepository,
+                transactionManager, metrics);
+
+        long[] numbers = sequence.next("S", "BULK_Q", 56, 10_000);
+
+        assertThat(numbers).hasSize(10_000);
+        assertThat(Arrays.stream(numbers).distinct().count()).isEqualTo(10_000);
+        assertThat(numbers).isSorted();
+        assertThat(metrics.snapshot().get("BULK_Q").lockCount()).isEqualTo(1);
+        assertThat(sequence.next("S", "BULK_Q", 56)).isGreaterThan(numbers[9_999]);
+    }
+
+    @Test
+    @DisplayName("0件指定の場合は採番しない")
+    void testZeroCount_ReturnsEmpty() {
+        NumberingMetrics metrics = new NumberingMetrics();
+        NumberingStrategy table = new TableNumberingStrategy(numberingMasterRepository,
+                new NumberingBlockAllocator(numberingMasterRepository, transactionManager,
+                        NumberingBlockAllocator.Mode.STRICT, 100, metrics),
+                transactionManager, metrics);
+
+        assertThat(table.next("S", "BULK_Z", 56, 0)).isEmpty();
+        assertThat(metrics.snapshot()).isEmpty();
+    }
+}
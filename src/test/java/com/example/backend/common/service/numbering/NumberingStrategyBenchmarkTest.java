@@ -0,0 +1,121 @@
+package com.example.backend.common.service.numbering;
+
+import com.example.backend.common.repository.NumberingMasterRepository;
+import com.example.backend.common.service.NumberingBlockAllocator;
+import com.example.backend.entity.NumberingMaster;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 採番エンジンの簡易ベンチマーク。
+ * 32スレッドから同時に採番し、スループットと番号の一意性を確認する。
+ * 各呼び出しは業務処理と同様に呼び出し元トランザクション内で実行する。
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // 各スレッドで個別にコミットさせる
+@DisplayName("採番エンジンの並行採番ベンチマーク")
+class NumberingStrategyBenchmarkTest {
+
+    private static final int CALLERS = 32;
+    private static final int CALLS_PER_CALLER = 100;
+    private static final int FISCAL_YEAR = 56;
+
+    @Autowired
+    private NumberingMasterRepository numberingMasterRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("table / table(BLOCK) / sequence の各エンジンで32並行採番を比較する")
+    void benchmarkEnginesWith32ConcurrentCallers() throws Exception {
+        NumberingMetrics metrics = new NumberingMetrics();
+        NumberingStrategy table = new TableNumberingStrategy(numberingMasterRepository,
+                new NumberingBlockAllocator(numberingMasterRepository, transactionManager,
+                        NumberingBlockAllocator.Mode.STRICT, 100, metrics),
+                transactionManager, metrics);
+        NumberingStrategy tableBlock = new TableNumberingStrategy(numberingMasterRepository,
+                new NumberingBlockAllocator(numberingMasterRepository, transactionManager,
+                        NumberingBlockAllocator.Mode.BLOCK, 100, metrics),
+                transactionManager, metrics);
+        NumberingStrategy sequence = new SequenceNumberingStrategy(jdbcTemplate, numberingMasterRepository,
+                transactionManager, metrics);
+
+        Result tableResult = run("table", table, "BENCH_T");
+        Result blockResult = run("table(BLOCK)", tableBlock, "BENCH_B");
+        Result sequenceResult = run("sequence", sequence, "BENCH_Q");
+
+        for (Result result : List.of(tableResult, blockResult, sequenceResult)) {
+            System.out.printf("[numbering benchmark] %-13s %6d calls in %6d ms (%,.0f ops/s)%n",
+                    result.engine(), result.calls(), result.elapsedMillis(), result.opsPerSecond());
+            assertThat(result.uniqueNumbers()).isEqualTo(CALLERS * CALLS_PER_CALLER);
+        }
+        metrics.snapshot().forEach((type, s) -> System.out.printf(
+                "[numbering benchmark] %-8s locks=%5d wait avg=%.3fms max=%.3fms hold avg=%.3fms max=%.3fms%n",
+                type, s.lockCount(), s.waitAvgMillis(), s.waitMaxMillis(), s.holdAvgMillis(), s.holdMaxMillis()));
+        // BLOCK モードではブロック単位（100件）でしかロックしない
+        assertThat(metrics.snapshot().get("BENCH_B").lockCount()).isEqualTo(CALLERS * CALLS_PER_CALLER / 100);
+    }
+
+    private Result run(String engine, NumberingStrategy strategy, String numberingType) throws Exception {
+        // 採番マスタの行を事前に作成しておく（行の同時新規作成による重複を避ける）
+        numberingMasterRepository.saveAndFlush(new NumberingMaster("S", numberingType, FISCAL_YEAR));
+
+        TransactionTemplate callerTransaction = new TransactionTemplate(transactionManager);
+        Set<Long> issued = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < CALLERS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < CALLS_PER_CALLER; i++) {
+                        Long number = callerTransaction
+                                .execute(status -> strategy.next("S", numberingType, FISCAL_YEAR));
+                        issued.add(number);
+                    }
+                    return null;
+                }));
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+            long elapsedNanos = System.nanoTime() - begin;
+
+            int calls = CALLERS * CALLS_PER_CALLER;
+            return new Result(engine, calls, issued.size(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    calls / (elapsedNanos / 1_000_000_000.0));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private record Result(String engine, int calls, int uniqueNumbers, long elapsedMillis, double opsPerSecond) {
+    }
+}
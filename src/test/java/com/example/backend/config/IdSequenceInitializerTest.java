@@ -0,0 +1,70 @@
+package com.example.backend.config;
+
+import com.example.backend.entity.InventoryTransaction;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.inventory.repository.InventoryTransactionRepository;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(IdSequenceInitializer.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // ALTER SEQUENCE は暗黙にコミットされるため
+@DisplayName("IdSequenceInitializerのシーケンス調整テスト")
+class IdSequenceInitializerTest {
+
+    @Autowired
+    private IdSequenceInitializer idSequenceInitializer;
+
+    @Autowired
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Autowired
+    private StockMasterRepository stockMasterRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        inventoryTransactionRepository.deleteAll();
+        stockMasterRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("成功：IDENTITY 時代の行が残っていても、新しい行は既存IDの続きから採番される")
+    void testAlign_StartsAfterExistingIds() {
+        StockMaster stock = new StockMaster();
+        stock.setId(1L);
+        stock.setItemCode("A-0001");
+        stock.setItemName("軍手");
+        stock.setCategory("消耗品");
+        stockMasterRepository.save(stock);
+        jdbcTemplate.update("INSERT INTO inventory_transaction (id, transaction_id, item_code, transaction_type,"
+                + " quantity, operator, transaction_time) VALUES (1234, 'S56-OLD', 'A-0001', 'MANUAL_RECEIVE', 1,"
+                + " 'legacy', CURRENT_TIMESTAMP)");
+
+        idSequenceInitializer.afterSingletonsInstantiated();
+
+        InventoryTransaction tx = new InventoryTransaction();
+        tx.setTransactionId("S56-NEW");
+        tx.setStockItem(stock);
+        tx.setTransactionType(InventoryTransaction.TransactionType.MANUAL_RECEIVE);
+        tx.setQuantity(BigDecimal.ONE);
+        tx.setOperator("picker");
+        tx.setTransactionTime(LocalDateTime.now());
+        assertThat(inventoryTransactionRepository.save(tx).getId()).isGreaterThan(1234L);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.backend.config;
+
+import com.example.backend.entity.PurchaseOrder;
+import com.example.backend.entity.PurchaseOrderDetail;
+import com.example.backend.order.repository.PurchaseOrderRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(PurchaseOrderTotalsInitializer.class)
+@DisplayName("PurchaseOrderTotalsInitializerの集計補完テスト")
+class PurchaseOrderTotalsInitializerTest {
+
+    @Autowired
+    private PurchaseOrderTotalsInitializer purchaseOrderTotalsInitializer;
+
+    @Autowired
+    private PurchaseOrderRepository purchaseOrderRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("成功：集計列が未設定の発注は明細から補完され、未完了一覧に含まれる。補完済みの発注は変えない")
+    void testBackfill_FromDetails() {
+        // 集計列の追加前に登録された発注（addLine を通っていない）
+        PurchaseOrder legacy = order("PO-OLD");
+        detail(legacy, "10", "10", "完了");
+        detail(legacy, "5", "2", "一部入庫");
+        detail(legacy, "3", "0", "未入庫");
+        // 補完済みの発注（集計が明細と異なっても上書きしない）
+        PurchaseOrder current = order("PO-NEW");
+        detail(current, "4", "4", "完了");
+        current.setOrderedQuantityTotal(new BigDecimal("4"));
+        current.setReceivedQuantityTotal(new BigDecimal("4"));
+        current.setOpenLineCount(1);
+        entityManager.flush();
+        entityManager.clear();
+
+        purchaseOrderTotalsInitializer.afterSingletonsInstantiated();
+
+        PurchaseOrder backfilled = purchaseOrderRepository.findByOrderNo("PO-OLD").orElseThrow();
+        assertThat(backfilled.getOpenLineCount()).isEqualTo(2);
+        assertThat(backfilled.isAllLinesCompleted()).isFalse();
+        assertThat(backfilled.getOrderedQuantityTotal()).isEqualByComparingTo("18");
+        assertThat(backfilled.getReceivedQuantityTotal()).isEqualByComparingTo("12");
+        assertThat(purchaseOrderRepository.findByOrderNo("PO-NEW").orElseThrow().getOpenLineCount()).isEqualTo(1);
+        assertThat(purchaseOrderRepository.findByOpenLineCountGreaterThan(0, PageRequest.of(0, 10)))
+                .extracting(PurchaseOrder::getOrderNo).containsExactlyInAnyOrder("PO-OLD", "PO-NEW");
+    }
+
+    private PurchaseOrder order(String orderNo) {
+        PurchaseOrder order = new PurchaseOrder();
+        order.setOrderNo(orderNo);
+        order.setSupplier("テスト商事");
+        order.setOrderDate(LocalDate.now());
+        order.setOrderType(PurchaseOrder.OrderType.INVENTORY);
+        order.setOperator("buyer");
+        entityManager.persist(order);
+        return order;
+    }
+
+    private void detail(PurchaseOrder order, String quantity, String received, String status) {
+        PurchaseOrderDetail detail = new PurchaseOrderDetail();
+        detail.setPurchaseOrder(order);
+        detail.setItemName("部品");
+        detail.setCategory("部品");
+        detail.setQuantity(new BigDecimal(quantity));
+        detail.setReceivedQuantity(new BigDecimal(received));
+        detail.setStatus(status);
+        entityManager.persist(detail);
+    }
+}
@@ -1,5 +1,181 @@
 package com.example.backend.inventory.repository;
 
-public class StockMasterRepositoryTest {
-    
+import com.example.backend.common.service.ItemCodeGenerator;
+import com.example.backend.common.service.NumberingFormatter;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.inventory.dto.StockMasterRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("StockMasterRepositoryの在庫登録・出庫テスト")
+class StockMasterRepositoryTest {
+
+    @Autowired
+    private StockMasterRepository stockMasterRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ItemCodeGenerator itemCodeGenerator;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        itemCodeGenerator = new ItemCodeGenerator(jdbcTemplate, transactionManager, new NumberingFormatter());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("成功：新規在庫はitemCode込みのINSERT 1回で登録される")
+    void testCreateStock_SingleInsert() {
+        StockMasterRequest req = new StockMasterRequest();
+        req.setItemName("六角ボルト");
+        req.setModelNumber("M6-20");
+        req.setCategory("部品");
+        req.setManufacturer("テスト工業");
+
+        StockMaster stock = StockMaster.createStock(req, stockMasterRepository, itemCodeGenerator);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getEntityUpdateCount()).isZero();
+        assertThat(statistics.getEntityLoadCount()).isZero(); // merge前のSELECTも発生しない
+
+        entityManager.clear();
+        StockMaster found = stockMasterRepository.findById(stock.getId()).orElseThrow();
+        assertThat(found.getItemCode()).isEqualTo(itemCodeGenerator.generateItemCode(stock.getId()));
+        assertThat(found.getCurrentStock()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    @DisplayName("成功：CSVからの複数登録でもUPDATEが発生しない")
+    void testCreateStockFromCsv_NoUpdate() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            String[] csv = { "品名" + i, "MODEL-" + i, "部品", "", "仕入先", "5", "", "" };
+            StockMaster.createStockFromCsv(csv, stockMasterRepository, itemCodeGenerator);
+        }
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(3);
+        assertThat(statistics.getEntityUpdateCount()).isZero();
+        assertThat(stockMasterRepository.findAll())
+                .allSatisfy(s -> assertThat(s.getItemCode()).isEqualTo(itemCodeGenerator.generateItemCode(s.getId())));
+    }
+
+    @Test
+    @DisplayName("成功：在庫が足りる場合のみ減算される")
+    void testDecreaseStockIfAvailable() {
+        StockMaster stock = saveStock(new BigDecimal("5"));
+
+        assertThat(stockMasterRepository.decreaseStockIfAvailable(stock.getItemCode(), new BigDecimal("3"),
+                LocalDateTime.now())).isEqualTo(1);
+        assertThat(stockMasterRepository.decreaseStockIfAvailable(stock.getItemCode(), new BigDecimal("3"),
+                LocalDateTime.now())).isZero();
+        assertThat(stockMasterRepository.decreaseStockIfAvailable("I-NONE", BigDecimal.ONE,
+                LocalDateTime.now())).isZero();
+
+        assertThat(stockMasterRepository.findByItemCode(stock.getItemCode()).orElseThrow().getCurrentStock())
+                .isEqualByComparingTo("2");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // 各スレッドで個別にコミットさせる
+    @DisplayName("成功：同時出庫でも在庫以上に減算されない")
+    void testDecreaseStockIfAvailable_Concurrent() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        StockMaster stock = tx.execute(status -> saveStock(new BigDecimal("100")));
+        AtomicInteger succeeded = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(20);
+        try {
+            List<Future<?>> futures = IntStream.range(0, 20)
+                    .<Future<?>>mapToObj(i -> executor.submit(() -> {
+                        Integer updated = tx.execute(status -> stockMasterRepository
+                                .decreaseStockIfAvailable(stock.getItemCode(), new BigDecimal("7"), LocalDateTime.now()));
+                        if (updated == 1) {
+                            succeeded.incrementAndGet();
+                        }
+                    }))
+                    .toList();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 100 / 7 = 14件のみ成功し、残り2
+        assertThat(succeeded.get()).isEqualTo(14);
+        assertThat(stockMasterRepository.findByItemCode(stock.getItemCode()).orElseThrow().getCurrentStock())
+                .isEqualByComparingTo("2");
+        tx.executeWithoutResult(status -> stockMasterRepository.deleteById(stock.getId()));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("失敗：古いバージョンの在庫で更新すると楽観的排他エラーになる")
+    void testVersion_StaleUpdateIsRejected() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        StockMaster stock = tx.execute(status -> saveStock(new BigDecimal("10")));
+        StockMaster stale = stockMasterRepository.findById(stock.getId()).orElseThrow();
+
+        // 別の処理が先に出庫（一括更新でも version が進む）
+        tx.execute(status -> stockMasterRepository.decreaseStockIfAvailable(stock.getItemCode(), BigDecimal.ONE,
+                LocalDateTime.now()));
+
+        stale.setCurrentStock(stale.getCurrentStock().add(BigDecimal.ONE));
+        assertThatThrownBy(() -> tx.execute(status -> stockMasterRepository.save(stale)))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(stockMasterRepository.findById(stock.getId()).orElseThrow().getCurrentStock())
+                .isEqualByComparingTo("9");
+        tx.executeWithoutResult(status -> stockMasterRepository.deleteById(stock.getId()));
+    }
+
+    private StockMaster saveStock(BigDecimal currentStock) {
+        StockMaster stock = new StockMaster();
+        stock.setItemName("出庫テスト品");
+        stock.setCategory("部品");
+        stock.setCurrentStock(currentStock);
+        stock.assignIdentity(itemCodeGenerator);
+        return stockMasterRepository.saveAndFlush(stock);
+    }
 }
@@ -0,0 +1,145 @@
+package com.example.backend.inventory.repository;
+
+import com.example.backend.entity.InventoryTransaction;
+import com.example.backend.entity.PurchaseOrder;
+import com.example.backend.entity.StockMaster;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@DisplayName("TransactionSpecificationBuilderの条件組み立てテスト")
+class TransactionSpecificationBuilderTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 10, 1, 9, 0);
+
+    @Autowired
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private PurchaseOrder order;
+
+    @BeforeEach
+    void setUp() {
+        StockMaster gloves = stock(1L, "A-0001", "軍手");
+        StockMaster tape = stock(2L, "B-0002", "養生テープ");
+        order = new PurchaseOrder();
+        order.setOrderNo("PO-1");
+        order.setSupplier("テスト商事");
+        order.setOrderDate(LocalDate.of(2026, 10, 1));
+        order.setOrderType(PurchaseOrder.OrderType.INVENTORY);
+        order.setOperator("buyer");
+        entityManager.persist(order);
+
+        tx("S56-1", gloves, InventoryTransaction.TransactionType.PURCHASE_RECEIVE, "buyer", order, "テスト商事", 0);
+        tx("S56-2", tape, InventoryTransaction.TransactionType.PURCHASE_RECEIVE, "buyer", order, "テスト商事", 1);
+        tx("S56-3", gloves, InventoryTransaction.TransactionType.MANUAL_DISPATCH, "picker", null, null, 2);
+        tx("S56-4", tape, InventoryTransaction.TransactionType.MANUAL_RECEIVE, "picker", null, "50%_off商会", 3);
+        tx("S56-5", gloves, InventoryTransaction.TransactionType.MANUAL_RECEIVE, "picker", null, "500ff商会", 4);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("成功：指定した条件の述語だけで絞り込み、処理日時の新しい順に返す")
+    void testBuild_OnlySuppliedPredicates() {
+        assertThat(ids(new TransactionSpecificationBuilder().build()))
+                .containsExactly("S56-5", "S56-4", "S56-3", "S56-2", "S56-1");
+
+        assertThat(ids(new TransactionSpecificationBuilder()
+                .transactionType(InventoryTransaction.TransactionType.MANUAL_RECEIVE)
+                .itemCodeContaining(" ") // 空白のみは条件にしない
+                .build())).containsExactly("S56-5", "S56-4");
+
+        assertThat(ids(new TransactionSpecificationBuilder()
+                .orderNo("PO-1")
+                .supplierContaining("テスト")
+                .itemCodeContaining("B-")
+                .build())).containsExactly("S56-2");
+
+        assertThat(ids(new TransactionSpecificationBuilder()
+                .itemCodeContaining("A-00")
+                .operatorContaining("pick")
+                .transactionTimeBetween(BASE.plusHours(2), BASE.plusHours(3))
+                .build())).containsExactly("S56-3");
+
+        // 片側だけの期間は条件にしない
+        assertThat(ids(new TransactionSpecificationBuilder()
+                .transactionTimeBetween(BASE.plusHours(10), null)
+                .build())).hasSize(5);
+    }
+
+    @Test
+    @DisplayName("成功：キーワード中の % と _ はワイルドカードではなく文字として扱う")
+    void testBuild_EscapesWildcards() {
+        assertThat(ids(new TransactionSpecificationBuilder().supplierContaining("50%_").build()))
+                .containsExactly("S56-4");
+        assertThat(ids(new TransactionSpecificationBuilder().supplierContaining("商会").build()))
+                .containsExactly("S56-5", "S56-4");
+    }
+
+    @Test
+    @DisplayName("成功：仕入先は履歴に未設定なら発注の仕入先で判定し、発注のない履歴も対象に残す")
+    void testBuild_SupplierFallsBackToOrder() {
+        StockMaster gloves = entityManager.find(StockMaster.class, 1L);
+        PurchaseOrder linked = entityManager.find(PurchaseOrder.class, order.getId());
+        // 発注品の入庫・発注登録は仕入先を発注にだけ持つ
+        tx("S56-6", gloves, InventoryTransaction.TransactionType.PURCHASE_RECEIVE, "buyer", linked, null, 5);
+        tx("S56-7", gloves, InventoryTransaction.TransactionType.ORDER_REGIST, "buyer", linked, null, 6);
+        tx("S56-8", gloves, InventoryTransaction.TransactionType.MANUAL_RECEIVE, "picker", linked, "直送商会", 7);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(ids(new TransactionSpecificationBuilder().supplierContaining("テスト商事").build()))
+                .containsExactly("S56-7", "S56-6", "S56-2", "S56-1");
+        // 履歴の仕入先が優先され、発注のない履歴も一致すれば返す
+        assertThat(ids(new TransactionSpecificationBuilder().supplierContaining("商会").build()))
+                .containsExactly("S56-8", "S56-5", "S56-4");
+    }
+
+    private List<String> ids(Specification<InventoryTransaction> spec) {
+        return inventoryTransactionRepository
+                .findAll(spec, PageRequest.of(0, 10, Sort.by(Sort.Order.desc("transactionTime"))))
+                .map(InventoryTransaction::getTransactionId)
+                .getContent();
+    }
+
+    private StockMaster stock(Long id, String itemCode, String itemName) {
+        StockMaster s = new StockMaster();
+        s.setId(id);
+        s.setItemCode(itemCode);
+        s.setItemName(itemName);
+        s.setCategory("消耗品");
+        entityManager.persist(s);
+        return s;
+    }
+
+    private void tx(String transactionId, StockMaster stock, InventoryTransaction.TransactionType type,
+            String operator, PurchaseOrder order, String supplier, int hours) {
+        InventoryTransaction t = new InventoryTransaction();
+        t.setTransactionId(transactionId);
+        t.setStockItem(stock);
+        t.setTransactionType(type);
+        t.setQuantity(BigDecimal.ONE);
+        t.setOperator(operator);
+        t.setPurchaseOrder(order);
+        t.setSupplier(supplier);
+        t.setTransactionTime(BASE.plusHours(hours));
+        entityManager.persist(t);
+    }
+}
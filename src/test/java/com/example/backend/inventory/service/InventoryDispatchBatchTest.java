@@ -0,0 +1,235 @@
+package com.example.backend.inventory.service;
+
+import com.example.backend.common.service.IdempotencyService;
+import com.example.backend.common.service.ItemCodeGenerator;
+import com.example.backend.common.service.NumberingFormatter;
+import com.example.backend.common.service.OrderNumberGenerator;
+import com.example.backend.common.service.TransactionIdGenerator;
+import com.example.backend.config.HibernateBatchConfig;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.inventory.dto.InventoryDispatchBatchRequest;
+import com.example.backend.inventory.dto.InventoryDispatchBatchResponse;
+import com.example.backend.inventory.dto.InventoryDispatchRequest;
+import com.example.backend.inventory.repository.InventoryTransactionRepository;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import com.example.backend.order.repository.PurchaseOrderDetailRepository;
+import com.example.backend.order.repository.PurchaseOrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ValidationException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(HibernateBatchConfig.class)
+@DisplayName("InventoryServiceの一括出庫テスト")
+class InventoryDispatchBatchTest {
+
+    @Autowired
+    private StockMasterRepository stockMasterRepository;
+
+    @Autowired
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Autowired
+    private PurchaseOrderRepository purchaseOrderRepository;
+
+    @Autowired
+    private PurchaseOrderDetailRepository purchaseOrderDetailRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionIdGenerator transactionIdGenerator;
+    private InventoryService inventoryService;
+    private Statistics statistics;
+    private ReservationService reservationService;
+    private StockMaster gloves;
+    private StockMaster tape;
+
+    @BeforeEach
+    void setUp() {
+        AtomicInteger sequence = new AtomicInteger();
+        transactionIdGenerator = mock(TransactionIdGenerator.class);
+        when(transactionIdGenerator.generateTxNos(anyInt())).thenAnswer(inv -> IntStream
+                .range(0, inv.<Integer>getArgument(0))
+                .mapToObj(i -> "S56-" + sequence.incrementAndGet())
+                .toList());
+        ItemCodeGenerator itemCodeGenerator = new ItemCodeGenerator(jdbcTemplate, transactionManager,
+                new NumberingFormatter());
+        reservationService = mock(ReservationService.class);
+        when(reservationService.getReservedQuantity(any())).thenReturn(BigDecimal.ZERO);
+        inventoryService = new InventoryService(stockMasterRepository, inventoryTransactionRepository,
+                purchaseOrderRepository, purchaseOrderDetailRepository, itemCodeGenerator,
+                mock(OrderNumberGenerator.class), transactionIdGenerator, mock(StockUpdateCoalescer.class),
+                mock(IdempotencyService.class), mock(InventoryJournal.class),
+                reservationService, mock(StockSearchIndex.class));
+
+        gloves = newStock("軍手", "10", itemCodeGenerator);
+        tape = newStock("養生テープ", "3", itemCodeGenerator);
+        entityManager.flush();
+        entityManager.clear();
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("picker", null));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("成功：在庫は1回のクエリで取得し、採番も1回で全明細を出庫する")
+    void testDispatchBatch_AllOrNothing_Success() {
+        InventoryDispatchBatchResponse result = inventoryService.dispatchInventoryBatch(request(null,
+                line(gloves, "4"), line(tape, "3"), line(gloves, "6")));
+        entityManager.flush();
+
+        assertThat(result.getMode()).isEqualTo(InventoryDispatchBatchRequest.Mode.ALL_OR_NOTHING);
+        assertThat(result.getAcceptedCount()).isEqualTo(3);
+        assertThat(result.getLines()).extracting(InventoryDispatchBatchResponse.Line::getTransactionId)
+                .containsExactly("S56-1", "S56-2", "S56-3");
+        // 在庫と保管場所に割り当て済みの数量をそれぞれ1回のクエリで取得
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(2);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(2); // 同じ品目の明細は1回の更新にまとまる
+        verify(transactionIdGenerator, times(1)).generateTxNos(3);
+
+        entityManager.clear();
+        assertThat(stock(gloves).getCurrentStock()).isEqualByComparingTo("0");
+        assertThat(stock(tape).getCurrentStock()).isEqualByComparingTo("0");
+        assertThat(inventoryTransactionRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("失敗：ALL_OR_NOTHING は1明細でも出庫できなければ何も反映しない")
+    void testDispatchBatch_AllOrNothing_Rejects() {
+        assertThatThrownBy(() -> inventoryService.dispatchInventoryBatch(request(null,
+                line(gloves, "4"), line(tape, "5"))))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("2行目 " + tape.getItemCode() + ": 在庫が不足しています");
+        entityManager.flush();
+
+        verify(transactionIdGenerator, never()).generateTxNos(anyInt());
+        entityManager.clear();
+        assertThat(stock(gloves).getCurrentStock()).isEqualByComparingTo("10");
+        assertThat(inventoryTransactionRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("成功：BEST_EFFORT は出庫できる明細のみ反映し、残りは理由付きで返す")
+    void testDispatchBatch_BestEffort() {
+        InventoryDispatchBatchResponse result = inventoryService.dispatchInventoryBatch(
+                request(InventoryDispatchBatchRequest.Mode.BEST_EFFORT,
+                        line(gloves, "7"), line(gloves, "7"), line(tape, "2"), line("I-FFFFFF", "1"),
+                        line(tape, "0")));
+        entityManager.flush();
+
+        assertThat(result.getAcceptedCount()).isEqualTo(2);
+        assertThat(result.getRejectedCount()).isEqualTo(3);
+        assertThat(result.getLines()).extracting(InventoryDispatchBatchResponse.Line::getStatus).containsExactly(
+                InventoryDispatchBatchResponse.Status.SUCCESS,
+                InventoryDispatchBatchResponse.Status.INSUFFICIENT_STOCK,
+                InventoryDispatchBatchResponse.Status.SUCCESS,
+                InventoryDispatchBatchResponse.Status.NOT_FOUND,
+                InventoryDispatchBatchResponse.Status.INVALID);
+
+        entityManager.clear();
+        assertThat(stock(gloves).getCurrentStock()).isEqualByComparingTo("3");
+        assertThat(stock(tape).getCurrentStock()).isEqualByComparingTo("1");
+        assertThat(inventoryTransactionRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("成功：仮引当中の数量は出庫せず、引当を指定した明細は自分の引当分を出庫して解除する")
+    void testDispatchBatch_RespectsReservations() {
+        when(reservationService.getReservedQuantity(gloves.getItemCode())).thenReturn(new BigDecimal("6"));
+        when(reservationService.getReservedQuantityExcluding(gloves.getItemCode(), "R-1"))
+                .thenReturn(new BigDecimal("2"));
+        InventoryDispatchRequest reserved = line(gloves, "4");
+        reserved.setReservationId("R-1");
+
+        InventoryDispatchBatchResponse result = inventoryService.dispatchInventoryBatch(
+                request(InventoryDispatchBatchRequest.Mode.BEST_EFFORT,
+                        line(gloves, "5"), reserved, line(gloves, "4")));
+        entityManager.flush();
+
+        // 在庫10のうち引当6（R-1 の4を含む）を除いた4まで出庫でき、R-1 の明細は自分の引当分を出庫できる
+        assertThat(result.getLines()).extracting(InventoryDispatchBatchResponse.Line::getStatus).containsExactly(
+                InventoryDispatchBatchResponse.Status.INSUFFICIENT_STOCK,
+                InventoryDispatchBatchResponse.Status.SUCCESS,
+                InventoryDispatchBatchResponse.Status.SUCCESS);
+        verify(reservationService).releaseAfterCommit("R-1");
+
+        entityManager.clear();
+        assertThat(stock(gloves).getCurrentStock()).isEqualByComparingTo("2"); // 他の引当分だけ残る
+    }
+
+    private StockMaster newStock(String name, String quantity, ItemCodeGenerator itemCodeGenerator) {
+        StockMaster stock = new StockMaster();
+        stock.setItemName(name);
+        stock.setCategory("消耗品");
+        stock.setCurrentStock(new BigDecimal(quantity));
+        stock.assignIdentity(itemCodeGenerator);
+        return stockMasterRepository.save(stock);
+    }
+
+    private StockMaster stock(StockMaster stock) {
+        return stockMasterRepository.findByItemCode(stock.getItemCode()).orElseThrow();
+    }
+
+    private static InventoryDispatchBatchRequest request(InventoryDispatchBatchRequest.Mode mode,
+            InventoryDispatchRequest... lines) {
+        InventoryDispatchBatchRequest req = new InventoryDispatchBatchRequest();
+        req.setMode(mode);
+        req.setItems(List.of(lines));
+        return req;
+    }
+
+    private static InventoryDispatchRequest line(StockMaster stock, String quantity) {
+        return line(stock.getItemCode(), quantity);
+    }
+
+    private static InventoryDispatchRequest line(String itemCode, String quantity) {
+        InventoryDispatchRequest req = new InventoryDispatchRequest();
+        req.setItemCode(itemCode);
+        req.setQuantity(new BigDecimal(quantity));
+        return req;
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.backend.inventory.service;
+
+import com.example.backend.common.service.ItemCodeGenerator;
+import com.example.backend.common.service.NumberingFormatter;
+import com.example.backend.entity.InventoryTransaction;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.inventory.repository.InventoryTransactionRepository;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // DB反映は別トランザクションでコミットするため
+@DisplayName("InventoryJournalの追記・DB反映・再起動時の読み直しテスト")
+class InventoryJournalTest {
+
+    private static final int CALLERS = 32;
+
+    @Autowired
+    private StockMasterRepository stockMasterRepository;
+
+    @Autowired
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path dir;
+
+    private final List<InventoryJournal> journals = new ArrayList<>();
+    private StockMaster stock;
+
+    @BeforeEach
+    void setUp() {
+        ItemCodeGenerator itemCodeGenerator = new ItemCodeGenerator(jdbcTemplate, transactionManager,
+                new NumberingFormatter());
+        stock = new TransactionTemplate(transactionManager).execute(status -> {
+            StockMaster s = new StockMaster();
+            s.setItemName("軍手");
+            s.setCategory("消耗品");
+            s.setCurrentStock(new BigDecimal("10"));
+            s.assignIdentity(itemCodeGenerator);
+            return stockMasterRepository.save(s);
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (InventoryJournal journal : journals) {
+            journal.stop();
+        }
+        inventoryTransactionRepository.deleteAll();
+        stockMasterRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("成功：同時の追記は少ない fsync 回数にまとまり、DB反映でまとめて登録される")
+    void testAppend_GroupCommitAndDrain() throws Exception {
+        InventoryJournal journal = open(dir.resolve("journal.log"));
+
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            String txNo = "S56-" + i;
+            futures.add(pool.submit(() -> {
+                start.await();
+                journal.append(entry(txNo));
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        pool.shutdown();
+
+        InventoryJournal.Snapshot snapshot = journal.snapshot();
+        assertThat(snapshot.appended()).isEqualTo(CALLERS);
+        assertThat(snapshot.fsyncs()).isLessThan(CALLERS);
+        assertThat(snapshot.pending()).isEqualTo(CALLERS);
+        assertThat(inventoryTransactionRepository.count()).isZero();
+
+        assertThat(journal.drain()).isEqualTo(CALLERS);
+        assertThat(inventoryTransactionRepository.count()).isEqualTo(CALLERS);
+        assertThat(Files.size(dir.resolve("journal.log"))).isZero(); // 反映し終えたら空にする
+    }
+
+    @Test
+    @DisplayName("成功：異常終了後の再起動で未反映分を読み直し、反映済みと壊れた末尾は読み飛ばす")
+    void testReplay_AfterCrash() throws Exception {
+        Path path = dir.resolve("journal.log");
+        InventoryJournal crashed = open(path);
+        journals.remove(crashed);
+        crashed.append(entry("S56-1"));
+        crashed.append(entry("S56-2"));
+        crashed.append(entry("S56-3"));
+        crashed.halt(); // DB反映もチェックポイント更新もしないまま停止
+
+        // 1件目は DB に反映済みだがチェックポイントが書かれる前に落ちた想定
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> inventoryTransactionRepository.save(entry("S56-1").toTransaction(stock)));
+        // 書き込み途中で切れた末尾
+        Files.write(path, new byte[] { 0, 0, 0, 40, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+        InventoryJournal restarted = open(path);
+
+        assertThat(restarted.snapshot().replayed()).isEqualTo(3);
+        assertThat(restarted.drain()).isEqualTo(3);
+        assertThat(inventoryTransactionRepository.findExistingTransactionIds(List.of("S56-1", "S56-2", "S56-3")))
+                .containsExactlyInAnyOrder("S56-1", "S56-2", "S56-3");
+        assertThat(inventoryTransactionRepository.count()).isEqualTo(3);
+
+        restarted.append(entry("S56-4"));
+        assertThat(restarted.drain()).isEqualTo(1);
+        assertThat(inventoryTransactionRepository.count()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("成功：呼び出し元のトランザクションのコミット直前に追記し、ロールバック時は追記しない")
+    void testAppendBeforeCommit_OnlyOnCommit() throws Exception {
+        InventoryJournal journal = open(dir.resolve("journal.log"));
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        tx.executeWithoutResult(status -> {
+            journal.appendBeforeCommit(entry("S56-1").toTransaction(stock));
+            assertThat(journal.snapshot().appended()).isZero();
+        });
+        assertThat(journal.snapshot().appended()).isEqualTo(1);
+
+        tx.executeWithoutResult(status -> {
+            journal.appendBeforeCommit(entry("S56-2").toTransaction(stock));
+            status.setRollbackOnly();
+        });
+        assertThat(journal.snapshot().appended()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("失敗：ジャーナルに書けない場合は呼び出し元のトランザクションごとロールバックする")
+    void testAppendBeforeCommit_RollsBackWhenJournalStopped() throws Exception {
+        InventoryJournal journal = open(dir.resolve("journal.log"));
+        journal.halt();
+
+        assertThatThrownBy(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE stock_master SET current_stock = current_stock - 1 WHERE item_code = ?",
+                    stock.getItemCode());
+            journal.appendBeforeCommit(entry("S56-1").toTransaction(stock));
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(stockMasterRepository.findByItemCode(stock.getItemCode()).orElseThrow().getCurrentStock())
+                .isEqualByComparingTo("10");
+        assertThat(journal.unledgeredDeltas()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("成功：追記後にコミットに失敗した履歴は取り消しを追記し、DB反映・再起動時の読み直しで読み飛ばす")
+    void testAppendBeforeCommit_TombstoneOnCommitFailure() throws Exception {
+        Path path = dir.resolve("journal.log");
+        InventoryJournal crashed = open(path);
+        journals.remove(crashed);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        tx.executeWithoutResult(status -> crashed.appendBeforeCommit(entry("S56-1").toTransaction(stock)));
+        assertThatThrownBy(() -> tx.executeWithoutResult(status -> {
+            crashed.appendBeforeCommit(entry("S56-2").toTransaction(stock));
+            // ジャーナルへの追記後にコミットが失敗した想定
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    throw new IllegalStateException("コミットに失敗しました");
+                }
+            });
+        })).hasMessage("コミットに失敗しました");
+        assertThat(crashed.snapshot().appended()).isEqualTo(2);
+        crashed.halt(); // DB反映しないまま停止
+
+        InventoryJournal restarted = open(path);
+
+        assertThat(restarted.snapshot().replayed()).isEqualTo(1);
+        assertThat(restarted.drain()).isEqualTo(3); // 履歴2件と取り消し1件
+        assertThat(inventoryTransactionRepository.findExistingTransactionIds(List.of("S56-1", "S56-2")))
+                .containsExactly("S56-1");
+        assertThat(Files.size(path)).isZero();
+    }
+
+    private InventoryJournal open(Path path) throws IOException {
+        // 自動のDB反映は止め、テストから drain() で反映する
+        InventoryJournal journal = new InventoryJournal(inventoryTransactionRepository, stockMasterRepository,
+                transactionManager, true, path.toString(), 60_000, 500);
+        journal.start();
+        journals.add(journal);
+        return journal;
+    }
+
+    private InventoryJournal.Entry entry(String txNo) {
+        return new InventoryJournal.Entry(txNo, stock.getItemCode(),
+                InventoryTransaction.TransactionType.MANUAL_DISPATCH, new BigDecimal("-1"), "picker",
+                LocalDateTime.now(), null, null, null, "出庫");
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.backend.inventory.service;
+
+import com.example.backend.common.service.IdempotencyService;
+import com.example.backend.common.service.ItemCodeGenerator;
+import com.example.backend.common.service.NumberingFormatter;
+import com.example.backend.common.service.OrderNumberGenerator;
+import com.example.backend.common.service.TransactionIdGenerator;
+import com.example.backend.entity.PurchaseOrder;
+import com.example.backend.entity.PurchaseOrderDetail;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.inventory.repository.InventoryTransactionRepository;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import com.example.backend.order.dto.InventoryReceiveFromOrderRequest;
+import com.example.backend.order.repository.PurchaseOrderDetailRepository;
+import com.example.backend.order.repository.PurchaseOrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // 各スレッドで別々のトランザクションをコミットするため
+@DisplayName("InventoryServiceの同一発注への同時納品テスト")
+class InventoryReceiveConcurrencyTest {
+
+    private static final int LINES = 4;
+    private static final String ORDER_NO = "S56-ORD-000200";
+
+    @Autowired
+    private StockMasterRepository stockMasterRepository;
+
+    @Autowired
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Autowired
+    private PurchaseOrderRepository purchaseOrderRepository;
+
+    @Autowired
+    private PurchaseOrderDetailRepository purchaseOrderDetailRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private InventoryService inventoryService;
+    private TransactionTemplate tx;
+    private List<String> itemCodes;
+
+    @BeforeEach
+    void setUp() {
+        AtomicInteger sequence = new AtomicInteger();
+        TransactionIdGenerator transactionIdGenerator = mock(TransactionIdGenerator.class);
+        when(transactionIdGenerator.generateTxNos(anyInt())).thenAnswer(inv -> IntStream
+                .range(0, inv.<Integer>getArgument(0))
+                .mapToObj(i -> "S56-C" + sequence.incrementAndGet())
+                .toList());
+        ItemCodeGenerator itemCodeGenerator = new ItemCodeGenerator(jdbcTemplate, transactionManager,
+                new NumberingFormatter());
+        inventoryService = new InventoryService(stockMasterRepository, inventoryTransactionRepository,
+                purchaseOrderRepository, purchaseOrderDetailRepository, itemCodeGenerator,
+                mock(OrderNumberGenerator.class), transactionIdGenerator, mock(StockUpdateCoalescer.class),
+                mock(IdempotencyService.class), mock(InventoryJournal.class),
+                mock(ReservationService.class), mock(StockSearchIndex.class));
+        tx = new TransactionTemplate(transactionManager);
+
+        itemCodes = tx.execute(status -> {
+            PurchaseOrder order = new PurchaseOrder();
+            order.setOrderNo(ORDER_NO);
+            order.setSupplier("テスト商事");
+            order.setOrderDate(LocalDate.now());
+            order.setOrderType(PurchaseOrder.OrderType.INVENTORY);
+            order.setOperator("buyer");
+            purchaseOrderRepository.save(order);
+
+            List<String> codes = new ArrayList<>();
+            for (int i = 0; i < LINES; i++) {
+                StockMaster stock = new StockMaster();
+                stock.setItemName("部品" + i);
+                stock.setCategory("部品");
+                stock.assignIdentity(itemCodeGenerator);
+                stockMasterRepository.save(stock);
+                codes.add(stock.getItemCode());
+
+                PurchaseOrderDetail detail = new PurchaseOrderDetail();
+                detail.setPurchaseOrder(order);
+                detail.setItemCode(stock.getItemCode());
+                detail.setItemName(stock.getItemName());
+                detail.setCategory(stock.getCategory());
+                detail.setQuantity(new BigDecimal("10"));
+                detail.setPurchasePrice(new BigDecimal("250"));
+                purchaseOrderDetailRepository.save(detail);
+                order.addLine(detail);
+            }
+            return codes;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        tx.executeWithoutResult(status -> {
+            inventoryTransactionRepository.deleteAll();
+            purchaseOrderDetailRepository.deleteAll();
+            purchaseOrderRepository.deleteAll();
+            stockMasterRepository.deleteAll();
+        });
+    }
+
+    @Test
+    @DisplayName("成功：別々の明細を同時に全数納品しても未完了明細数は上書きされず、発注は完了になる")
+    void testReceiveFromOrder_ConcurrentLines() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(LINES);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (String itemCode : itemCodes) {
+            futures.add(executor.submit(() -> {
+                SecurityContextHolder.getContext()
+                        .setAuthentication(new TestingAuthenticationToken("receiver", null));
+                start.await();
+                tx.executeWithoutResult(status -> inventoryService.receiveFromOrder(request(itemCode)));
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        PurchaseOrder order = purchaseOrderRepository.findByOrderNo(ORDER_NO).orElseThrow();
+        assertThat(order.getOpenLineCount()).isZero();
+        assertThat(order.getStatus()).isEqualTo("完了");
+        assertThat(order.getReceivedQuantityTotal()).isEqualByComparingTo("40");
+    }
+
+    private InventoryReceiveFromOrderRequest request(String itemCode) {
+        InventoryReceiveFromOrderRequest.Item item = new InventoryReceiveFromOrderRequest.Item();
+        item.setItemCode(itemCode);
+        item.setReceivedQuantity(new BigDecimal("10"));
+        InventoryReceiveFromOrderRequest req = new InventoryReceiveFromOrderRequest();
+        req.setOrderNo(ORDER_NO);
+        req.setItems(List.of(item));
+        return req;
+    }
+}
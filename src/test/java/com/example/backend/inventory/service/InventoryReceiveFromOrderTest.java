@@ -0,0 +1,214 @@
+package com.example.backend.inventory.service;
+
+import com.example.backend.common.service.IdempotencyService;
+import com.example.backend.common.service.ItemCodeGenerator;
+import com.example.backend.common.service.NumberingFormatter;
+import com.example.backend.common.service.OrderNumberGenerator;
+import com.example.backend.common.service.TransactionIdGenerator;
+import com.example.backend.config.HibernateBatchConfig;
+import com.example.backend.entity.PurchaseOrder;
+import com.example.backend.entity.PurchaseOrderDetail;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.inventory.repository.InventoryTransactionRepository;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import com.example.backend.order.dto.InventoryReceiveFromOrderRequest;
+import com.example.backend.order.repository.PurchaseOrderDetailRepository;
+import com.example.backend.order.repository.PurchaseOrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ValidationException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(HibernateBatchConfig.class)
+@DisplayName("InventoryServiceの発注品納品テスト")
+class InventoryReceiveFromOrderTest {
+
+    private static final int LINES = 100;
+    private static final String ORDER_NO = "S56-ORD-000100";
+
+    @Autowired
+    private StockMasterRepository stockMasterRepository;
+
+    @Autowired
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Autowired
+    private PurchaseOrderRepository purchaseOrderRepository;
+
+    @Autowired
+    private PurchaseOrderDetailRepository purchaseOrderDetailRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private InventoryService inventoryService;
+    private Statistics statistics;
+    private List<StockMaster> stocks;
+
+    @BeforeEach
+    void setUp() {
+        AtomicInteger sequence = new AtomicInteger();
+        TransactionIdGenerator transactionIdGenerator = mock(TransactionIdGenerator.class);
+        when(transactionIdGenerator.generateTxNos(anyInt())).thenAnswer(inv -> IntStream
+                .range(0, inv.<Integer>getArgument(0))
+                .mapToObj(i -> "S56-" + sequence.incrementAndGet())
+                .toList());
+        ItemCodeGenerator itemCodeGenerator = new ItemCodeGenerator(jdbcTemplate, transactionManager,
+                new NumberingFormatter());
+        inventoryService = new InventoryService(stockMasterRepository, inventoryTransactionRepository,
+                purchaseOrderRepository, purchaseOrderDetailRepository, itemCodeGenerator,
+                mock(OrderNumberGenerator.class), transactionIdGenerator, mock(StockUpdateCoalescer.class),
+                mock(IdempotencyService.class), mock(InventoryJournal.class),
+                mock(ReservationService.class), mock(StockSearchIndex.class));
+
+        PurchaseOrder order = new PurchaseOrder();
+        order.setOrderNo(ORDER_NO);
+        order.setSupplier("テスト商事");
+        order.setOrderDate(LocalDate.now());
+        order.setOrderType(PurchaseOrder.OrderType.INVENTORY);
+        order.setOperator("buyer");
+        entityManager.persist(order);
+
+        stocks = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            StockMaster stock = new StockMaster();
+            stock.setItemName("部品" + i);
+            stock.setCategory("部品");
+            stock.setCurrentStock(BigDecimal.ONE);
+            stock.assignIdentity(itemCodeGenerator);
+            stocks.add(stockMasterRepository.save(stock));
+
+            PurchaseOrderDetail detail = new PurchaseOrderDetail();
+            detail.setPurchaseOrder(order);
+            detail.setItemCode(stock.getItemCode());
+            detail.setItemName(stock.getItemName());
+            detail.setCategory(stock.getCategory());
+            detail.setQuantity(new BigDecimal("10"));
+            detail.setPurchasePrice(new BigDecimal("250"));
+            detail.setReceivedQuantity(BigDecimal.ZERO);
+            detail.setStatus("未入庫");
+            entityManager.persist(detail);
+            order.addLine(detail);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("receiver", null));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("成功：100明細の全数納品は発注・明細・在庫の3クエリで処理し、発注を完了にする")
+    void testReceiveFromOrder_SetBased() {
+        inventoryService.receiveFromOrder(request("10"));
+        entityManager.flush();
+
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(3);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(2L * LINES + 1); // 在庫・明細・発注ヘッダー
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(LINES);
+
+        entityManager.clear();
+        PurchaseOrder order = purchaseOrderRepository.findByOrderNo(ORDER_NO).orElseThrow();
+        assertThat(order.getStatus()).isEqualTo("完了");
+        assertThat(order.getOpenLineCount()).isZero();
+        assertThat(order.getReceivedQuantityTotal()).isEqualByComparingTo(order.getOrderedQuantityTotal())
+                .isEqualByComparingTo("1000");
+        assertThat(stockMasterRepository.findByItemCode(stocks.get(0).getItemCode()).orElseThrow()
+                .getCurrentStock()).isEqualByComparingTo("11");
+        assertThat(inventoryTransactionRepository.findAll())
+                .allSatisfy(tx -> assertThat(tx.getPurchasePrice()).isEqualByComparingTo("250"));
+    }
+
+    @Test
+    @DisplayName("成功：一部納品では明細を一部入庫にし、発注は未完了のまま")
+    void testReceiveFromOrder_Partial() {
+        inventoryService.receiveFromOrder(request("4"));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(purchaseOrderDetailRepository.findByPurchaseOrder_OrderNo(ORDER_NO))
+                .allSatisfy(d -> assertThat(d.getStatus()).isEqualTo("一部入庫"));
+        PurchaseOrder order = purchaseOrderRepository.findByOrderNo(ORDER_NO).orElseThrow();
+        assertThat(order.getStatus()).isEqualTo("未完了");
+        assertThat(order.getOpenLineCount()).isEqualTo(LINES);
+        assertThat(order.getReceivedQuantityTotal()).isEqualByComparingTo("400");
+        assertThat(purchaseOrderRepository.findByOpenLineCountGreaterThan(0, PageRequest.of(0, 10)))
+                .extracting(PurchaseOrder::getOrderNo).containsExactly(ORDER_NO);
+    }
+
+    @Test
+    @DisplayName("成功：分納で残りを入庫すると未完了明細数が減り、発注を完了にする")
+    void testReceiveFromOrder_RemainderCompletesOrder() {
+        inventoryService.receiveFromOrder(request("4"));
+        inventoryService.receiveFromOrder(request("6"));
+        entityManager.flush();
+        entityManager.clear();
+
+        PurchaseOrder order = purchaseOrderRepository.findByOrderNo(ORDER_NO).orElseThrow();
+        assertThat(order.getStatus()).isEqualTo("完了");
+        assertThat(order.getOpenLineCount()).isZero();
+        assertThat(purchaseOrderRepository.findByOpenLineCountGreaterThan(0, PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("失敗：発注数を超える納品はエラー")
+    void testReceiveFromOrder_ExceedsOrderQuantity() {
+        assertThatThrownBy(() -> inventoryService.receiveFromOrder(request("11")))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("受け入れ数が発注数を超えています");
+    }
+
+    private InventoryReceiveFromOrderRequest request(String quantity) {
+        InventoryReceiveFromOrderRequest req = new InventoryReceiveFromOrderRequest();
+        req.setOrderNo(ORDER_NO);
+        req.setItems(stocks.stream().map(stock -> {
+            InventoryReceiveFromOrderRequest.Item item = new InventoryReceiveFromOrderRequest.Item();
+            item.setItemCode(stock.getItemCode());
+            item.setReceivedQuantity(new BigDecimal(quantity));
+            return item;
+        }).toList());
+        return req;
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.backend.inventory.service;
+
+import com.example.backend.common.service.ItemCodeGenerator;
+import com.example.backend.common.service.NumberingFormatter;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.entity.StockReservation;
+import com.example.backend.inventory.dto.StockReservationRequest;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import com.example.backend.inventory.repository.StockReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // DB反映は別トランザクションでコミットするため
+@DisplayName("ReservationServiceの仮引当・期限切れ・DB反映テスト")
+class ReservationServiceTest {
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private StockMasterRepository stockMasterRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private MutableClock clock;
+    private StockMaster stock;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2026-10-01T00:00:00Z"));
+        ItemCodeGenerator itemCodeGenerator = new ItemCodeGenerator(jdbcTemplate, transactionManager,
+                new NumberingFormatter());
+        stock = new TransactionTemplate(transactionManager).execute(status -> {
+            StockMaster s = new StockMaster();
+            s.setItemName("軍手");
+            s.setCategory("消耗品");
+            s.setCurrentStock(new BigDecimal("10"));
+            s.assignIdentity(itemCodeGenerator);
+            return stockMasterRepository.save(s);
+        });
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("picker", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        stockReservationRepository.deleteAll();
+        stockMasterRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("成功：引当済みの数量を除いた範囲でのみ引当でき、出庫も引当分を除いて判定する")
+    void testReserve_AvailableStock() {
+        ReservationService service = newService();
+
+        StockReservation first = service.reserve(request("6", null));
+        assertThatThrownBy(() -> service.reserve(request("5", null))).hasMessage("在庫が不足しています");
+        service.reserve(request("4", null));
+        assertThat(service.getReservedQuantity(stock.getItemCode())).isEqualByComparingTo("10");
+
+        // 引当のない出庫は残り0のため不可、引当分の出庫は自分の引当を除いて判定
+        BigDecimal reserved = service.getReservedQuantityExcluding(stock.getItemCode(), null);
+        assertThat(decrease("1", reserved)).isZero();
+        BigDecimal others = service.getReservedQuantityExcluding(stock.getItemCode(), first.getReservationId());
+        assertThat(others).isEqualByComparingTo("4");
+        assertThat(decrease("6", others)).isEqualTo(1);
+        service.releaseAfterCommit(first.getReservationId());
+
+        assertThat(service.getReservedQuantity(stock.getItemCode())).isEqualByComparingTo("4");
+        assertThat(stockMasterRepository.findByItemCode(stock.getItemCode()).orElseThrow().getCurrentStock())
+                .isEqualByComparingTo("4");
+    }
+
+    @Test
+    @DisplayName("成功：有効期間を過ぎた引当はタイミングホイールで自動解除される")
+    void testExpire() {
+        ReservationService service = newService();
+        service.reserve(request("3", 60L));
+        service.reserve(request("2", 600L));
+
+        clock.advance(Duration.ofSeconds(59));
+        service.expireDue();
+        assertThat(service.getReservedQuantity(stock.getItemCode())).isEqualByComparingTo("5");
+
+        clock.advance(Duration.ofSeconds(2));
+        service.expireDue();
+        assertThat(service.getReservedQuantity(stock.getItemCode())).isEqualByComparingTo("2");
+
+        clock.advance(Duration.ofSeconds(600));
+        service.expireDue();
+        assertThat(service.getReservedQuantity(stock.getItemCode())).isEqualByComparingTo("0");
+    }
+
+    @Test
+    @DisplayName("成功：引当はまとめて DB に反映され、再起動時に有効期限内のものだけ復元される")
+    void testFlushAndRestore() {
+        ReservationService service = newService();
+        StockReservation kept = service.reserve(request("3", 600L));
+        StockReservation released = service.reserve(request("2", 600L));
+        service.reserve(request("1", 30L));
+        assertThat(stockReservationRepository.count()).isZero(); // 反映前
+
+        service.flush();
+        assertThat(stockReservationRepository.count()).isEqualTo(3);
+
+        service.release(released.getReservationId());
+        service.reserve(request("4", 600L));
+        service.release(service.reserve(request("1", 600L)).getReservationId()); // 未反映のまま解除
+        service.flush();
+        assertThat(stockReservationRepository.count()).isEqualTo(3);
+
+        clock.advance(Duration.ofSeconds(60));
+        ReservationService restarted = newService();
+        restarted.restore();
+
+        assertThat(restarted.getReservedQuantity(stock.getItemCode())).isEqualByComparingTo("7");
+        assertThat(restarted.getReservedQuantityExcluding(stock.getItemCode(), kept.getReservationId()))
+                .isEqualByComparingTo("4");
+        assertThat(stockReservationRepository.count()).isEqualTo(2); // 期限切れは削除
+    }
+
+    @Test
+    @DisplayName("失敗：引当後に読み直した在庫が引当合計を下回れば引当を取り消す")
+    void testReserve_RechecksStockAfterReserving() {
+        StockMasterRepository repository = mock(StockMasterRepository.class);
+        // 引当の合計に加算した後、同時の出庫で在庫が減った状態を再現
+        when(repository.findUnassignedStock(stock.getItemCode()))
+                .thenReturn(Optional.of(new BigDecimal("10")), Optional.of(new BigDecimal("3")));
+        ReservationService service = new ReservationService(stockReservationRepository, repository,
+                transactionManager, 1000, 64, 500, Duration.ofMinutes(15), Duration.ofDays(1), clock);
+
+        assertThatThrownBy(() -> service.reserve(request("5", 600L)))
+                .hasMessageContaining("在庫が不足しています");
+        assertThat(service.getReservedQuantity(stock.getItemCode())).isEqualByComparingTo("0");
+        service.flush();
+        assertThat(stockReservationRepository.count()).isZero();
+    }
+
+    private ReservationService newService() {
+        return new ReservationService(stockReservationRepository, stockMasterRepository, transactionManager,
+                1000, 64, 500, Duration.ofMinutes(15), Duration.ofDays(1), clock);
+    }
+
+    private int decrease(String quantity, BigDecimal reserved) {
+        return new TransactionTemplate(transactionManager).execute(status -> stockMasterRepository
+                .decreaseStockIfUnreserved(stock.getItemCode(), new BigDecimal(quantity), reserved,
+                        LocalDateTime.now()));
+    }
+
+    private StockReservationRequest request(String quantity, Long ttlSeconds) {
+        StockReservationRequest req = new StockReservationRequest();
+        req.setItemCode(stock.getItemCode());
+        req.setQuantity(new BigDecimal(quantity));
+        req.setTtlSeconds(ttlSeconds);
+        return req;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
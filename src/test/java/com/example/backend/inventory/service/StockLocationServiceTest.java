@@ -0,0 +1,230 @@
+package com.example.backend.inventory.service;
+
+import com.example.backend.common.service.IdempotencyService;
+import com.example.backend.common.service.ItemCodeGenerator;
+import com.example.backend.common.service.NumberingFormatter;
+import com.example.backend.common.service.OrderNumberGenerator;
+import com.example.backend.common.service.TransactionIdGenerator;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.inventory.dto.InventoryDispatchRequest;
+import com.example.backend.inventory.dto.StockLocationBalanceResponse;
+import com.example.backend.inventory.dto.StockLocationMovementRequest;
+import com.example.backend.inventory.repository.InventoryTransactionRepository;
+import com.example.backend.inventory.repository.StockLocationBalanceRepository;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import com.example.backend.inventory.repository.StockTotalDeltaRepository;
+import com.example.backend.order.repository.PurchaseOrderDetailRepository;
+import com.example.backend.order.repository.PurchaseOrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // 同時入庫は別スレッドの別トランザクションで行うため
+@DisplayName("StockLocationServiceの保管場所別入出庫・合計反映テスト")
+class StockLocationServiceTest {
+
+    private static final int CALLERS_PER_LOCATION = 8;
+
+    @Autowired
+    private StockLocationBalanceRepository stockLocationBalanceRepository;
+
+    @Autowired
+    private StockTotalDeltaRepository stockTotalDeltaRepository;
+
+    @Autowired
+    private StockMasterRepository stockMasterRepository;
+
+    @Autowired
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private StockLocationService service;
+    private InventoryService inventoryService;
+    private StockMaster stock;
+
+    @BeforeEach
+    void setUp() {
+        AtomicInteger sequence = new AtomicInteger();
+        TransactionIdGenerator transactionIdGenerator = mock(TransactionIdGenerator.class);
+        when(transactionIdGenerator.generateTxNo()).thenAnswer(inv -> "S56-" + sequence.incrementAndGet());
+        service = new StockLocationService(stockLocationBalanceRepository, stockTotalDeltaRepository,
+                stockMasterRepository, inventoryTransactionRepository, transactionIdGenerator, transactionManager,
+                3);
+        ReservationService reservationService = mock(ReservationService.class);
+        when(reservationService.getReservedQuantityExcluding(any(), any())).thenReturn(BigDecimal.ZERO);
+        inventoryService = new InventoryService(stockMasterRepository, inventoryTransactionRepository,
+                mock(PurchaseOrderRepository.class), mock(PurchaseOrderDetailRepository.class),
+                mock(ItemCodeGenerator.class), mock(OrderNumberGenerator.class), transactionIdGenerator,
+                mock(StockUpdateCoalescer.class), mock(IdempotencyService.class), mock(InventoryJournal.class),
+                reservationService, mock(StockSearchIndex.class));
+
+        ItemCodeGenerator itemCodeGenerator = new ItemCodeGenerator(jdbcTemplate, transactionManager,
+                new NumberingFormatter());
+        stock = new TransactionTemplate(transactionManager).execute(status -> {
+            StockMaster s = new StockMaster();
+            s.setItemName("軍手");
+            s.setCategory("消耗品");
+            s.setCurrentStock(new BigDecimal("5")); // 保管場所の割り当てがない在庫
+            s.assignIdentity(itemCodeGenerator);
+            return stockMasterRepository.save(s);
+        });
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("picker", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        inventoryTransactionRepository.deleteAll();
+        stockTotalDeltaRepository.deleteAll();
+        stockLocationBalanceRepository.deleteAll();
+        stockMasterRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("成功：別々の保管場所への同時入庫はそれぞれの行だけを更新し、合計は後からまとめて反映される")
+    void testReceive_ConcurrentLocations() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS_PER_LOCATION * 2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS_PER_LOCATION * 2; i++) {
+            String location = i % 2 == 0 ? "第1倉庫" : "第2倉庫";
+            futures.add(pool.submit(() -> {
+                SecurityContextHolder.getContext()
+                        .setAuthentication(new TestingAuthenticationToken("picker", null));
+                start.await();
+                return receive(location, "2");
+            }));
+        }
+        start.countDown();
+        for (Future<String> f : futures) {
+            assertThat(f.get()).startsWith("S56-");
+        }
+        pool.shutdown();
+
+        // 在庫マスタは未反映
+        assertThat(current()).isEqualByComparingTo("5");
+        StockLocationBalanceResponse before = service.getBalances(stock.getItemCode());
+        assertThat(before.getLocatedStock()).isEqualByComparingTo("32");
+        assertThat(before.getPendingDelta()).isEqualByComparingTo("32");
+        assertThat(before.getUnassignedStock()).isEqualByComparingTo("5");
+
+        service.foldTotals();
+
+        assertThat(current()).isEqualByComparingTo("37");
+        assertThat(stockTotalDeltaRepository.count()).isZero();
+        StockLocationBalanceResponse after = service.getBalances(stock.getItemCode());
+        assertThat(after.getBalances()).extracting(b -> b.getQuantity().intValue()).containsExactly(16, 16);
+        assertThat(after.getUnassignedStock()).isEqualByComparingTo("5");
+        assertThat(inventoryTransactionRepository.count()).isEqualTo(CALLERS_PER_LOCATION * 2);
+    }
+
+    @Test
+    @DisplayName("失敗：保管場所の在庫を超える出庫は他の保管場所や割り当てなしの在庫があってもエラー")
+    void testDispatch_PerLocation() {
+        receive("第1倉庫", "3");
+        receive("第2倉庫", "10");
+
+        assertThatThrownBy(() -> dispatch("第1倉庫", "4"))
+                .hasMessage("在庫が不足しています");
+        assertThatThrownBy(() -> dispatch("第3倉庫", "1"))
+                .hasMessage("在庫が不足しています");
+        dispatch("第1倉庫", "3");
+        service.foldTotals();
+
+        assertThat(current()).isEqualByComparingTo("15");
+        assertThat(service.getByLocation("第2倉庫", PageRequest.of(0, 10)).getContent())
+                .singleElement().satisfies(b -> assertThat(b.getQuantity()).isEqualByComparingTo("10"));
+        InventoryJournal journal = new InventoryJournal(inventoryTransactionRepository, stockMasterRepository,
+                transactionManager, false, "unused", 200, 500);
+        assertThat(new StockReconciliationService(stockMasterRepository, journal, transactionManager, 1, 1000)
+                .reconcile(false).getMismatches())
+                .singleElement() // 初期在庫5は履歴がないため不一致になる
+                .satisfies(m -> assertThat(m.getDifference()).isEqualByComparingTo("5"));
+    }
+
+    @Test
+    @DisplayName("失敗：保管場所を指定しない出庫は保管場所に割り当て済みの在庫を出庫できず、在庫数はマイナスにならない")
+    void testDispatch_MixedWithUnlocated() {
+        receive("第1倉庫", "10");
+
+        // 合計へ反映前・反映後とも、割り当てなしの在庫5を超える出庫はエラー
+        assertThatThrownBy(() -> dispatchUnlocated("6"))
+                .hasMessage("在庫が不足しています");
+        service.foldTotals();
+        assertThat(current()).isEqualByComparingTo("15");
+        assertThatThrownBy(() -> dispatchUnlocated("15"))
+                .hasMessage("在庫が不足しています");
+
+        dispatchUnlocated("5");
+        dispatch("第1倉庫", "10");
+        assertThatThrownBy(() -> dispatchUnlocated("1"))
+                .hasMessage("在庫が不足しています");
+        service.foldTotals();
+
+        assertThat(current()).isEqualByComparingTo("0");
+        StockLocationBalanceResponse balances = service.getBalances(stock.getItemCode());
+        assertThat(balances.getLocatedStock()).isEqualByComparingTo("0");
+        assertThat(balances.getUnassignedStock()).isEqualByComparingTo("0");
+    }
+
+    // サービスは直接生成しているため、@Transactional の代わりにテンプレートで囲む
+    private String receive(String location, String quantity) {
+        return new TransactionTemplate(transactionManager)
+                .execute(status -> service.receive(stock.getItemCode(), location, movement(quantity)));
+    }
+
+    private String dispatch(String location, String quantity) {
+        return new TransactionTemplate(transactionManager)
+                .execute(status -> service.dispatch(stock.getItemCode(), location, movement(quantity)));
+    }
+
+    private String dispatchUnlocated(String quantity) {
+        InventoryDispatchRequest req = new InventoryDispatchRequest();
+        req.setItemCode(stock.getItemCode());
+        req.setQuantity(new BigDecimal(quantity));
+        return new TransactionTemplate(transactionManager)
+                .execute(status -> inventoryService.dispatchInventory(req, null));
+    }
+
+    private BigDecimal current() {
+        return stockMasterRepository.findByItemCode(stock.getItemCode()).orElseThrow().getCurrentStock();
+    }
+
+    private static StockLocationMovementRequest movement(String quantity) {
+        StockLocationMovementRequest req = new StockLocationMovementRequest();
+        req.setQuantity(new BigDecimal(quantity));
+        return req;
+    }
+}
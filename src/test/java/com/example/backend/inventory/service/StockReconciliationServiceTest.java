@@ -0,0 +1,177 @@
+package com.example.backend.inventory.service;
+
+import com.example.backend.common.service.ItemCodeGenerator;
+import com.example.backend.common.service.NumberingFormatter;
+import com.example.backend.entity.InventoryTransaction;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.inventory.dto.StockReconciliationReport;
+import com.example.backend.inventory.repository.InventoryTransactionRepository;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // 突合は別スレッドの別トランザクションで読むため
+@DisplayName("StockReconciliationServiceの在庫数・入出庫履歴の突合テスト")
+class StockReconciliationServiceTest {
+
+    private static final int ITEMS = 20;
+
+    @Autowired
+    private StockMasterRepository stockMasterRepository;
+
+    @Autowired
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path dir;
+
+    private final List<StockMaster> stocks = new ArrayList<>();
+    private int txSequence;
+    private InventoryJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        ItemCodeGenerator itemCodeGenerator = new ItemCodeGenerator(jdbcTemplate, transactionManager,
+                new NumberingFormatter());
+        journal = new InventoryJournal(inventoryTransactionRepository, stockMasterRepository, transactionManager,
+                false, dir.resolve("journal.log").toString(), 200, 500);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < ITEMS; i++) {
+                StockMaster s = new StockMaster();
+                s.setItemName("軍手" + i);
+                s.setCategory("消耗品");
+                s.setCurrentStock(new BigDecimal("7"));
+                s.assignIdentity(itemCodeGenerator);
+                stocks.add(stockMasterRepository.save(s));
+                // 入庫10・出庫3（発注登録は在庫変動なし）→ 履歴上の在庫は7
+                ledger(s, InventoryTransaction.TransactionType.MANUAL_RECEIVE, "10");
+                ledger(s, InventoryTransaction.TransactionType.MANUAL_DISPATCH, "3");
+                ledger(s, InventoryTransaction.TransactionType.ORDER_REGIST, "50");
+            }
+        });
+        // 2件だけ在庫数をずらす
+        jdbcTemplate.update("UPDATE stock_master SET current_stock = 9 WHERE item_code = ?",
+                stocks.get(3).getItemCode());
+        jdbcTemplate.update("UPDATE stock_master SET current_stock = 0 WHERE item_code = ?",
+                stocks.get(17).getItemCode());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.stop();
+        inventoryTransactionRepository.deleteAll();
+        stockMasterRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("成功：範囲を分割して並列に突合し、不一致の在庫のみ報告する")
+    void testReconcile_ReportOnly() {
+        StockReconciliationReport report = service(2).reconcile(false);
+
+        assertThat(report.getCheckedItems()).isEqualTo(ITEMS);
+        assertThat(report.getMismatchCount()).isEqualTo(2);
+        assertThat(report.getRepairedCount()).isZero();
+        assertThat(report.getMismatches()).extracting(StockReconciliationReport.Mismatch::getItemCode)
+                .containsExactly(stocks.get(3).getItemCode(), stocks.get(17).getItemCode());
+        assertThat(report.getMismatches().get(0).getDifference()).isEqualByComparingTo("2");
+        assertThat(report.getMismatches().get(1).getLedgerStock()).isEqualByComparingTo("7");
+        assertThat(current(stocks.get(3))).isEqualByComparingTo("9");
+    }
+
+    @Test
+    @DisplayName("成功：修正モードでは不一致の在庫数を履歴の値に合わせる")
+    void testReconcile_Repair() {
+        StockReconciliationReport report = service(ITEMS * 100).reconcile(true);
+
+        assertThat(report.getMismatchCount()).isEqualTo(2);
+        assertThat(report.getRepairedCount()).isEqualTo(2);
+        assertThat(current(stocks.get(3))).isEqualByComparingTo("7");
+        assertThat(current(stocks.get(17))).isEqualByComparingTo("7");
+        assertThat(service(1).reconcile(false).getMismatchCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("成功：ジャーナルが DB 未反映の出庫は履歴側に加えて比較し、未反映の履歴がある在庫は修正しない")
+    void testReconcile_RepairWithUndrainedJournal() throws IOException {
+        // 自動のDB反映は止め、テストから drain() で反映する
+        journal = new InventoryJournal(inventoryTransactionRepository, stockMasterRepository, transactionManager,
+                true, dir.resolve("journal.log").toString(), 60_000, 500);
+        journal.start();
+        StockMaster stock = stocks.get(5);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE stock_master SET current_stock = current_stock - 2 WHERE item_code = ?",
+                    stock.getItemCode());
+            InventoryTransaction tx = new InventoryTransaction();
+            tx.setTransactionId("S56-J1");
+            tx.setStockItem(stock);
+            tx.setTransactionType(InventoryTransaction.TransactionType.MANUAL_DISPATCH);
+            tx.setQuantity(new BigDecimal("2"));
+            tx.setOperator("picker");
+            tx.setTransactionTime(LocalDateTime.now());
+            journal.appendBeforeCommit(tx);
+
+            // コミット前: 在庫数の減算は見えないが履歴は未反映分に含まれるため、不一致でも修正しない
+            StockReconciliationReport beforeCommit = service(ITEMS * 100).reconcile(true);
+            assertThat(beforeCommit.getMismatches()).extracting(StockReconciliationReport.Mismatch::getItemCode)
+                    .contains(stock.getItemCode());
+            assertThat(beforeCommit.getRepairedCount()).isEqualTo(2);
+            assertThat(beforeCommit.getSkippedCount()).isEqualTo(1);
+        });
+        assertThat(journal.snapshot().pending()).isEqualTo(1);
+
+        // コミット後・DB反映前: 在庫5 = 履歴7 + 未反映の出庫-2 で一致する
+        StockReconciliationReport undrained = service(ITEMS * 100).reconcile(true);
+        assertThat(undrained.getMismatchCount()).isZero();
+        assertThat(current(stock)).isEqualByComparingTo("5");
+
+        assertThat(journal.drain()).isEqualTo(1);
+        assertThat(service(1).reconcile(false).getMismatchCount()).isZero();
+        assertThat(current(stock)).isEqualByComparingTo("5");
+    }
+
+    private StockReconciliationService service(long chunkSize) {
+        return new StockReconciliationService(stockMasterRepository, journal, transactionManager, 4, chunkSize);
+    }
+
+    private BigDecimal current(StockMaster stock) {
+        return stockMasterRepository.findByItemCode(stock.getItemCode()).orElseThrow().getCurrentStock();
+    }
+
+    private void ledger(StockMaster stock, InventoryTransaction.TransactionType type, String quantity) {
+        InventoryTransaction tx = new InventoryTransaction();
+        tx.setTransactionId("S56-" + (++txSequence));
+        tx.setStockItem(stock);
+        tx.setTransactionType(type);
+        tx.setQuantity(new BigDecimal(quantity));
+        tx.setOperator("picker");
+        tx.setTransactionTime(LocalDateTime.now());
+        inventoryTransactionRepository.save(tx);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.backend.inventory.service;
+
+import com.example.backend.common.service.IdempotencyService;
+import com.example.backend.common.service.ItemCodeGenerator;
+import com.example.backend.common.service.NumberingFormatter;
+import com.example.backend.common.service.OrderNumberGenerator;
+import com.example.backend.common.service.TransactionIdGenerator;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.inventory.repository.InventoryTransactionRepository;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import com.example.backend.order.repository.PurchaseOrderDetailRepository;
+import com.example.backend.order.repository.PurchaseOrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(StockSearchIndex.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // 索引への反映はコミット後のため
+@DisplayName("StockSearchIndexの n-gram 検索テスト")
+class StockSearchIndexTest {
+
+    @Autowired
+    private StockSearchIndex stockSearchIndex;
+
+    @Autowired
+    private StockMasterRepository stockMasterRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private InventoryService inventoryService;
+    private ItemCodeGenerator itemCodeGenerator;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        itemCodeGenerator = new ItemCodeGenerator(jdbcTemplate, transactionManager, new NumberingFormatter());
+        inventoryService = new InventoryService(stockMasterRepository, mock(InventoryTransactionRepository.class),
+                mock(PurchaseOrderRepository.class), mock(PurchaseOrderDetailRepository.class), itemCodeGenerator,
+                mock(OrderNumberGenerator.class), mock(TransactionIdGenerator.class),
+                mock(StockUpdateCoalescer.class), mock(IdempotencyService.class), mock(InventoryJournal.class),
+                mock(ReservationService.class), stockSearchIndex);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockMasterRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("成功：2文字・3文字以上・1文字のキーワードで LIKE 検索と同じ結果を返し、1ページ分を1回のクエリで取得する")
+    void testSearch_SameAsLike() {
+        newStock("軍手 Lサイズ", "GT-100", "消耗品", "ショーワ");
+        newStock("軍手 Mサイズ", "GT-200", "消耗品", "ショーワ");
+        newStock("皮手袋", null, "消耗品", "-");
+        newStock("養生テープ", "YT-50", "消耗品", "日東");
+        newStock("布テープ", "NT-50", "梱包材", "日東");
+        newStock("モンキーレンチ", "MR-200", "工具", "ロブテックス");
+        Pageable page = PageRequest.of(0, 2, Sort.by("itemCode"));
+
+        assertSameAsLike("軍手", "", "", page);
+        assertSameAsLike("テープ", "消耗品", "", page);
+        assertSameAsLike("手", "", "", page); // 1文字
+        assertSameAsLike("", "", "-200", page);
+        assertSameAsLike("", "消耗品", "", PageRequest.of(1, 2, Sort.by("itemCode")));
+        assertSameAsLike("ハンマー", "", "", page);
+
+        Page<StockMaster> byManufacturer = inventoryService.searchStock(null, null, null, null, "日東",
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "itemName")));
+        assertThat(byManufacturer.getContent()).extracting(StockMaster::getItemName)
+                .containsExactly("養生テープ", "布テープ");
+
+        // 件数は索引から分かるため、COUNT を含めて1ページ分の取得1回のみ
+        statistics.clear();
+        Page<StockMaster> result = inventoryService.searchStock(null, "サイズ", null, null, null, page);
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("成功：品名の変更・削除はコミット後に索引へ反映され、ロールバックした変更は反映されない")
+    void testListener_AfterCommit() {
+        StockMaster stock = newStock("養生テープ", "YT-50", "消耗品", "日東");
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        tx.executeWithoutResult(status -> stockMasterRepository.findById(stock.getId()).orElseThrow()
+                .setItemName("マスキングテープ"));
+        assertThat(names("マスキング")).containsExactly("マスキングテープ");
+        assertThat(names("養生")).isEmpty();
+
+        assertThatThrownBy(() -> tx.executeWithoutResult(status -> {
+            stockMasterRepository.findById(stock.getId()).orElseThrow().setItemName("養生テープ");
+            stockMasterRepository.flush();
+            throw new IllegalStateException("ロールバック");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(names("養生")).isEmpty();
+        assertThat(names("マスキング")).containsExactly("マスキングテープ");
+
+        stockMasterRepository.deleteById(stock.getId());
+        assertThat(names("テープ")).isEmpty();
+    }
+
+    private void assertSameAsLike(String itemName, String category, String modelNumber, Pageable pageable) {
+        Page<StockMaster> expected = stockMasterRepository
+                .findByItemCodeContainingAndItemNameContainingAndCategoryContainingAndModelNumberContaining(
+                        "", itemName, category, modelNumber, pageable);
+        Page<StockMaster> actual = inventoryService.searchStock(null, itemName, category, modelNumber, null,
+                pageable);
+        assertThat(actual.getContent()).extracting(StockMaster::getId)
+                .containsExactlyElementsOf(expected.getContent().stream().map(StockMaster::getId).toList());
+        assertThat(actual.getTotalElements()).isEqualTo(expected.getTotalElements());
+    }
+
+    private List<String> names(String itemName) {
+        return inventoryService.searchStock(null, itemName, null, null, null, PageRequest.of(0, 10))
+                .map(StockMaster::getItemName).getContent();
+    }
+
+    private StockMaster newStock(String itemName, String modelNumber, String category, String manufacturer) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            StockMaster s = new StockMaster();
+            s.setItemName(itemName);
+            s.setModelNumber(modelNumber);
+            s.setCategory(category);
+            s.setManufacturer(manufacturer);
+            s.assignIdentity(itemCodeGenerator);
+            return stockMasterRepository.save(s);
+        });
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.backend.inventory.service;
+
+import com.example.backend.common.service.ItemCodeGenerator;
+import com.example.backend.common.service.NumberingFormatter;
+import com.example.backend.entity.InventoryTransaction;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.exception.ResourceNotFoundException;
+import com.example.backend.inventory.dto.StockAtResponse;
+import com.example.backend.inventory.repository.InventoryTransactionRepository;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import com.example.backend.inventory.repository.StockSnapshotRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("StockSnapshotServiceの日次スナップショット・過去日時点の在庫数テスト")
+class StockSnapshotServiceTest {
+
+    private static final LocalDate OCT_1 = LocalDate.of(2026, 10, 1);
+
+    @Autowired
+    private StockMasterRepository stockMasterRepository;
+
+    @Autowired
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Autowired
+    private StockSnapshotRepository stockSnapshotRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private StockSnapshotService stockSnapshotService;
+    private StockMaster stock;
+    private int txSequence;
+
+    @BeforeEach
+    void setUp() {
+        ZoneId zone = ZoneId.systemDefault();
+        Clock clock = Clock.fixed(LocalDateTime.of(2026, 10, 5, 12, 0).atZone(zone).toInstant(), zone);
+        stockSnapshotService = new StockSnapshotService(stockSnapshotRepository, stockMasterRepository,
+                inventoryTransactionRepository, clock);
+
+        stock = new StockMaster();
+        stock.setItemName("軍手");
+        stock.setCategory("消耗品");
+        stock.setCurrentStock(new BigDecimal("10"));
+        stock.assignIdentity(new ItemCodeGenerator(jdbcTemplate, transactionManager, new NumberingFormatter()));
+        stock = stockMasterRepository.save(stock);
+
+        // 10/1 +10, 10/2 -3（発注登録は在庫変動なし）, 10/3 +5, 10/4 -2 → 現在 10
+        ledger(OCT_1, InventoryTransaction.TransactionType.MANUAL_RECEIVE, "10");
+        ledger(OCT_1.plusDays(1), InventoryTransaction.TransactionType.MANUAL_DISPATCH, "3");
+        ledger(OCT_1.plusDays(1), InventoryTransaction.TransactionType.ORDER_REGIST, "100");
+        ledger(OCT_1.plusDays(2), InventoryTransaction.TransactionType.PURCHASE_RECEIVE, "5");
+        ledger(OCT_1.plusDays(3), InventoryTransaction.TransactionType.MANUAL_DISPATCH, "2");
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("成功：スナップショットがない場合は現在の在庫数から以降の入出庫を差し引く")
+    void testGetStockAt_WithoutSnapshot() {
+        StockAtResponse result = stockSnapshotService.getStockAt(stock.getItemCode(), OCT_1.plusDays(1));
+
+        assertThat(result.getQuantity()).isEqualByComparingTo("7");
+        assertThat(result.getSnapshotDate()).isNull();
+        assertThat(stockSnapshotService.getStockAt(stock.getItemCode(), OCT_1).getQuantity())
+                .isEqualByComparingTo("10");
+        assertThat(stockSnapshotService.getStockAt(stock.getItemCode(), OCT_1.plusDays(10)).getQuantity())
+                .isEqualByComparingTo("10");
+    }
+
+    @Test
+    @DisplayName("成功：日次スナップショットは前日分にその日の入出庫を足し、参照時は直近のスナップショット以降だけを集計する")
+    void testTakeSnapshots_ThenGetStockAt() {
+        assertThat(stockSnapshotService.takeSnapshots(OCT_1)).isEqualTo(1);
+        assertThat(stockSnapshotService.takeSnapshots(OCT_1.plusDays(1))).isEqualTo(1);
+        assertThat(stockSnapshotService.takeSnapshots(OCT_1.plusDays(1))).isZero(); // 記録済み
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(stockSnapshotRepository.findBySnapshotDate(OCT_1)).singleElement()
+                .satisfies(s -> assertThat(s.getQuantity()).isEqualByComparingTo("10"));
+        assertThat(stockSnapshotRepository.findBySnapshotDate(OCT_1.plusDays(1))).singleElement()
+                .satisfies(s -> assertThat(s.getQuantity()).isEqualByComparingTo("7"));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        StockAtResponse result = stockSnapshotService.getStockAt(stock.getItemCode(), OCT_1.plusDays(2));
+
+        assertThat(result.getQuantity()).isEqualByComparingTo("12");
+        assertThat(result.getSnapshotDate()).isEqualTo(OCT_1.plusDays(1));
+        // 在庫・直近スナップショット・スナップショット以降の増減の3クエリ
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("失敗：存在しない在庫IDはエラー")
+    void testGetStockAt_NotFound() {
+        assertThatThrownBy(() -> stockSnapshotService.getStockAt("I-FFFFFF", OCT_1))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private void ledger(LocalDate date, InventoryTransaction.TransactionType type, String quantity) {
+        InventoryTransaction tx = new InventoryTransaction();
+        tx.setTransactionId("S56-" + (++txSequence));
+        tx.setStockItem(stock);
+        tx.setTransactionType(type);
+        tx.setQuantity(new BigDecimal(quantity));
+        tx.setOperator("picker");
+        tx.setTransactionTime(date.atTime(9, txSequence));
+        inventoryTransactionRepository.save(tx);
+    }
+}
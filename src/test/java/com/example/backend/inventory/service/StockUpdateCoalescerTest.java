@@ -0,0 +1,192 @@
+package com.example.backend.inventory.service;
+
+import com.example.backend.common.service.ItemCodeGenerator;
+import com.example.backend.common.service.NumberingFormatter;
+import com.example.backend.common.service.TransactionIdGenerator;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.inventory.dto.InventoryDispatchRequest;
+import com.example.backend.inventory.dto.InventoryReceiveRequest;
+import com.example.backend.inventory.repository.InventoryTransactionRepository;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // コアレッサは別トランザクションでコミットするため
+@DisplayName("StockUpdateCoalescerの入出庫まとめ反映テスト")
+class StockUpdateCoalescerTest {
+
+    private static final int CALLERS = 16;
+
+    @Autowired
+    private StockMasterRepository stockMasterRepository;
+
+    @Autowired
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionIdGenerator transactionIdGenerator;
+    private ReservationService reservationService;
+    private StockUpdateCoalescer coalescer;
+    private StockMaster stock;
+
+    @BeforeEach
+    void setUp() {
+        AtomicInteger sequence = new AtomicInteger();
+        transactionIdGenerator = mock(TransactionIdGenerator.class);
+        when(transactionIdGenerator.generateTxNos(anyInt())).thenAnswer(inv -> IntStream
+                .range(0, inv.<Integer>getArgument(0))
+                .mapToObj(i -> "S56-" + sequence.incrementAndGet())
+                .toList());
+        reservationService = mock(ReservationService.class);
+        when(reservationService.getReservedQuantity(any())).thenReturn(BigDecimal.ZERO);
+        coalescer = new StockUpdateCoalescer(stockMasterRepository, inventoryTransactionRepository,
+                transactionIdGenerator, reservationService, transactionManager, true, 50, 200);
+
+        ItemCodeGenerator itemCodeGenerator = new ItemCodeGenerator(jdbcTemplate, transactionManager,
+                new NumberingFormatter());
+        stock = new TransactionTemplate(transactionManager).execute(status -> {
+            StockMaster s = new StockMaster();
+            s.setItemName("軍手");
+            s.setCategory("消耗品");
+            s.setCurrentStock(new BigDecimal("10"));
+            s.assignIdentity(itemCodeGenerator);
+            return stockMasterRepository.save(s);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventoryTransactionRepository.deleteAll();
+        stockMasterRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("同時出庫をまとめて反映し、在庫を超えた分だけ在庫不足になる")
+    void testDispatch_CoalescesConcurrentCallers() throws Exception {
+        List<StockUpdateCoalescer.Result> results = runConcurrently(i -> {
+            InventoryDispatchRequest req = new InventoryDispatchRequest();
+            req.setItemCode(stock.getItemCode());
+            req.setQuantity(BigDecimal.ONE);
+            return coalescer.dispatch(req, "picker" + i);
+        });
+
+        assertThat(results).filteredOn(r -> r.status() == StockUpdateCoalescer.Status.SUCCESS).hasSize(10)
+                .allSatisfy(r -> assertThat(r.transactionId()).isNotNull())
+                .extracting(StockUpdateCoalescer.Result::transactionId).doesNotHaveDuplicates();
+        assertThat(results).filteredOn(r -> r.status() == StockUpdateCoalescer.Status.INSUFFICIENT_STOCK).hasSize(6);
+        assertThat(stockMasterRepository.findByItemCode(stock.getItemCode()).orElseThrow().getCurrentStock())
+                .isEqualByComparingTo("0");
+        assertThat(inventoryTransactionRepository.count()).isEqualTo(10);
+        // 採番は呼び出しごとではなくバッチごと
+        verify(transactionIdGenerator, atMost(CALLERS / 2)).generateTxNos(anyInt());
+    }
+
+    @Test
+    @DisplayName("入庫と出庫が混在しても到着順に反映される")
+    void testReceiveAndDispatch_Mixed() throws Exception {
+        List<StockUpdateCoalescer.Result> results = runConcurrently(i -> {
+            if (i % 2 == 0) {
+                InventoryReceiveRequest req = new InventoryReceiveRequest();
+                req.setItemCode(stock.getItemCode());
+                req.setQuantity(new BigDecimal("2"));
+                return coalescer.receive(req, "receiver" + i);
+            }
+            InventoryDispatchRequest req = new InventoryDispatchRequest();
+            req.setItemCode(stock.getItemCode());
+            req.setQuantity(BigDecimal.ONE);
+            return coalescer.dispatch(req, "picker" + i);
+        });
+
+        // 10 + 8件×2 - 8件×1 = 18（初期在庫が十分なため出庫はすべて成功）
+        assertThat(results).allMatch(r -> r.status() == StockUpdateCoalescer.Status.SUCCESS);
+        assertThat(stockMasterRepository.findByItemCode(stock.getItemCode()).orElseThrow().getCurrentStock())
+                .isEqualByComparingTo("18");
+        assertThat(inventoryTransactionRepository.count()).isEqualTo(CALLERS);
+    }
+
+    @Test
+    @DisplayName("引当済み数量を除いた在庫までしか出庫しない")
+    void testDispatch_RespectsReservations() throws Exception {
+        when(reservationService.getReservedQuantity(stock.getItemCode())).thenReturn(new BigDecimal("4"));
+
+        List<StockUpdateCoalescer.Result> results = runConcurrently(i -> {
+            InventoryDispatchRequest req = new InventoryDispatchRequest();
+            req.setItemCode(stock.getItemCode());
+            req.setQuantity(BigDecimal.ONE);
+            return coalescer.dispatch(req, "picker" + i);
+        });
+
+        // 在庫10のうち4は引当済みのため出庫できるのは6件
+        assertThat(results).filteredOn(r -> r.status() == StockUpdateCoalescer.Status.SUCCESS).hasSize(6);
+        assertThat(stockMasterRepository.findByItemCode(stock.getItemCode()).orElseThrow().getCurrentStock())
+                .isEqualByComparingTo("4");
+    }
+
+    @Test
+    @DisplayName("存在しない品目は NOT_FOUND を返す")
+    void testDispatch_NotFound() {
+        InventoryDispatchRequest req = new InventoryDispatchRequest();
+        req.setItemCode("I-FFFFFF");
+        req.setQuantity(BigDecimal.ONE);
+
+        assertThat(coalescer.dispatch(req, "picker").status()).isEqualTo(StockUpdateCoalescer.Status.NOT_FOUND);
+    }
+
+    private List<StockUpdateCoalescer.Result> runConcurrently(
+            java.util.function.IntFunction<StockUpdateCoalescer.Result> call) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<StockUpdateCoalescer.Result>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                int n = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return call.apply(n);
+                }));
+            }
+            start.countDown();
+            List<StockUpdateCoalescer.Result> results = new ArrayList<>();
+            for (Future<StockUpdateCoalescer.Result> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.backend.inventory.service;
+
+import com.example.backend.common.service.IdempotencyService;
+import com.example.backend.common.service.ItemCodeGenerator;
+import com.example.backend.common.service.OrderNumberGenerator;
+import com.example.backend.common.service.TransactionIdGenerator;
+import com.example.backend.entity.InventoryTransaction;
+import com.example.backend.entity.PurchaseOrder;
+import com.example.backend.entity.PurchaseOrderDetail;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.inventory.dto.CursorSliceResponse;
+import com.example.backend.inventory.dto.TransactionHistoryView;
+import com.example.backend.inventory.dto.TransactionSearchRequest;
+import com.example.backend.inventory.repository.InventoryTransactionRepository;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import com.example.backend.order.repository.PurchaseOrderDetailRepository;
+import com.example.backend.order.repository.PurchaseOrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ValidationException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("入出庫履歴のカーソル方式ページングテスト")
+class TransactionHistoryScrollTest {
+
+    private static final LocalDateTime BASE = LocalDate.now().atTime(0, 0);
+
+    @Autowired
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Autowired
+    private StockMasterRepository stockMasterRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private InventoryService inventoryService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        inventoryService = new InventoryService(stockMasterRepository, inventoryTransactionRepository,
+                mock(PurchaseOrderRepository.class), mock(PurchaseOrderDetailRepository.class),
+                mock(ItemCodeGenerator.class), mock(OrderNumberGenerator.class), mock(TransactionIdGenerator.class),
+                mock(StockUpdateCoalescer.class), mock(IdempotencyService.class), mock(InventoryJournal.class),
+                mock(ReservationService.class), mock(StockSearchIndex.class));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        StockMaster gloves = stock(1L, "A-0001");
+        StockMaster tape = stock(2L, "B-0002");
+        // 3件ずつ同じ処理日時にして、同時刻の行の境界をまたぐページを作る
+        for (int i = 0; i < 23; i++) {
+            tx("S56-" + i, i % 4 == 3 ? tape : gloves, BASE.plusMinutes(i / 3));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("成功：カーソルで順にたどると (処理日時, ID) の新しい順の全件を重複・欠落なく1ページ1クエリで返す")
+    void testScroll_AllPagesWithoutCount() {
+        List<Long> expected = inventoryTransactionRepository
+                .findAll(Sort.by(Sort.Order.desc("transactionTime"), Sort.Order.desc("id"))).stream()
+                .map(InventoryTransaction::getId).toList();
+        entityManager.clear();
+
+        List<Long> scrolled = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            CursorSliceResponse<TransactionHistoryView> page = inventoryService
+                    .scrollAllTransactionHistory(new TransactionSearchRequest(), cursor, 5);
+            // COUNT・関連の読み込みは発行せず、履歴の取得1回のみ
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            assertThat(page.getNumberOfElements()).isLessThanOrEqualTo(5);
+            page.getContent().forEach(t -> scrolled.add(t.id()));
+            cursor = page.getNextCursor();
+            assertThat(page.isHasNext()).isEqualTo(cursor != null);
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(5);
+        assertThat(scrolled).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("成功：品目ごとの履歴は指定品目だけをたどり、最後のページは nextCursor が null")
+    void testScroll_ByItemCode() {
+        CursorSliceResponse<TransactionHistoryView> first = inventoryService.scrollTransactionHistory("B-0002", null,
+                4);
+        assertThat(first.isHasNext()).isTrue();
+        CursorSliceResponse<TransactionHistoryView> second = inventoryService.scrollTransactionHistory("B-0002",
+                first.getNextCursor(), 4);
+
+        assertThat(first.getContent()).extracting(TransactionHistoryView::transactionId)
+                .containsExactly("S56-19", "S56-15", "S56-11", "S56-7");
+        assertThat(second.getContent()).extracting(TransactionHistoryView::transactionId)
+                .containsExactly("S56-3");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("成功：一覧は在庫マスタ・発注の項目を結合した1回のクエリで返し、仕入先は未設定なら発注から補う")
+    void testHistoryViews_SingleJoinedQuery() {
+        StockMaster gloves = entityManager.find(StockMaster.class, 1L);
+        for (int i = 0; i < 3; i++) {
+            PurchaseOrder order = new PurchaseOrder();
+            order.setOrderNo("PO-" + i);
+            order.setSupplier("商事" + i);
+            order.setOrderDate(LocalDate.now());
+            order.setOrderType(PurchaseOrder.OrderType.INVENTORY);
+            order.setOperator("buyer");
+            entityManager.persist(order);
+            PurchaseOrderDetail detail = new PurchaseOrderDetail();
+            detail.setPurchaseOrder(order);
+            detail.setItemCode("A-0001");
+            detail.setItemName("品名A-0001");
+            detail.setCategory("消耗品");
+            entityManager.persist(detail);
+
+            InventoryTransaction t = new InventoryTransaction();
+            t.setTransactionId("S56-PO-" + i);
+            t.setStockItem(gloves);
+            t.setPurchaseOrder(order);
+            t.setTransactionType(InventoryTransaction.TransactionType.PURCHASE_RECEIVE);
+            t.setQuantity(BigDecimal.TEN);
+            t.setOperator("buyer");
+            t.setSupplier(i == 0 ? "直送商会" : null);
+            t.setTransactionTime(BASE.plusHours(1).plusMinutes(i));
+            entityManager.persist(t);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        TransactionSearchRequest req = new TransactionSearchRequest();
+        req.setTransactionType(InventoryTransaction.TransactionType.PURCHASE_RECEIVE);
+        statistics.clear();
+        Page<TransactionHistoryView> page = inventoryService.getAllTransactionHistory(req, PageRequest.of(0, 10));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).extracting(TransactionHistoryView::orderNo, TransactionHistoryView::supplier,
+                TransactionHistoryView::itemName)
+                .containsExactly(
+                        tuple("PO-2", "商事2", "品名A-0001"),
+                        tuple("PO-1", "商事1", "品名A-0001"),
+                        tuple("PO-0", "直送商会", "品名A-0001"));
+
+        // 仕入先の条件は一覧と同じ発注への結合で判定する（発注の仕入先のみの行も対象）
+        req.setSupplier("商事");
+        statistics.clear();
+        Page<TransactionHistoryView> bySupplier = inventoryService.getAllTransactionHistory(req,
+                PageRequest.of(0, 10));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(bySupplier.getContent()).extracting(TransactionHistoryView::orderNo).containsExactly("PO-2", "PO-1");
+
+        // 1ページに収まらない場合のみ COUNT を発行する
+        statistics.clear();
+        Page<TransactionHistoryView> history = inventoryService.getTransactionHistory("A-0001",
+                PageRequest.of(0, 5));
+        assertThat(history.getTotalElements()).isEqualTo(21);
+        assertThat(history.getContent()).extracting(TransactionHistoryView::itemCode).containsOnly("A-0001");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("失敗：不正なカーソル・範囲外の件数は ValidationException")
+    void testScroll_InvalidRequest() {
+        assertThatThrownBy(() -> inventoryService.scrollTransactionHistory("A-0001", "not-a-cursor", 10))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("カーソルが不正です");
+        assertThatThrownBy(() -> inventoryService.scrollTransactionHistory("A-0001", null, 0))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    private StockMaster stock(Long id, String itemCode) {
+        StockMaster s = new StockMaster();
+        s.setId(id);
+        s.setItemCode(itemCode);
+        s.setItemName("品名" + itemCode);
+        s.setCategory("消耗品");
+        entityManager.persist(s);
+        return s;
+    }
+
+    private void tx(String transactionId, StockMaster stock, LocalDateTime transactionTime) {
+        InventoryTransaction t = new InventoryTransaction();
+        t.setTransactionId(transactionId);
+        t.setStockItem(stock);
+        t.setTransactionType(InventoryTransaction.TransactionType.MANUAL_RECEIVE);
+        t.setQuantity(BigDecimal.ONE);
+        t.setOperator("picker");
+        t.setTransactionTime(transactionTime);
+        entityManager.persist(t);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.backend.order.service;
+
+import com.example.backend.entity.PurchaseOrder;
+import com.example.backend.entity.PurchaseOrderDetail;
+import com.example.backend.order.dto.OrderHistoryResponse;
+import com.example.backend.order.repository.PurchaseOrderDetailRepository;
+import com.example.backend.order.repository.PurchaseOrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("OrderHistoryServiceの発注履歴取得テスト")
+class OrderHistoryServiceTest {
+
+    private static final int ORDERS = 120;
+
+    @Autowired
+    private PurchaseOrderRepository purchaseOrderRepository;
+
+    @Autowired
+    private PurchaseOrderDetailRepository purchaseOrderDetailRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private OrderHistoryService orderHistoryService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        orderHistoryService = new OrderHistoryService(purchaseOrderDetailRepository, purchaseOrderRepository);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 0; i < ORDERS; i++) {
+            PurchaseOrder order = new PurchaseOrder();
+            order.setOrderNo(String.format("PO-%03d", i));
+            order.setSupplier("テスト商事");
+            order.setOrderDate(LocalDate.now());
+            order.setOrderType(PurchaseOrder.OrderType.INVENTORY);
+            order.setOperator("buyer");
+            entityManager.persist(order);
+            // 明細数は発注ごとに 1〜3 件
+            for (int line = 0; line <= i % 3; line++) {
+                PurchaseOrderDetail detail = new PurchaseOrderDetail();
+                detail.setPurchaseOrder(order);
+                detail.setItemCode("A-" + line);
+                detail.setItemName("部品" + line);
+                detail.setCategory("部品");
+                detail.setQuantity(BigDecimal.TEN);
+                detail.setPurchasePrice(new BigDecimal("250"));
+                entityManager.persist(detail);
+                order.addLine(detail);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("成功：明細は1ページ分を IN でまとめて取得し、発行する SQL の数はページの件数によらず一定")
+    void testGetOrderHistory_ConstantStatementCount() {
+        statistics.clear();
+        Page<OrderHistoryResponse> page = orderHistoryService.getOrderHistory(null, 0, 100, null, null, false);
+        long statementsFor100 = statistics.getPrepareStatementCount();
+
+        assertThat(page.getContent()).hasSize(100);
+        assertThat(page.getTotalElements()).isEqualTo(ORDERS);
+        // 発注・件数・明細の3回のみ
+        assertThat(statementsFor100).isEqualTo(3);
+        page.getContent().forEach(order -> {
+            int index = Integer.parseInt(order.getOrderNo().substring(3));
+            assertThat(order.getDetails()).hasSize(index % 3 + 1)
+                    .allSatisfy(d -> assertThat(d.getOrderNo()).isEqualTo(order.getOrderNo()));
+        });
+
+        entityManager.clear();
+        statistics.clear();
+        orderHistoryService.getOrderHistory(null, 0, 10, null, null, false);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsFor100);
+    }
+
+    @Test
+    @DisplayName("成功：発注番号指定でも明細を返す")
+    void testGetOrderHistory_ByOrderNo() {
+        Page<OrderHistoryResponse> page = orderHistoryService.getOrderHistory("PO-005", 0, 10, null, null, false);
+
+        assertThat(page.getContent()).singleElement()
+                .satisfies(order -> assertThat(order.getDetails())
+                        .extracting(OrderHistoryResponse.OrderDetailResponse::getItemCode)
+                        .containsExactly("A-0", "A-1", "A-2"));
+    }
+}
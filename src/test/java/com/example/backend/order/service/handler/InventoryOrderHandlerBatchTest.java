@@ -0,0 +1,233 @@
+package com.example.backend.order.service.handler;
+
+import com.example.backend.common.service.ItemCodeGenerator;
+import com.example.backend.common.service.NumberingFormatter;
+import com.example.backend.common.service.TransactionIdGenerator;
+import com.example.backend.config.HibernateBatchConfig;
+import com.example.backend.entity.PurchaseOrder;
+import com.example.backend.entity.StockMaster;
+import com.example.backend.inventory.repository.InventoryTransactionRepository;
+import com.example.backend.inventory.repository.StockMasterRepository;
+import com.example.backend.order.dto.PurchaseOrderRequest;
+import com.example.backend.order.repository.PurchaseOrderDetailRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Import({ HibernateBatchConfig.class, InventoryOrderHandlerBatchTest.JdbcCountingConfig.class })
+@DisplayName("InventoryOrderHandlerの発注明細一括登録テスト")
+class InventoryOrderHandlerBatchTest {
+
+    private static final int LINES = 500;
+    private static final int BATCH_SIZE = 50; // hibernate.jdbc.batch-size の既定値
+
+    @Autowired
+    private StockMasterRepository stockMasterRepository;
+
+    @Autowired
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Autowired
+    private PurchaseOrderDetailRepository purchaseOrderDetailRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private InventoryOrderHandler handler;
+    private List<StockMaster> stocks;
+
+    @BeforeEach
+    void setUp() {
+        AtomicInteger sequence = new AtomicInteger();
+        TransactionIdGenerator transactionIdGenerator = mock(TransactionIdGenerator.class);
+        when(transactionIdGenerator.generateTxNos(anyInt())).thenAnswer(inv -> IntStream
+                .range(0, inv.<Integer>getArgument(0))
+                .mapToObj(i -> "S56-" + sequence.incrementAndGet())
+                .toList());
+        ItemCodeGenerator itemCodeGenerator = new ItemCodeGenerator(jdbcTemplate, transactionManager,
+                new NumberingFormatter());
+        handler = new InventoryOrderHandler(purchaseOrderDetailRepository, stockMasterRepository,
+                inventoryTransactionRepository, itemCodeGenerator, transactionIdGenerator);
+
+        stocks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            StockMaster stock = new StockMaster();
+            stock.setItemName("部品" + i);
+            stock.setCategory("部品");
+            stock.setCurrentStock(BigDecimal.ZERO);
+            stock.assignIdentity(itemCodeGenerator);
+            stocks.add(stockMasterRepository.save(stock));
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("500明細の発注は明細・履歴の INSERT がバッチサイズごとにまとめて送信される")
+    void testProcessOrderDetails_InsertsAreBatched() {
+        PurchaseOrder header = new PurchaseOrder();
+        header.setOrderNo("S56-ORD-000001");
+        header.setSupplier("テスト商事");
+        header.setOrderDate(LocalDate.now());
+        header.setOrderType(PurchaseOrder.OrderType.INVENTORY);
+        header.setOperator("buyer");
+        entityManager.persist(header);
+        entityManager.flush();
+
+        List<PurchaseOrderRequest.Detail> details = IntStream.range(0, LINES).mapToObj(i -> {
+            PurchaseOrderRequest.Detail detail = new PurchaseOrderRequest.Detail();
+            detail.setItemCode(stocks.get(i % stocks.size()).getItemCode());
+            detail.setQuantity(BigDecimal.ONE);
+            detail.setPurchasePrice(new BigDecimal("100"));
+            return detail;
+        }).toList();
+
+        JdbcCounter.reset();
+        BigDecimal total = handler.processOrderDetails(header, details, "buyer");
+        entityManager.flush();
+
+        assertThat(total).isEqualByComparingTo("50000");
+        assertThat(header.getOpenLineCount()).isEqualTo(LINES);
+        assertThat(header.getOrderedQuantityTotal()).isEqualByComparingTo("500");
+        for (String table : List.of("purchase_order_detail", "inventory_transaction")) {
+            assertThat(JdbcCounter.added(table)).as(table + " のバッチ追加行数").isEqualTo(LINES);
+            assertThat(JdbcCounter.batches(table)).as(table + " のバッチ送信回数").isEqualTo(LINES / BATCH_SIZE);
+            assertThat(JdbcCounter.single(table)).as(table + " の単発 INSERT").isZero();
+        }
+        assertThat(purchaseOrderDetailRepository.count()).isEqualTo(LINES);
+        assertThat(inventoryTransactionRepository.count()).isEqualTo(LINES);
+    }
+
+    /**
+     * DataSource をプロキシで包み、テーブルごとの INSERT の送信方法（バッチ / 単発）を数える
+     */
+    @TestConfiguration
+    static class JdbcCountingConfig {
+
+        @Bean
+        static BeanPostProcessor jdbcCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ? proxy(bean, (target, method, args) -> {
+                        Object result = invoke(target, method, args);
+                        return result instanceof Connection ? proxy(result, JdbcCounter::onConnection) : result;
+                    }) : bean;
+                }
+            };
+        }
+    }
+
+    static final class JdbcCounter {
+        private static final Map<String, LongAdder> ADDED = new ConcurrentHashMap<>();
+        private static final Map<String, LongAdder> BATCHES = new ConcurrentHashMap<>();
+        private static final Map<String, LongAdder> SINGLE = new ConcurrentHashMap<>();
+
+        static void reset() {
+            ADDED.clear();
+            BATCHES.clear();
+            SINGLE.clear();
+        }
+
+        static long added(String table) {
+            return count(ADDED, table);
+        }
+
+        static long batches(String table) {
+            return count(BATCHES, table);
+        }
+
+        static long single(String table) {
+            return count(SINGLE, table);
+        }
+
+        private static long count(Map<String, LongAdder> counts, String table) {
+            LongAdder adder = counts.get(table);
+            return adder == null ? 0 : adder.sum();
+        }
+
+        private static Object onConnection(Object connection, java.lang.reflect.Method method, Object[] args)
+                throws Throwable {
+            Object result = invoke(connection, method, args);
+            if (result instanceof PreparedStatement && method.getName().equals("prepareStatement")) {
+                String table = insertTable((String) args[0]);
+                if (table != null) {
+                    return proxy(result, (ps, m, a) -> {
+                        switch (m.getName()) {
+                            case "addBatch" -> ADDED.computeIfAbsent(table, k -> new LongAdder()).increment();
+                            case "executeBatch" -> BATCHES.computeIfAbsent(table, k -> new LongAdder()).increment();
+                            case "executeUpdate", "execute" ->
+                                SINGLE.computeIfAbsent(table, k -> new LongAdder()).increment();
+                            default -> {
+                            }
+                        }
+                        return invoke(ps, m, a);
+                    });
+                }
+            }
+            return result;
+        }
+
+        private static String insertTable(String sql) {
+            String normalized = sql.trim().toLowerCase(Locale.ROOT);
+            if (!normalized.startsWith("insert into ")) {
+                return null;
+            }
+            return normalized.substring("insert into ".length()).split("[\\s(]")[0];
+        }
+    }
+
+    private interface Handler {
+        Object handle(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable;
+    }
+
+    private static Object proxy(Object target, Handler handler) {
+        return Proxy.newProxyInstance(InventoryOrderHandlerBatchTest.class.getClassLoader(),
+                ClassUtils.getAllInterfaces(target), (p, method, args) -> handler.handle(target, method, args));
+    }
+
+    private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+}